@@ -0,0 +1,145 @@
+package com.example.kanbanboardbackend.benchmark;
+
+import com.example.kanbanboardbackend.KanbanBoardBackendApplication;
+import com.example.kanbanboardbackend.execution.VirtualThreads;
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.Ticket;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.services.TicketService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * The ticket API under a closed loop of many clients, once per execution mode: every client waits for its answer
+ * and sends the next request right away. By default four in five requests read a ticket by id, the rest move one,
+ * so every request waits on JDBC. Modes this JVM cannot run are skipped.
+ * {@code -Dbenchmark.clients=5000 -Dbenchmark.seconds=30 -Dbenchmark.modes=platform,virtual -Dbenchmark.move-percent=20}
+ * change the defaults.
+ */
+public class ExecutionModeLoadBenchmark {
+
+    private static final int TICKETS = 1000;
+
+    @Test
+    public void latencyByExecutionMode() throws Exception {
+        int clients = Integer.getInteger("benchmark.clients", 5000);
+        int seconds = Integer.getInteger("benchmark.seconds", 30);
+        int movePercent = Integer.getInteger("benchmark.move-percent", 20);
+        List<String> modes = Arrays.stream(System.getProperty("benchmark.modes", "platform,virtual").split(","))
+                .map(String::trim)
+                .collect(Collectors.toList());
+
+        System.out.printf("%10s %8s %10s %10s %10s %10s %8s %14s%n",
+                "mode", "clients", "requests", "req/s", "p50 ms", "p99 ms", "errors", "peak threads");
+        for (String mode : modes) {
+            if (mode.equals("virtual") && !VirtualThreads.isAvailable()) {
+                System.out.printf("%10s skipped, virtual threads need Java 21, this is Java %d%n", mode, Runtime.version().feature());
+                continue;
+            }
+            run(mode, clients, seconds, movePercent);
+        }
+    }
+
+    private void run(String mode, int clients, int seconds, int movePercent) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(KanbanBoardBackendApplication.class)
+                .run("--server.port=0",
+                        "--kanban.execution.mode=" + mode,
+                        "--spring.datasource.url=jdbc:h2:mem:load" + mode,
+                        "--server.tomcat.max-connections=" + (clients + 100),
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "--logging.level.org.springframework.web=WARN")) {
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/tickets";
+
+            List<Ticket> tickets = new ArrayList<>(TICKETS);
+            for (int i = 0; i < TICKETS; i++) {
+                tickets.add(Ticket.builder().title("ticket " + i).content("content").status(TicketStatus.values()[i % 3]).build());
+            }
+            List<String> ids = context.getBean(TicketService.class).saveAll(Board.DEFAULT_ID, tickets).stream()
+                    .map(FullTicket::getId)
+                    .collect(Collectors.toList());
+
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            threads.resetPeakThreadCount();
+
+            ExecutorService clientThreads = Executors.newCachedThreadPool();
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .executor(clientThreads)
+                    .build();
+            ConcurrentLinkedQueue<long[]> latencies = new ConcurrentLinkedQueue<>();
+            AtomicLong errors = new AtomicLong();
+            long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+            List<CompletableFuture<Void>> loops = new ArrayList<>(clients);
+            for (int client = 0; client < clients; client++) {
+                long[] own = new long[2048];
+                latencies.add(own);
+                loops.add(loop(http, base, ids, movePercent, new Random(client), own, errors, end));
+            }
+            CompletableFuture.allOf(loops.toArray(new CompletableFuture[0])).get(seconds + 120L, TimeUnit.SECONDS);
+            clientThreads.shutdownNow();
+
+            long[] all = latencies.stream()
+                    .flatMapToLong(own -> Arrays.stream(own, 1, (int) Math.min(own[0] + 1, own.length)))
+                    .sorted()
+                    .toArray();
+            System.out.printf("%10s %8d %10d %10.0f %10.1f %10.1f %8d %14d%n",
+                    mode, clients, all.length, all.length / (double) seconds,
+                    percentile(all, 0.50) / 1e6, percentile(all, 0.99) / 1e6, errors.get(), threads.getPeakThreadCount());
+        }
+    }
+
+    // one client: a request, its answer, the next request, until the time is up; own[0] counts the latencies in own[1..]
+    private CompletableFuture<Void> loop(HttpClient http, String base, List<String> ids, int movePercent, Random random,
+                                         long[] own, AtomicLong errors, long end) {
+        if (System.nanoTime() >= end) {
+            return CompletableFuture.completedFuture(null);
+        }
+        HttpRequest request;
+        if (random.nextInt(100) < movePercent) {
+            String body = "{\"movedTicketId\":\"" + ids.get(random.nextInt(ids.size()))
+                    + "\",\"afterThisOneId\":\"" + ids.get(random.nextInt(ids.size())) + "\"}";
+            request = HttpRequest.newBuilder(URI.create(base + "/move"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        } else {
+            request = HttpRequest.newBuilder(URI.create(base + "/" + ids.get(random.nextInt(ids.size())))).GET().build();
+        }
+
+        long start = System.nanoTime();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    // a refused move (409) is an answer like any other, only failures to answer count
+                    if (error != null || response.statusCode() >= 500) {
+                        errors.incrementAndGet();
+                    } else if (own[0] + 1 < own.length) {
+                        own[(int) ++own[0]] = System.nanoTime() - start;
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> loop(http, base, ids, movePercent, random, own, errors, end));
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, Math.round(quantile * (sorted.length - 1)))];
+    }
+}
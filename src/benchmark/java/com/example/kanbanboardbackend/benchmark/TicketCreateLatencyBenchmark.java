@@ -0,0 +1,114 @@
+package com.example.kanbanboardbackend.benchmark;
+
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.Ticket;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.repository.TicketCache;
+import com.example.kanbanboardbackend.services.TicketService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Latency of creating a ticket while the table grows from a hundred to a million rows.
+ * With the tail of a column found through the board projection and the indexes on {@code nextId},
+ * the numbers should stay flat. Sizes can be picked with {@code -Dbenchmark.sizes=100,1000}.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:createbenchmarkdb",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        "logging.level.org.springframework.web=WARN"
+})
+public class TicketCreateLatencyBenchmark {
+
+    private static final String DONE_ROOT_ID = "43efb13a-b048-4533-b7b1-cbbd851365e6";
+
+    private static final int WARMUP = 200;
+
+    private static final int MEASURED = 1000;
+
+    private static final int FILL_BATCH = 10_000;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TicketCache ticketCache;
+
+    private String doneTailId = DONE_ROOT_ID;
+
+    @Test
+    public void createLatencyByTableSize() throws Exception {
+        int[] sizes = Arrays.stream(System.getProperty("benchmark.sizes", "100,10000,100000,1000000").split(","))
+                .mapToInt(size -> Integer.parseInt(size.trim()))
+                .sorted()
+                .toArray();
+
+        System.out.printf("%12s %12s %12s %12s%n", "rows", "mean us", "p50 us", "p99 us");
+        for (int size : sizes) {
+            fillUpTo(size);
+            create(WARMUP);
+            long[] nanos = create(MEASURED);
+            Arrays.sort(nanos);
+            System.out.printf("%12d %12.1f %12.1f %12.1f%n",
+                    rowCount(),
+                    Arrays.stream(nanos).average().orElse(0) / 1_000,
+                    nanos[nanos.length / 2] / 1_000.0,
+                    nanos[nanos.length * 99 / 100] / 1_000.0);
+        }
+    }
+
+    private long[] create(int count) throws Exception {
+        long[] nanos = new long[count];
+        for (int i = 0; i < count; i++) {
+            Ticket ticket = Ticket.builder()
+                    .title("benchmark " + i)
+                    .content("content")
+                    .status(TicketStatus.toDo)
+                    .build();
+            long start = System.nanoTime();
+            this.ticketService.save(Board.DEFAULT_ID, ticket);
+            nanos[i] = System.nanoTime() - start;
+        }
+        return nanos;
+    }
+
+    // fills the done column straight through JDBC, chained behind its root, so the board stays valid
+    private void fillUpTo(int size) {
+        int missing = size - rowCount();
+        while (missing > 0) {
+            int batch = Math.min(missing, FILL_BATCH);
+            List<Object[]> rows = new ArrayList<>(batch);
+            List<String> ids = new ArrayList<>(batch);
+            for (int i = 0; i < batch; i++) {
+                ids.add(UUID.randomUUID().toString());
+            }
+            for (int i = 0; i < batch; i++) {
+                String nextId = i + 1 < batch ? ids.get(i + 1) : null;
+                rows.add(new Object[]{ids.get(i), "filler", nextId, TicketStatus.done.ordinal(), "filler", false});
+            }
+            this.jdbcTemplate.batchUpdate(
+                    "INSERT INTO TICKETS (ID, CONTENT, NEXT_ID, STATUS, TITLE, IS_ROOT, VERSION) VALUES (?, ?, ?, ?, ?, ?, 0)", rows);
+            this.jdbcTemplate.update("UPDATE TICKETS SET NEXT_ID = ? WHERE ID = ?", ids.get(0), this.doneTailId);
+            this.doneTailId = ids.get(batch - 1);
+            missing -= batch;
+        }
+        // the done tail was rewritten around Hibernate
+        this.ticketCache.evictAll();
+    }
+
+    private int rowCount() {
+        return this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM TICKETS", Integer.class);
+    }
+}
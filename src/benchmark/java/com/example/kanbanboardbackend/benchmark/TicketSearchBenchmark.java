@@ -0,0 +1,71 @@
+package com.example.kanbanboardbackend.benchmark;
+
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.TicketChangeSet;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.services.TicketSearchIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+/**
+ * Search latency over a million tickets whose words follow a skewed distribution, from rare words to very common ones.
+ */
+public class TicketSearchBenchmark {
+
+    private static final int TICKETS = Integer.getInteger("benchmark.tickets", 1_000_000);
+
+    private static final int VOCABULARY = 50_000;
+
+    private static final int ROUNDS = 50;
+
+    @Test
+    public void searchLatency() {
+        Random random = new Random(42);
+        TicketSearchIndex searchIndex = new TicketSearchIndex();
+
+        List<FullTicket> batch = new ArrayList<>();
+        for (int i = 0; i < TICKETS; i++) {
+            batch.add(FullTicket.builder()
+                    .id(UUID.randomUUID().toString())
+                    .boardId(Board.DEFAULT_ID)
+                    .title(words(random, 3))
+                    .content(words(random, 12))
+                    .status(TicketStatus.values()[i % 3])
+                    .version(0L)
+                    .build());
+            if (batch.size() == 10_000) {
+                searchIndex.apply(new TicketChangeSet(batch, Set.of()));
+                batch = new ArrayList<>();
+            }
+        }
+        searchIndex.apply(new TicketChangeSet(batch, Set.of()));
+
+        String[] queries = {"word49999", "word20000 word3000", "word500 word700", "word120", "word12345 wor", "word3 word7"};
+        System.out.printf("%-22s %10s %10s %10s%n", "query", "hits", "mean ms", "max ms");
+        for (String query : queries) {
+            long total = 0;
+            long max = 0;
+            long hits = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                hits = searchIndex.search(Board.DEFAULT_ID, query, round % 2 == 0 ? null : TicketStatus.done, 0, 20).getTotal();
+                long elapsed = System.nanoTime() - start;
+                total += elapsed;
+                max = Math.max(max, elapsed);
+            }
+            System.out.printf("%-22s %10d %10.2f %10.2f%n", query, hits, total / ROUNDS / 1e6, max / 1e6);
+        }
+    }
+
+    // word n is picked with a probability falling off like 1/n
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            int word = (int) Math.pow(VOCABULARY, random.nextDouble());
+            text.append("word").append(word).append(' ');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.kanbanboardbackend.benchmark.jmh;
+
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.TicketStatus;
+
+import java.util.*;
+
+/**
+ * Boards of a given size, tickets spread evenly over the columns and linked through {@code nextId} from a root each.
+ */
+final class BoardFixtures {
+
+    private BoardFixtures() {
+    }
+
+    static Map<TicketStatus, List<FullTicket>> linkedBoard(int size) {
+        Map<TicketStatus, List<FullTicket>> board = new EnumMap<>(TicketStatus.class);
+        TicketStatus[] statuses = TicketStatus.values();
+        for (TicketStatus ticketStatus : statuses) {
+            int columnSize = size / statuses.length + (ticketStatus.ordinal() < size % statuses.length ? 1 : 0);
+            List<FullTicket> column = new ArrayList<>(columnSize);
+            for (int i = 0; i < columnSize; i++) {
+                column.add(FullTicket.builder()
+                        .id(UUID.randomUUID().toString())
+                        .boardId(Board.DEFAULT_ID)
+                        .title("ticket " + i)
+                        .content("content of ticket " + i + " in " + ticketStatus)
+                        .status(ticketStatus)
+                        .version(0L)
+                        .isRoot(i == 0)
+                        .build());
+            }
+            for (int i = 0; i + 1 < columnSize; i++) {
+                column.get(i).setNextId(column.get(i + 1).getId());
+            }
+            board.put(ticketStatus, column);
+        }
+        return board;
+    }
+
+    // all tickets of a board in the order a table scan might return them
+    static List<FullTicket> shuffled(Map<TicketStatus, List<FullTicket>> board) {
+        List<FullTicket> all = new ArrayList<>();
+        board.values().forEach(all::addAll);
+        Collections.shuffle(all, new Random(42));
+        return all;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.kanbanboardbackend.benchmark.jmh;
+
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.repository.TicketRepository;
+import com.example.kanbanboardbackend.services.LinkedListTicketOrdering;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Putting a whole board back in order from the rows of a table scan, as {@code getAll()} does without a projection.
+ * The {@code legacy} benchmarks are the walk this replaced: one stream for the root and one fresh map of the whole board per column.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class BoardReconstructionBenchmarks {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private LinkedListTicketOrdering ticketOrdering;
+
+    private List<FullTicket> all;
+
+    private Map<TicketStatus, List<FullTicket>> columns;
+
+    private Map<String, FullTicket> toDoById;
+
+    @Setup
+    public void setUp() {
+        this.all = BoardFixtures.shuffled(BoardFixtures.linkedBoard(this.size));
+        this.columns = Map.of(
+                TicketStatus.toDo, columnOf(this.all, TicketStatus.toDo),
+                TicketStatus.toTest, columnOf(this.all, TicketStatus.toTest),
+                TicketStatus.done, columnOf(this.all, TicketStatus.done));
+        this.toDoById = new HashMap<>();
+        this.columns.get(TicketStatus.toDo).forEach(ticket -> this.toDoById.put(ticket.getId(), ticket));
+
+        TicketRepository ticketRepository = Mockito.mock(TicketRepository.class);
+        Mockito.when(ticketRepository.findByBoardId(Board.DEFAULT_ID)).thenReturn(this.all);
+        this.ticketOrdering = new LinkedListTicketOrdering();
+        ReflectionTestUtils.setField(this.ticketOrdering, "ticketRepository", ticketRepository);
+    }
+
+    @Benchmark
+    public Map<TicketStatus, List<FullTicket>> readBoard() {
+        return this.ticketOrdering.readBoard(Board.DEFAULT_ID);
+    }
+
+    @Benchmark
+    public Map<TicketStatus, List<FullTicket>> legacyReadBoard() {
+        return Map.of(
+                TicketStatus.toDo, legacySorted(TicketStatus.toDo, this.all),
+                TicketStatus.toTest, legacySorted(TicketStatus.toTest, this.all),
+                TicketStatus.done, legacySorted(TicketStatus.done, this.all));
+    }
+
+    @Benchmark
+    public List<FullTicket> sortColumn() {
+        return this.ticketOrdering.sort(TicketStatus.toDo, this.columns.get(TicketStatus.toDo));
+    }
+
+    // what the projection does for a column a commit touched, its rows are already indexed by id
+    @Benchmark
+    public List<FullTicket> sortIndexedColumn() {
+        return this.ticketOrdering.sort(TicketStatus.toDo, this.toDoById);
+    }
+
+    @Benchmark
+    public List<FullTicket> legacySortColumn() {
+        return legacySorted(TicketStatus.toDo, new ArrayList<>(this.columns.get(TicketStatus.toDo)));
+    }
+
+    private static List<FullTicket> legacySorted(TicketStatus ticketStatus, List<FullTicket> all) {
+        Optional<FullTicket> root = all
+                .stream()
+                .filter(ticket -> (ticket.getIsRoot() && ticket.getStatus().equals(ticketStatus))).findFirst();
+        if (root.isEmpty()) {
+            throw new IllegalStateException("No root with status" + ticketStatus + " found");
+        }
+        Map<String, FullTicket> map = all
+                .stream()
+                .collect(Collectors.toMap(FullTicket::getId, ticket -> ticket));
+        var results = new ArrayList<FullTicket>();
+        FullTicket current = root.get();
+        while (current != null) {
+            if (results.size() == all.size()) {
+                throw new IllegalStateException("Cycle in the list of tickets with status " + ticketStatus);
+            }
+            results.add(current);
+            current = map.get(current.getNextId());
+        }
+        return results;
+    }
+
+    private static List<FullTicket> columnOf(List<FullTicket> all, TicketStatus ticketStatus) {
+        return all.stream().filter(ticket -> ticket.getStatus() == ticketStatus).collect(Collectors.toList());
+    }
+}
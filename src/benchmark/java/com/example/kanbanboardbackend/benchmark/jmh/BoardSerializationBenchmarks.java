@@ -0,0 +1,59 @@
+package com.example.kanbanboardbackend.benchmark.jmh;
+
+import com.example.kanbanboardbackend.model.ColumnView;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing a board the way {@code GET /api/tickets} does, with object mappers configured like Spring's: the entities
+ * it used to send, and the column views it sends now as JSON and as CBOR. The payload sizes are printed on setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class BoardSerializationBenchmarks {
+
+    @Param({"1000", "10000", "100000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+
+    private ObjectMapper cborMapper;
+
+    private Map<TicketStatus, List<FullTicket>> board;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        this.cborMapper = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+        this.board = BoardFixtures.linkedBoard(this.size);
+        System.out.printf("%n%d tickets: entities %d bytes, views %d bytes as JSON, %d bytes as CBOR%n", this.size,
+                writeBoard().length, writeViews().length, writeViewsAsCbor().length);
+    }
+
+    @Benchmark
+    public byte[] writeBoard() throws Exception {
+        return this.objectMapper.writeValueAsBytes(this.board);
+    }
+
+    @Benchmark
+    public byte[] writeViews() throws Exception {
+        return this.objectMapper.writeValueAsBytes(ColumnView.of(this.board));
+    }
+
+    @Benchmark
+    public byte[] writeViewsAsCbor() throws Exception {
+        return this.cborMapper.writeValueAsBytes(ColumnView.of(this.board));
+    }
+}
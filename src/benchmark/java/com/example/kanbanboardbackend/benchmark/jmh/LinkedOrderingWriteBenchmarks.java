@@ -0,0 +1,97 @@
+package com.example.kanbanboardbackend.benchmark.jmh;
+
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.repository.TicketRepository;
+import com.example.kanbanboardbackend.services.LinkedListTicketOrdering;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append and move of the linked ordering against a mocked repository that keeps its rows in maps,
+ * measuring the ordering's own work without a database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LinkedOrderingWriteBenchmarks {
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private LinkedListTicketOrdering ticketOrdering;
+
+    private final Map<String, FullTicket> byId = new HashMap<>();
+
+    private final Map<String, FullTicket> byNextId = new HashMap<>();
+
+    private final Map<String, String> nextIdOf = new HashMap<>();
+
+    private List<FullTicket> column;
+
+    private FullTicket last;
+
+    private final Random random = new Random(42);
+
+    @Setup
+    public void setUp() {
+        this.column = BoardFixtures.linkedBoard(this.size).get(TicketStatus.toDo);
+        this.column.forEach(this::store);
+        this.last = this.column.get(this.column.size() - 1);
+
+        TicketRepository ticketRepository = Mockito.mock(TicketRepository.class);
+        Mockito.when(ticketRepository.save(ArgumentMatchers.any(FullTicket.class)))
+                .thenAnswer(invocation -> store(invocation.getArgument(0)));
+        Mockito.when(ticketRepository.saveAndFlush(ArgumentMatchers.any(FullTicket.class)))
+                .thenAnswer(invocation -> store(invocation.getArgument(0)));
+        Mockito.when(ticketRepository.findById(ArgumentMatchers.anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(this.byId.get(invocation.<String>getArgument(0))));
+        Mockito.when(ticketRepository.findByNextId(ArgumentMatchers.anyString()))
+                .thenAnswer(invocation -> this.byNextId.get(invocation.<String>getArgument(0)));
+
+        this.ticketOrdering = new LinkedListTicketOrdering();
+        ReflectionTestUtils.setField(this.ticketOrdering, "ticketRepository", ticketRepository);
+    }
+
+    @Benchmark
+    public FullTicket append() {
+        FullTicket newTicket = FullTicket.builder().boardId(Board.DEFAULT_ID)
+                .title("new").content("content").status(TicketStatus.toDo).build();
+        // the tail the projection would offer
+        FullTicket lastTicket = this.ticketOrdering.findLast(Board.DEFAULT_ID, TicketStatus.toDo, this.last);
+        this.last = this.ticketOrdering.append(newTicket, lastTicket);
+        return this.last;
+    }
+
+    @Benchmark
+    public FullTicket move() {
+        FullTicket movedTicket = this.column.get(1 + this.random.nextInt(this.column.size() - 1));
+        FullTicket afterThisOne = this.column.get(this.random.nextInt(this.column.size()));
+        this.ticketOrdering.moveAfter(movedTicket, afterThisOne);
+        return movedTicket;
+    }
+
+    private FullTicket store(FullTicket ticket) {
+        if (ticket.getId() == null) {
+            ticket.setId(UUID.randomUUID().toString());
+        }
+        String previousNextId = this.nextIdOf.put(ticket.getId(), ticket.getNextId());
+        if (previousNextId != null && this.byNextId.get(previousNextId) == ticket) {
+            this.byNextId.remove(previousNextId);
+        }
+        if (ticket.getNextId() != null) {
+            this.byNextId.put(ticket.getNextId(), ticket);
+        }
+        this.byId.put(ticket.getId(), ticket);
+        return ticket;
+    }
+}
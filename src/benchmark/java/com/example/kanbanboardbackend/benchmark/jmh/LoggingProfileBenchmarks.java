@@ -0,0 +1,87 @@
+package com.example.kanbanboardbackend.benchmark.jmh;
+
+import com.example.kanbanboardbackend.KanbanBoardBackendApplication;
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.MoveRequest;
+import com.example.kanbanboardbackend.model.Ticket;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.services.TicketService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Service throughput with the default logging setup against the {@code prod} profile.
+ * Standard out is discarded, so only the cost of producing the log lines is measured, not the terminal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class LoggingProfileBenchmarks {
+
+    @Param({"default", "prod"})
+    private String profile;
+
+    private ConfigurableApplicationContext context;
+
+    private TicketService ticketService;
+
+    private List<String> ids;
+
+    @Setup
+    public void setUp() throws Exception {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        this.context = new SpringApplicationBuilder(KanbanBoardBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles(this.profile)
+                .run("--spring.datasource.url=jdbc:h2:mem:loggingbenchmarkdb");
+        this.ticketService = this.context.getBean(TicketService.class);
+
+        List<Ticket> tickets = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            tickets.add(Ticket.builder().title("ticket " + i).content("content").status(TicketStatus.toDo).build());
+        }
+        this.ids = this.ticketService.saveAll(Board.DEFAULT_ID, tickets)
+                .stream()
+                .map(FullTicket::getId)
+                .collect(Collectors.toList());
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    public FullTicket createAndRead() throws Exception {
+        FullTicket saved = this.ticketService.save(Board.DEFAULT_ID, Ticket.builder().title("new").content("content").status(TicketStatus.toTest).build());
+        return this.ticketService.findById(saved.getId());
+    }
+
+    @Benchmark
+    public void moveTicket() throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String movedTicketId = this.ids.get(random.nextInt(this.ids.size()));
+        String afterThisOneId = this.ids.get(random.nextInt(this.ids.size()));
+        try {
+            this.ticketService.moveTicket(new MoveRequest(movedTicketId, afterThisOneId));
+        } catch (Exception e) {
+            // a move that keeps losing to the other threads still did its work
+        }
+    }
+}
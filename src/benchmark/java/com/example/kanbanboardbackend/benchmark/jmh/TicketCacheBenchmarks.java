@@ -0,0 +1,88 @@
+package com.example.kanbanboardbackend.benchmark.jmh;
+
+import com.example.kanbanboardbackend.KanbanBoardBackendApplication;
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.MoveRequest;
+import com.example.kanbanboardbackend.model.Ticket;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.services.TicketService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * {@code moveTicket()} and {@code findById()} through the whole service against an embedded H2, with the second-level
+ * and query cache of tickets on and off. The cached path runs through more code before it is compiled, so a short
+ * warmup on one core measures the JIT rather than the cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20, time = 3)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class TicketCacheBenchmarks {
+
+    @Param({"1000", "10000"})
+    private int size;
+
+    @Param({"true", "false"})
+    private boolean cache;
+
+    private ConfigurableApplicationContext context;
+
+    private TicketService ticketService;
+
+    private List<String> ids;
+
+    private final Random random = new Random(42);
+
+    @Setup
+    public void setUp() throws Exception {
+        this.context = new SpringApplicationBuilder(KanbanBoardBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:jmhcachebenchmarkdb",
+                        "--spring.jpa.properties.hibernate.cache.use_second_level_cache=" + this.cache,
+                        "--spring.jpa.properties.hibernate.cache.use_query_cache=" + this.cache,
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "--logging.level.org.springframework.web=WARN");
+        this.ticketService = this.context.getBean(TicketService.class);
+
+        List<Ticket> tickets = new ArrayList<>(this.size);
+        for (int i = 0; i < this.size; i++) {
+            tickets.add(Ticket.builder().title("ticket " + i).content("content").status(TicketStatus.values()[i % 3]).build());
+        }
+        this.ids = this.ticketService.saveAll(Board.DEFAULT_ID, tickets)
+                .stream()
+                .map(FullTicket::getId)
+                .collect(Collectors.toList());
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    public void moveTicket() throws Exception {
+        String movedTicketId = this.ids.get(this.random.nextInt(this.ids.size()));
+        String afterThisOneId = this.ids.get(this.random.nextInt(this.ids.size()));
+        this.ticketService.moveTicket(new MoveRequest(movedTicketId, afterThisOneId));
+    }
+
+    @Benchmark
+    public FullTicket findById() throws Exception {
+        return this.ticketService.findById(this.ids.get(this.random.nextInt(this.ids.size())));
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.kanbanboardbackend.benchmark.jmh;
+
+import com.example.kanbanboardbackend.model.TicketIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The two lookups every move makes, by {@code id} and by {@code nextId}, on a file H2 tickets table with ids stored
+ * the old way (random UUIDs as strings), the new one (time-ordered UUIDs as {@code uuid}) or half of each. Setup prints how long
+ * filling the table took and how much disk the table and its indexes use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TicketIdStorageBenchmarks {
+
+    @Param({"100000"})
+    private int size;
+
+    @Param({"varchar-random", "varchar-v7", "uuid-random", "uuid-v7"})
+    private String storage;
+
+    private Path directory;
+
+    private Connection connection;
+
+    private PreparedStatement byId;
+
+    private PreparedStatement byNextId;
+
+    private List<String> ids;
+
+    @Setup
+    public void setUp() throws Exception {
+        boolean uuid = this.storage.startsWith("uuid");
+        this.directory = Files.createTempDirectory("id-storage");
+        this.connection = DriverManager.getConnection("jdbc:h2:file:" + this.directory.resolve("tickets"), "sa", "");
+        String idType = uuid ? "UUID" : "VARCHAR(255)";
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("CREATE TABLE tickets (id " + idType + " NOT NULL PRIMARY KEY, title VARCHAR(255), content VARCHAR(255),"
+                    + " status INTEGER, next_id " + idType + ", version BIGINT, is_root BOOLEAN, board_id VARCHAR(255))");
+            statement.execute("CREATE UNIQUE INDEX idx_tickets_next_id ON tickets (next_id)");
+        }
+
+        this.ids = new ArrayList<>(this.size);
+        for (int i = 0; i < this.size; i++) {
+            this.ids.add(this.storage.endsWith("v7") ? TicketIdGenerator.newId() : UUID.randomUUID().toString());
+        }
+
+        long start = System.nanoTime();
+        this.connection.setAutoCommit(false);
+        try (PreparedStatement insert = this.connection.prepareStatement(
+                "INSERT INTO tickets (id, title, content, status, next_id, version, is_root, board_id) VALUES (?, ?, ?, 0, ?, 0, ?, 'board')")) {
+            for (int i = 0; i < this.size; i++) {
+                insert.setObject(1, id(this.ids.get(i)));
+                insert.setString(2, "ticket " + i);
+                insert.setString(3, "content");
+                insert.setObject(4, i + 1 < this.size ? id(this.ids.get(i + 1)) : null);
+                insert.setBoolean(5, i == 0);
+                insert.addBatch();
+                if (i % 1000 == 999) {
+                    insert.executeBatch();
+                    this.connection.commit();
+                }
+            }
+            insert.executeBatch();
+            this.connection.commit();
+        }
+        long insertMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        this.connection.setAutoCommit(true);
+
+        try (Statement statement = this.connection.createStatement();
+             ResultSet used = statement.executeQuery("CALL DISK_SPACE_USED('TICKETS')")) {
+            used.next();
+            System.out.printf("%n%s, %d tickets: filled in %d ms, table and indexes %d KB%n",
+                    this.storage, this.size, insertMillis, used.getLong(1) / 1024);
+        }
+
+        this.byId = this.connection.prepareStatement("SELECT * FROM tickets WHERE id = ?");
+        this.byNextId = this.connection.prepareStatement("SELECT * FROM tickets WHERE next_id = ?");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        this.connection.close();
+        try (var files = Files.walk(this.directory)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public boolean findById() throws SQLException {
+        return find(this.byId);
+    }
+
+    @Benchmark
+    public boolean findByNextId() throws SQLException {
+        return find(this.byNextId);
+    }
+
+    private boolean find(PreparedStatement query) throws SQLException {
+        query.setObject(1, id(this.ids.get(ThreadLocalRandom.current().nextInt(1, this.size))));
+        try (ResultSet row = query.executeQuery()) {
+            return row.next();
+        }
+    }
+
+    // what the repository binds: a UUID for the uuid column, the string itself for the old one
+    private Object id(String id) {
+        return this.storage.startsWith("uuid") ? UUID.fromString(id) : id;
+    }
+}
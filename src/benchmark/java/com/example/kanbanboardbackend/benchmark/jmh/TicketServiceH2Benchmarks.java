@@ -0,0 +1,87 @@
+package com.example.kanbanboardbackend.benchmark.jmh;
+
+import com.example.kanbanboardbackend.KanbanBoardBackendApplication;
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.MoveRequest;
+import com.example.kanbanboardbackend.model.Ticket;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.services.TicketService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * {@code save()}, {@code moveTicket()} and {@code getAll()} through the whole service, against an embedded H2.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class TicketServiceH2Benchmarks {
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+
+    private TicketService ticketService;
+
+    private List<String> ids;
+
+    private final Random random = new Random(42);
+
+    @Setup
+    public void setUp() throws Exception {
+        this.context = new SpringApplicationBuilder(KanbanBoardBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                // arguments, not default properties, so they win over application.properties
+                .run("--spring.datasource.url=jdbc:h2:mem:jmhbenchmarkdb",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "--logging.level.org.springframework.web=WARN");
+        this.ticketService = this.context.getBean(TicketService.class);
+
+        List<Ticket> tickets = new ArrayList<>(this.size);
+        for (int i = 0; i < this.size; i++) {
+            tickets.add(Ticket.builder().title("ticket " + i).content("content").status(TicketStatus.toDo).build());
+        }
+        this.ids = this.ticketService.saveAll(Board.DEFAULT_ID, tickets)
+                .stream()
+                .map(FullTicket::getId)
+                .collect(Collectors.toList());
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    public FullTicket save() throws Exception {
+        return this.ticketService.save(Board.DEFAULT_ID, Ticket.builder().title("new").content("content").status(TicketStatus.toTest).build());
+    }
+
+    @Benchmark
+    public void moveTicket() throws Exception {
+        String movedTicketId = this.ids.get(this.random.nextInt(this.ids.size()));
+        String afterThisOneId = this.ids.get(this.random.nextInt(this.ids.size()));
+        this.ticketService.moveTicket(new MoveRequest(movedTicketId, afterThisOneId));
+    }
+
+    @Benchmark
+    public Object getAll() throws Exception {
+        return this.ticketService.getAll(Board.DEFAULT_ID);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.kanbanboardbackend.cluster;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Carries the ids of the tickets each commit wrote to the other nodes of a cluster, which reload those rows through
+ * {@link RemoteTicketChanges}. Only ids travel: a node always takes the rows from the shared database, so a late or
+ * repeated event cannot put an old version of a ticket on its board.
+ * <p>
+ * Commits are numbered per board, without gaps and in the order they commit, the same on every node. The projection
+ * takes those numbers as the versions of the boards, counted from {@link #getEpoch()}, so an ETag or event id one node
+ * handed out is good on all of them.
+ */
+public interface ClusterBus {
+
+    /**
+     * Called in the writing transaction once Hibernate has flushed it, right before it commits.
+     * Nothing may reach the other nodes unless the transaction commits.
+     *
+     * @return the number the commit got for every board it wrote to
+     */
+    Map<String, Long> publish(Map<String, Collection<String>> ticketIdsByBoard);
+
+    /**
+     * Applies whatever other nodes committed so far. Called once a write holds its column locks, so it sees every
+     * commit of the node that held them before.
+     */
+    void catchUp();
+
+    /**
+     * The number of the last commit to a board, 0 before the first. Read before the board itself, every commit up to it
+     * is in what is read.
+     */
+    long sequence(String boardId);
+
+    /**
+     * What the numbers of this cluster count from, the same on every node.
+     */
+    String getEpoch();
+}
@@ -0,0 +1,38 @@
+package com.example.kanbanboardbackend.cluster;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.UUID;
+
+/**
+ * This application as one of several nodes on a shared database.
+ */
+@Component
+@ConditionalOnProperty(name = "kanban.cluster.enabled", havingValue = "true")
+public class ClusterNode {
+
+    @Value("${kanban.cluster.node-id:}")
+    private String id;
+
+    @Value("${kanban.event-log.enabled:false}")
+    private boolean eventLogEnabled;
+
+    @PostConstruct
+    void start() {
+        // the event log writes the board it recovered over the tickets table, every other node's commits included
+        if (this.eventLogEnabled) {
+            throw new IllegalStateException("kanban.event-log.enabled and kanban.cluster.enabled cannot both be set, " +
+                    "the nodes of a cluster keep the board in their shared database");
+        }
+        if (this.id.isEmpty()) {
+            this.id = UUID.randomUUID().toString();
+        }
+    }
+
+    public String getId() {
+        return this.id;
+    }
+}
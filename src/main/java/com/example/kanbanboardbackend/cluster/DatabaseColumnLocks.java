@@ -0,0 +1,149 @@
+package com.example.kanbanboardbackend.cluster;
+
+import com.example.kanbanboardbackend.services.BoardColumn;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+
+/**
+ * The column locks of a cluster, as rows of {@code column_locks} held with {@code SELECT ... FOR UPDATE}. Each holder
+ * keeps a connection of a small pool of its own with a transaction open on it, from before its write transaction starts
+ * until after it has committed, the same span the in-JVM locks cover; row locks work the same in H2 and PostgreSQL,
+ * which advisory locks do not. A node that crashes while holding one loses its connection, and the database lets go.
+ * <p>
+ * Once the locks are held the node catches up on the bus, so a write starts from every commit made before it on the
+ * columns it writes, whichever node made them.
+ */
+@Component
+@ConditionalOnProperty(name = "kanban.cluster.enabled", havingValue = "true")
+public class DatabaseColumnLocks {
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Autowired
+    private ClusterBus clusterBus;
+
+    // one connection per set of columns this node holds at a time
+    @Value("${kanban.cluster.lock-pool-size:8}")
+    private int poolSize;
+
+    @Value("${kanban.cluster.lock-timeout-ms:5000}")
+    private long lockTimeoutMs;
+
+    private HikariDataSource lockConnections;
+
+    @PostConstruct
+    void start() {
+        this.lockConnections = this.dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        this.lockConnections.setPoolName("column-locks");
+        this.lockConnections.setMaximumPoolSize(this.poolSize);
+        this.lockConnections.setMinimumIdle(1);
+        this.lockConnections.setConnectionTimeout(this.lockTimeoutMs);
+        this.lockConnections.setAutoCommit(false);
+    }
+
+    @PreDestroy
+    void stop() {
+        this.lockConnections.close();
+    }
+
+    /**
+     * Locks the columns in the order given, which has to be {@link BoardColumn} order.
+     */
+    public Held lock(Collection<BoardColumn> columns) {
+        Connection connection;
+        try {
+            connection = this.lockConnections.getConnection();
+        } catch (SQLException e) {
+            throw new CannotAcquireLockException("No connection to lock " + columns + " with", e);
+        }
+
+        Held held = new Held(connection);
+        try {
+            if (!selectForUpdate(connection, columns)) {
+                // the first lock of a column creates its row; creating it commits, which lets go of whatever was locked so far
+                connection.rollback();
+                for (BoardColumn column : columns) {
+                    insertRow(connection, column);
+                }
+                if (!selectForUpdate(connection, columns)) {
+                    throw new CannotAcquireLockException("No lock rows for " + columns);
+                }
+            }
+            this.clusterBus.catchUp();
+        } catch (SQLException e) {
+            held.close();
+            throw new CannotAcquireLockException("Could not lock " + columns, e);
+        } catch (RuntimeException e) {
+            held.close();
+            throw e;
+        }
+        return held;
+    }
+
+    // false as soon as a column has no row yet
+    private boolean selectForUpdate(Connection connection, Collection<BoardColumn> columns) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement("SELECT board_id FROM column_locks WHERE board_id = ? AND status = ? FOR UPDATE")) {
+            select.setQueryTimeout((int) Math.max(1, this.lockTimeoutMs / 1000));
+            for (BoardColumn column : columns) {
+                select.setString(1, column.getBoardId());
+                select.setInt(2, column.getStatus().ordinal());
+                try (ResultSet row = select.executeQuery()) {
+                    if (!row.next()) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    private static void insertRow(Connection connection, BoardColumn column) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO column_locks (board_id, status) VALUES (?, ?)")) {
+            insert.setString(1, column.getBoardId());
+            insert.setInt(2, column.getStatus().ordinal());
+            insert.executeUpdate();
+            connection.commit();
+        } catch (SQLException e) {
+            // the row is there already, or another node is creating it right now
+            connection.rollback();
+        }
+    }
+
+    public static class Held implements AutoCloseable {
+
+        private final Connection connection;
+
+        private Held(Connection connection) {
+            this.connection = connection;
+        }
+
+        // ending the transaction releases the row locks, nothing was written in it
+        @Override
+        public void close() {
+            try {
+                this.connection.rollback();
+            } catch (SQLException ignored) {
+                // a connection that broke took its locks with it
+            } finally {
+                try {
+                    this.connection.close();
+                } catch (SQLException ignored) {
+                }
+            }
+        }
+    }
+}
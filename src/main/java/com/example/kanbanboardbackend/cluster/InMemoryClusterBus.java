@@ -0,0 +1,106 @@
+package com.example.kanbanboardbackend.cluster;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A stand-in broker for nodes that share one JVM, as in tests: every node started with {@code kanban.cluster.bus=in-memory}
+ * hears every other one. A commit is handed to the other nodes on the committing thread, before its column locks are
+ * released, so there is never anything left to catch up on. Commits are numbered like the jdbc bus numbers them,
+ * a board's counter stays locked from before the commit until it is done.
+ */
+@Component
+@ConditionalOnExpression("${kanban.cluster.enabled:false} && '${kanban.cluster.bus:jdbc}' == 'in-memory'")
+public class InMemoryClusterBus implements ClusterBus {
+
+    private static final List<InMemoryClusterBus> NODES = new CopyOnWriteArrayList<>();
+
+    private static final String EPOCH = UUID.randomUUID().toString().substring(0, 8);
+
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+
+    private static final ExecutorService DELIVERY = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "in-memory-cluster-bus");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    private RemoteTicketChanges remoteTicketChanges;
+
+    @PostConstruct
+    void join() {
+        NODES.add(this);
+    }
+
+    @PreDestroy
+    void leave() {
+        NODES.remove(this);
+    }
+
+    @Override
+    public Map<String, Long> publish(Map<String, Collection<String>> ticketIdsByBoard) {
+        Map<String, Long> sequences = new TreeMap<>();
+        for (String boardId : new TreeSet<>(ticketIdsByBoard.keySet())) {
+            Counter counter = COUNTERS.computeIfAbsent(boardId, key -> new Counter());
+            counter.lock.lock();
+            sequences.put(boardId, counter.committed + 1);
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                sequences.forEach((boardId, seq) -> COUNTERS.get(boardId).committed = seq);
+                CompletableFuture.runAsync(() -> {
+                    for (InMemoryClusterBus node : NODES) {
+                        if (node != InMemoryClusterBus.this) {
+                            sequences.forEach((boardId, seq) ->
+                                    node.remoteTicketChanges.apply(boardId, new TreeMap<>(Map.of(seq, ticketIdsByBoard.get(boardId)))));
+                        }
+                    }
+                }, DELIVERY).join();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                sequences.keySet().forEach(boardId -> COUNTERS.get(boardId).lock.unlock());
+            }
+        });
+        return sequences;
+    }
+
+    @Override
+    public void catchUp() {
+    }
+
+    @Override
+    public long sequence(String boardId) {
+        Counter counter = COUNTERS.get(boardId);
+        return counter != null ? counter.committed : 0;
+    }
+
+    @Override
+    public String getEpoch() {
+        return EPOCH;
+    }
+
+    private static class Counter {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private volatile long committed;
+    }
+}
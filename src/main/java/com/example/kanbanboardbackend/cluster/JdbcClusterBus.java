@@ -0,0 +1,178 @@
+package com.example.kanbanboardbackend.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The bus as a table of the shared database: a commit inserts one row per board with the ids it wrote, in its own
+ * transaction, and every node polls for the rows it has not seen yet. No broker to run, and an event is there exactly
+ * when its commit is.
+ * <p>
+ * Rows are numbered from a counter row per board, not a database sequence: a sequence hands out numbers as rows are
+ * inserted, so 7 could be read before 6 has committed and 6 would be missed. The counter of a board stays locked from
+ * the end of a write transaction until it has committed, so numbers commit in order and a rolled back transaction takes
+ * its number back with it. Only commits to the same board queue up for that moment, and those mostly hold column locks
+ * of that board anyway.
+ * <p>
+ * Without gaps, a node that finds a number missing knows it was purged before the node read it, as after a long pause:
+ * it can no longer tell which tickets changed, so it reloads all of them.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("${kanban.cluster.enabled:false} && '${kanban.cluster.bus:jdbc}' == 'jdbc'")
+public class JdbcClusterBus implements ClusterBus {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ClusterNode node;
+
+    @Autowired
+    private RemoteTicketChanges remoteTicketChanges;
+
+    @Value("${kanban.cluster.retention-ms:3600000}")
+    private long retentionMs;
+
+    private String epoch;
+
+    // one poll at a time; not a monitor, a write waiting for one would pin its virtual thread while the other reads the database
+    private final ReentrantLock catchingUp = new ReentrantLock();
+
+    // the last number read of every board
+    private final Map<String, Long> highest = new HashMap<>();
+
+    // the board is read from the database after this, with every commit counted so far
+    @PostConstruct
+    void start() {
+        this.epoch = readEpoch();
+        this.jdbcTemplate.query("SELECT board_id, seq FROM board_invalidation_seq",
+                row -> {
+                    this.highest.put(row.getString("board_id"), row.getLong("seq"));
+                });
+    }
+
+    @Override
+    public Map<String, Long> publish(Map<String, Collection<String>> ticketIdsByBoard) {
+        Map<String, Long> sequences = new HashMap<>();
+        // always in the same order, so two commits to the same boards do not wait for each other's counters
+        for (String boardId : new TreeSet<>(ticketIdsByBoard.keySet())) {
+            if (this.jdbcTemplate.update("UPDATE board_invalidation_seq SET seq = seq + 1 WHERE board_id = ?", boardId) == 0) {
+                createCounter(boardId);
+                this.jdbcTemplate.update("UPDATE board_invalidation_seq SET seq = seq + 1 WHERE board_id = ?", boardId);
+            }
+            long seq = sequence(boardId);
+            this.jdbcTemplate.update("INSERT INTO ticket_invalidations (board_id, seq, node_id, ticket_ids) VALUES (?, ?, ?, ?)",
+                    boardId, seq, this.node.getId(), String.join(",", ticketIdsByBoard.get(boardId)));
+            sequences.put(boardId, seq);
+        }
+        return sequences;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${kanban.cluster.poll-interval-ms:200}")
+    public void catchUp() {
+        this.catchingUp.lock();
+        try {
+            // every row up to the counter of its board has committed with it
+            Map<String, Long> counted = new HashMap<>();
+            this.jdbcTemplate.query("SELECT board_id, seq FROM board_invalidation_seq",
+                    row -> {
+                        counted.put(row.getString("board_id"), row.getLong("seq"));
+                    });
+
+            boolean missed = false;
+            for (Map.Entry<String, Long> counter : counted.entrySet()) {
+                String boardId = counter.getKey();
+                long from = this.highest.getOrDefault(boardId, 0L);
+                if (counter.getValue() <= from) {
+                    continue;
+                }
+
+                // this node's own commits too, the projection skips the ones it has applied already
+                SortedMap<Long, Collection<String>> ticketIds = new TreeMap<>();
+                this.jdbcTemplate.query("SELECT seq, ticket_ids FROM ticket_invalidations WHERE board_id = ? AND seq > ? AND seq <= ? ORDER BY seq",
+                        row -> {
+                            ticketIds.put(row.getLong("seq"), Arrays.asList(row.getString("ticket_ids").split(",")));
+                        }, boardId, from, counter.getValue());
+                this.highest.put(boardId, counter.getValue());
+
+                if (ticketIds.size() < counter.getValue() - from) {
+                    log.warn("Ticket invalidations of board {} up to {} were purged before this node read them, reloading every ticket",
+                            boardId, counter.getValue());
+                    missed = true;
+                } else if (!missed) {
+                    this.remoteTicketChanges.apply(boardId, ticketIds);
+                }
+            }
+            if (missed) {
+                this.remoteTicketChanges.applyAll();
+            }
+        } finally {
+            this.catchingUp.unlock();
+        }
+    }
+
+    @Override
+    public long sequence(String boardId) {
+        List<Long> seq = this.jdbcTemplate.queryForList("SELECT seq FROM board_invalidation_seq WHERE board_id = ?", Long.class, boardId);
+        return seq.isEmpty() ? 0 : seq.get(0);
+    }
+
+    @Override
+    public String getEpoch() {
+        return this.epoch;
+    }
+
+    // any node may clear out old rows, every node has long read them
+    @Scheduled(fixedDelayString = "${kanban.cluster.purge-interval-ms:60000}")
+    public void purge() {
+        // by the clock of the database, which set created_at, so the clocks of the nodes do not have to agree
+        Timestamp now = this.jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP", Timestamp.class);
+        int purged = this.jdbcTemplate.update("DELETE FROM ticket_invalidations WHERE created_at < ?",
+                new Timestamp(now.getTime() - this.retentionMs));
+        if (purged > 0) {
+            log.debug("Purged {} ticket invalidations", purged);
+        }
+    }
+
+    // the first node to start picks it
+    private String readEpoch() {
+        try {
+            this.jdbcTemplate.update("INSERT INTO cluster_epoch (id, epoch) VALUES (1, ?)", UUID.randomUUID().toString().substring(0, 8));
+        } catch (DataAccessException e) {
+            // picked already
+        }
+        return this.jdbcTemplate.queryForObject("SELECT epoch FROM cluster_epoch WHERE id = 1", String.class);
+    }
+
+    // the first commit to a board creates its counter, on a connection of its own: the writing transaction must not commit yet
+    private void createCounter(String boardId) {
+        try (Connection connection = this.dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement("INSERT INTO board_invalidation_seq (board_id, seq) VALUES (?, 0)")) {
+            connection.setAutoCommit(true);
+            insert.setString(1, boardId);
+            insert.executeUpdate();
+        } catch (SQLException e) {
+            // another node created it first
+        }
+    }
+}
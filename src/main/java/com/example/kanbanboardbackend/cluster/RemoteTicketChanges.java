@@ -0,0 +1,92 @@
+package com.example.kanbanboardbackend.cluster;
+
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.TicketChangeSet;
+import com.example.kanbanboardbackend.repository.TicketCache;
+import com.example.kanbanboardbackend.repository.TicketRepository;
+import com.example.kanbanboardbackend.services.BoardSnapshot;
+import com.example.kanbanboardbackend.services.TicketBoardProjection;
+import com.example.kanbanboardbackend.services.TicketSearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Tickets another node wrote: they are evicted from the second-level cache, read back from the shared database and
+ * published as a {@link TicketChangeSet}, so the projection, the search index and the event stream of this node follow
+ * them like they follow its own commits. A ticket no longer in the database was deleted. A ticket written again since
+ * comes as it is now with each of those commits, applying it again changes nothing.
+ */
+@Component
+@ConditionalOnProperty(name = "kanban.cluster.enabled", havingValue = "true")
+public class RemoteTicketChanges {
+
+    // ids per query, well below what any database takes in one IN list
+    private static final int CHUNK = 500;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TicketCache ticketCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TicketBoardProjection boardProjection;
+
+    @Autowired
+    private TicketSearchIndex searchIndex;
+
+    /**
+     * The commits to a board the bus numbered, in order. Those the projection has applied already, such as this
+     * node's own, are left out; the rest are read back in one go and published one commit after the other.
+     */
+    public void apply(String boardId, SortedMap<Long, Collection<String>> ticketIdsBySequence) {
+        BoardSnapshot snapshot = this.boardProjection.getSnapshot(boardId);
+        SortedMap<Long, Collection<String>> pending = snapshot != null
+                ? ticketIdsBySequence.tailMap(snapshot.getVersion() + 1)
+                : ticketIdsBySequence;
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Set<String> ids = new LinkedHashSet<>();
+        pending.values().forEach(ids::addAll);
+        Map<String, FullTicket> rows = new HashMap<>();
+        List<String> idList = new ArrayList<>(ids);
+        for (int from = 0; from < idList.size(); from += CHUNK) {
+            List<String> chunk = idList.subList(from, Math.min(from + CHUNK, idList.size()));
+            this.ticketCache.evict(chunk);
+            this.ticketRepository.findAllById(chunk).forEach(ticket -> rows.put(ticket.getId(), ticket));
+        }
+
+        for (Map.Entry<Long, Collection<String>> commit : pending.entrySet()) {
+            List<FullTicket> changed = new ArrayList<>();
+            Set<String> removedIds = new HashSet<>();
+            for (String id : new LinkedHashSet<>(commit.getValue())) {
+                FullTicket ticket = rows.get(id);
+                if (ticket != null) {
+                    changed.add(ticket);
+                } else {
+                    removedIds.add(id);
+                }
+            }
+            this.eventPublisher.publishEvent(new TicketChangeSet(changed, removedIds, Map.of(boardId, commit.getKey())));
+        }
+    }
+
+    /**
+     * Every ticket, for when the ids of what changed were lost: nothing cached is trusted and the projection and
+     * the search index are read again from the database.
+     */
+    public void applyAll() {
+        this.ticketCache.evictAll();
+        this.boardProjection.rebuild();
+        this.searchIndex.rebuild();
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.kanbanboardbackend.controller;
+
+import com.example.kanbanboardbackend.error.BoardNotFoundException;
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.services.BoardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import java.util.List;
+
+@CrossOrigin(origins = "http://localhost:8081")
+@RestController
+@RequestMapping("/api")
+public class BoardController {
+
+    @Autowired
+    BoardService boardService;
+
+    @GetMapping("/boards")
+    public ResponseEntity<List<Board>> getBoards() {
+        return new ResponseEntity<>(boardService.findAll(), HttpStatus.OK);
+    }
+
+    @GetMapping("/boards/{boardId}")
+    public ResponseEntity<Board> getBoardById(@PathVariable("boardId") String boardId) throws BoardNotFoundException {
+        return new ResponseEntity<>(boardService.findById(boardId), HttpStatus.OK);
+    }
+
+    // a new board with empty columns, its tickets are under /api/boards/{boardId}/tickets
+    @PostMapping("/boards")
+    public ResponseEntity<Board> createBoard(@Valid @RequestBody Board board) {
+        return new ResponseEntity<>(boardService.create(board), HttpStatus.CREATED);
+    }
+}
@@ -0,0 +1,334 @@
+package com.example.kanbanboardbackend.controller;
+
+import com.example.kanbanboardbackend.error.BoardNotFoundException;
+import com.example.kanbanboardbackend.model.BoardChange;
+import com.example.kanbanboardbackend.services.BoardService;
+import com.example.kanbanboardbackend.services.BoardSnapshotCache;
+import com.example.kanbanboardbackend.services.BoardSnapshot;
+import com.example.kanbanboardbackend.services.TicketBoardProjection;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes every {@link BoardChange} to the clients of the stream of its board as server-sent events.
+ * Event ids are {@code <epoch>-<version>}, the same as the board's ETag, so a client that read the board can ask
+ * for everything after it. The last {@code kanban.stream.history} changes of every board are kept for clients that resume.
+ * Every client has its own queue of {@code kanban.stream.client-buffer} changes, drained by one of {@code kanban.stream.senders}
+ * threads: a client that falls further behind than that loses its queue and gets a {@code reset}, telling it to read the board again.
+ * The history of a board nobody has listened to for {@code kanban.stream.idle-ms} is dropped, resuming from it starts with a reset.
+ */
+@Component
+public class BoardEventStream {
+
+    static final String DELTA = "delta";
+
+    static final String RESET = "reset";
+
+    static final String READY = "ready";
+
+    @Value("${kanban.stream.history:1000}")
+    private int historySize;
+
+    @Value("${kanban.stream.client-buffer:256}")
+    private int clientBuffer;
+
+    @Value("${kanban.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${kanban.stream.senders:16}")
+    private int senderThreads;
+
+    @Value("${kanban.stream.idle-ms:300000}")
+    private long idleMs;
+
+    @Autowired
+    private TicketBoardProjection boardProjection;
+
+    @Autowired
+    private BoardService boardService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+
+    private final List<Client> clients = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger senderCount = new AtomicInteger();
+
+    private ExecutorService senders;
+
+    @PostConstruct
+    public void start() {
+        // a client is drained by one task at a time, so there are never more tasks queued than clients
+        this.senders = Executors.newFixedThreadPool(this.senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "board-stream-" + this.senderCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.meterRegistry.gaugeCollectionSize("kanban.stream.clients", List.of(), this.clients);
+        this.meterRegistry.gaugeMapSize("kanban.stream.channels", List.of(), this.channels);
+    }
+
+    @PreDestroy
+    public void close() {
+        this.clients.forEach(client -> client.emitter.complete());
+        this.senders.shutdownNow();
+    }
+
+    /**
+     * Opens a stream of a board that starts after the change with id {@code since}, or at the current version when it is null.
+     * {@code since} can also be an ETag of the board. When that change is from an earlier run or no longer kept,
+     * the stream starts with a reset.
+     */
+    public SseEmitter subscribe(String boardId, String since) throws BoardNotFoundException {
+        this.boardService.requireExists(boardId);
+        SseEmitter emitter = new SseEmitter(this.timeoutMs);
+        Client client;
+        while (true) {
+            // nothing before the current version is known to a new channel
+            BoardSnapshot snapshot = this.boardProjection.getSnapshot(boardId);
+            Channel channel = this.channels.computeIfAbsent(boardId, key -> new Channel(snapshot != null ? snapshot.getVersion() : 0));
+            client = new Client(channel, emitter);
+            if (register(boardId, client, since)) {
+                break;
+            }
+        }
+        Client registered = client;
+        emitter.onCompletion(() -> remove(registered));
+        emitter.onTimeout(() -> remove(registered));
+        emitter.onError(e -> remove(registered));
+        drain(client);
+        return emitter;
+    }
+
+    // false when the channel was evicted before the client got into it
+    private boolean register(String boardId, Client client, String since) {
+        Channel channel = client.channel;
+        synchronized (channel) {
+            if (channel.evicted) {
+                return false;
+            }
+            // the backlog is queued and the client registered under one lock, so no change falls in between
+            long after = since != null ? versionOf(since) : channel.version;
+            if (after < channel.resumableFrom) {
+                client.resetPending = true;
+                client.after = channel.version;
+            } else {
+                client.after = after;
+                // an empty change is sent as the ready event, naming the version the stream starts after
+                client.queue.add(new BoardChange(boardId, this.boardProjection.getEpoch(), Math.max(after, channel.version), List.of(), false));
+                for (BoardChange change : channel.history) {
+                    if (change.getVersion() > after) {
+                        client.queue.add(change);
+                    }
+                }
+                if (client.queue.size() > this.clientBuffer) {
+                    client.queue.clear();
+                    client.resetPending = true;
+                }
+            }
+            channel.clients.add(client);
+            this.clients.add(client);
+            return true;
+        }
+    }
+
+    @EventListener
+    public void publish(BoardChange change) {
+        while (true) {
+            // the change itself is the first one a new channel keeps
+            Channel channel = this.channels.computeIfAbsent(change.getBoardId(), key -> new Channel(change.getVersion() - 1));
+            synchronized (channel) {
+                if (!channel.evicted) {
+                    publish(channel, change);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the channels that had no clients for {@code kanban.stream.idle-ms}, with their history.
+     */
+    @Scheduled(fixedDelayString = "${kanban.stream.idle-ms:300000}")
+    public void evictIdleChannels() {
+        evictIdleChannels(System.currentTimeMillis() - this.idleMs);
+    }
+
+    void evictIdleChannels(long idleBefore) {
+        for (Map.Entry<String, Channel> entry : this.channels.entrySet()) {
+            Channel channel = entry.getValue();
+            synchronized (channel) {
+                if (channel.clients.isEmpty() && channel.lastUsed <= idleBefore) {
+                    channel.evicted = true;
+                    this.channels.remove(entry.getKey(), channel);
+                }
+            }
+        }
+    }
+
+    private void publish(Channel channel, BoardChange change) {
+        channel.lastUsed = System.currentTimeMillis();
+        channel.version = Math.max(channel.version, change.getVersion());
+        if (change.isReset()) {
+            channel.history.clear();
+            channel.resumableFrom = change.getVersion();
+        } else if (change.getDeltas().isEmpty()) {
+            // nothing a client could see, such as a rank rebalance
+            return;
+        } else {
+            channel.history.addLast(change);
+            while (channel.history.size() > this.historySize) {
+                channel.resumableFrom = channel.history.removeFirst().getVersion();
+            }
+        }
+
+        for (Client client : channel.clients) {
+            synchronized (client) {
+                if (change.isReset() || client.queue.size() >= this.clientBuffer) {
+                    if (!change.isReset()) {
+                        this.meterRegistry.counter("kanban.stream.overflows").increment();
+                    }
+                    client.queue.clear();
+                    client.resetPending = true;
+                } else if (!client.resetPending && change.getVersion() > client.after) {
+                    client.queue.addLast(change);
+                }
+            }
+            drain(client);
+        }
+    }
+
+    // the version in an event id or ETag of this run, in any format, -1 for anything else
+    private long versionOf(String id) {
+        String trimmed = id.replace("W/", "").replace("\"", "").trim();
+        for (BoardSnapshotCache.Format format : BoardSnapshotCache.Format.values()) {
+            if (!format.getETagSuffix().isEmpty() && trimmed.endsWith(format.getETagSuffix())) {
+                trimmed = trimmed.substring(0, trimmed.length() - format.getETagSuffix().length());
+                break;
+            }
+        }
+        int separator = trimmed.lastIndexOf('-');
+        if (separator < 0 || !trimmed.substring(0, separator).equals(this.boardProjection.getEpoch())) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(trimmed.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void drain(Client client) {
+        if (client.draining.compareAndSet(false, true)) {
+            this.senders.execute(() -> send(client));
+        }
+    }
+
+    private void send(Client client) {
+        try {
+            while (true) {
+                BoardChange change;
+                boolean reset;
+                synchronized (client) {
+                    reset = client.resetPending;
+                    client.resetPending = false;
+                    change = reset ? null : client.queue.pollFirst();
+                    if (!reset && change == null) {
+                        client.draining.set(false);
+                        return;
+                    }
+                }
+
+                if (reset) {
+                    client.emitter.send(SseEmitter.event()
+                            .name(RESET)
+                            .id(this.boardProjection.getEpoch() + "-" + client.channel.version)
+                            .data(Map.of(), MediaType.APPLICATION_JSON));
+                } else {
+                    client.emitter.send(SseEmitter.event()
+                            .name(change.getDeltas().isEmpty() ? READY : DELTA)
+                            .id(change.getId())
+                            .data(change, MediaType.APPLICATION_JSON));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // gone, or completed while a change was on its way
+            remove(client);
+            client.draining.set(false);
+            client.emitter.completeWithError(e);
+        }
+    }
+
+    private void remove(Client client) {
+        synchronized (client.channel) {
+            client.channel.clients.remove(client);
+            client.channel.lastUsed = System.currentTimeMillis();
+        }
+        this.clients.remove(client);
+    }
+
+    // the history and the clients of one board
+    private static class Channel {
+
+        private final Deque<BoardChange> history = new ArrayDeque<>();
+
+        // the version of the last change that came in, which can be ahead of the projection's only while it is on its way here
+        private volatile long version;
+
+        // a client that has seen this version or a later one can resume from the history
+        private long resumableFrom;
+
+        private final List<Client> clients = new CopyOnWriteArrayList<>();
+
+        // when the last change came in or the last client left
+        private long lastUsed = System.currentTimeMillis();
+
+        // set under the lock of the channel once it is out of the map, a client or change that finds it takes a new one
+        private boolean evicted;
+
+        private Channel(long version) {
+            this.version = version;
+            this.resumableFrom = version;
+        }
+    }
+
+    private static class Client {
+
+        private final Channel channel;
+
+        private final SseEmitter emitter;
+
+        private final Deque<BoardChange> queue = new ArrayDeque<>();
+
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private boolean resetPending;
+
+        // changes up to this version are already known to the client
+        private long after;
+
+        private Client(Channel channel, SseEmitter emitter) {
+            this.channel = channel;
+            this.emitter = emitter;
+        }
+    }
+}
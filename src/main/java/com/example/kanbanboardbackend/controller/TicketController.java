@@ -1,22 +1,51 @@
 package com.example.kanbanboardbackend.controller;
 
+import com.example.kanbanboardbackend.error.BoardNotFoundException;
+import com.example.kanbanboardbackend.error.TicketConflictException;
 import com.example.kanbanboardbackend.error.TicketNotFoundException;
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.ColumnPage;
 import com.example.kanbanboardbackend.model.FullTicket;
 import com.example.kanbanboardbackend.model.MoveRequest;
 import com.example.kanbanboardbackend.model.Ticket;
+import com.example.kanbanboardbackend.model.TicketIdGenerator;
+import com.example.kanbanboardbackend.model.TicketSearchPage;
 import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.model.TicketView;
+import com.example.kanbanboardbackend.services.BoardService;
+import com.example.kanbanboardbackend.services.BoardSnapshotCache;
 import com.example.kanbanboardbackend.services.TicketService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
 import javax.validation.Valid;
+import javax.validation.Validator;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.Size;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 
-@CrossOrigin(origins = "http://localhost:8081")
+@CrossOrigin(origins = "http://localhost:8081", exposedHeaders = HttpHeaders.ETAG)
 @RestController
 @Validated
 @RequestMapping("/api")
@@ -25,37 +54,180 @@ public class TicketController {
     @Autowired
     TicketService ticketService;
 
-    @GetMapping("/tickets")
-    public ResponseEntity<Map<TicketStatus, List<FullTicket>>> getAllTickets() {
-        return new ResponseEntity<>(ticketService.getAll(), HttpStatus.OK);
+    @Autowired
+    BoardService boardService;
+
+    @Autowired
+    BoardSnapshotCache boardSnapshotCache;
+
+    @Autowired
+    BoardEventStream boardEventStream;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    Validator validator;
+
+    // every route for the tickets of a board also works without one, on the default board
+    @GetMapping({"/tickets", "/boards/{boardId}/tickets"})
+    public ResponseEntity<byte[]> getAllTickets(@PathVariable(value = "boardId", required = false) String boardId,
+                                                @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws JsonProcessingException, BoardNotFoundException {
+        BoardSnapshotCache.Format format = BoardSnapshotCache.Format.accepted(accept);
+        String currentETag = boardSnapshotCache.currentETag(board(boardId), format);
+        if (currentETag != null && BoardSnapshotCache.matches(ifNoneMatch, currentETag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(currentETag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+
+        BoardSnapshotCache.SerializedBoard board = boardSnapshotCache.get(board(boardId), format);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(board.getMediaType());
+        headers.setVary(List.of(HttpHeaders.ACCEPT));
+        if (board.getETag() != null) {
+            headers.setETag(board.getETag());
+        }
+        return new ResponseEntity<>(board.getBody(), headers, HttpStatus.OK);
+    }
+
+    // part of one column, e.g. ?status=done&after=<id of the last ticket shown>&limit=50
+    @GetMapping(value = {"/tickets", "/boards/{boardId}/tickets"}, params = "status")
+    public ResponseEntity<ColumnPage> getColumnPage(@PathVariable(value = "boardId", required = false) String boardId,
+                                                    @RequestParam("status") TicketStatus status,
+                                                    @RequestParam(value = "after", required = false) String after,
+                                                    @RequestParam(value = "limit", defaultValue = "50") @Min(1) @Max(500) int limit) throws TicketNotFoundException, BoardNotFoundException {
+        return new ResponseEntity<>(ticketService.findColumnPage(board(boardId), status, after != null ? ticketId(after) : null, limit), HttpStatus.OK);
+    }
+
+    @GetMapping({"/tickets/search", "/boards/{boardId}/tickets/search"})
+    public ResponseEntity<TicketSearchPage> searchTickets(@PathVariable(value = "boardId", required = false) String boardId,
+                                                          @RequestParam("q") String query,
+                                                          @RequestParam(value = "status", required = false) TicketStatus status,
+                                                          @RequestParam(value = "page", defaultValue = "0") @Min(0) int page,
+                                                          @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(100) int size) throws BoardNotFoundException {
+        return new ResponseEntity<>(ticketService.search(board(boardId), query, status, page, size), HttpStatus.OK);
+    }
+
+    // the whole board in board order, one ticket view per line without the roots, written while it is read
+    @GetMapping(value = {"/tickets/export", "/boards/{boardId}/tickets/export"}, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTickets(@PathVariable(value = "boardId", required = false) String boardId) throws BoardNotFoundException {
+        // checked before the body starts, the status cannot change once it does
+        boardService.requireExists(board(boardId));
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                // lines are ended by hand, not by the space Jackson puts between root values
+                generator.setRootValueSeparator(null);
+                ticketService.forEachInBoardOrder(board(boardId), ticket -> {
+                    if (Boolean.TRUE.equals(ticket.getIsRoot())) {
+                        return;
+                    }
+                    try {
+                        writer.writeValue(generator, TicketView.of(ticket));
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (BoardNotFoundException e) {
+                // deleted while the body was being written
+                throw new IOException(e);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // changes of the board as they are committed, after the change or board ETag in since or Last-Event-ID
+    @GetMapping(value = {"/tickets/stream", "/boards/{boardId}/tickets/stream"}, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@PathVariable(value = "boardId", required = false) String boardId,
+                                    @RequestParam(value = "since", required = false) String since,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) throws BoardNotFoundException {
+        return boardEventStream.subscribe(board(boardId), since != null ? since : lastEventId);
     }
 
     @GetMapping("/tickets/{id}")
     public ResponseEntity<FullTicket> getTicketById(@PathVariable("id") String id) throws TicketNotFoundException {
-        return new ResponseEntity<>(ticketService.findById(id), HttpStatus.OK);
+        return new ResponseEntity<>(ticketService.findById(ticketId(id)), HttpStatus.OK);
     }
 
-    @PostMapping("/tickets")
-    public ResponseEntity<FullTicket> createTicket(@Valid @RequestBody Ticket ticket) {
-        FullTicket saved = this.ticketService.save(ticket);
+    @PostMapping({"/tickets", "/boards/{boardId}/tickets"})
+    public ResponseEntity<FullTicket> createTicket(@PathVariable(value = "boardId", required = false) String boardId,
+                                                   @Valid @RequestBody Ticket ticket) throws BoardNotFoundException {
+        FullTicket saved = this.ticketService.save(board(boardId), ticket);
         return new ResponseEntity<>(saved, HttpStatus.CREATED);
     }
 
+    @PostMapping(value = {"/tickets/bulk", "/boards/{boardId}/tickets/bulk"}, consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<FullTicket>> createTickets(@PathVariable(value = "boardId", required = false) String boardId,
+                                                          @RequestBody List<@Valid Ticket> tickets) throws BoardNotFoundException {
+        return new ResponseEntity<>(this.ticketService.saveAll(board(boardId), tickets), HttpStatus.CREATED);
+    }
+
+    // one ticket per line, read as the body streams in instead of parsing one large array
+    @PostMapping(value = {"/tickets/bulk", "/boards/{boardId}/tickets/bulk"}, consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<List<FullTicket>> createTicketsFromLines(@PathVariable(value = "boardId", required = false) String boardId,
+                                                                   InputStream body) throws IOException, BoardNotFoundException {
+        List<Ticket> tickets = new ArrayList<>();
+        try (MappingIterator<Ticket> lines = objectMapper.readerFor(Ticket.class).readValues(body)) {
+            while (lines.hasNext()) {
+                Ticket ticket = lines.next();
+                Set<ConstraintViolation<Ticket>> violations = validator.validate(ticket);
+                if (!violations.isEmpty()) {
+                    throw new ConstraintViolationException(violations);
+                }
+                tickets.add(ticket);
+            }
+        }
+        return new ResponseEntity<>(this.ticketService.saveAll(board(boardId), tickets), HttpStatus.CREATED);
+    }
+
     @PutMapping("/tickets/{id}")
-    public ResponseEntity<FullTicket> updateTicket(@PathVariable("id") String id, @RequestBody Ticket ticket) throws TicketNotFoundException {
-        return new ResponseEntity<>(ticketService.update(id, ticket), HttpStatus.OK);
+    public ResponseEntity<FullTicket> updateTicket(@PathVariable("id") String id, @RequestBody Ticket ticket) throws TicketNotFoundException, TicketConflictException {
+        return new ResponseEntity<>(ticketService.update(ticketId(id), ticket), HttpStatus.OK);
     }
 
     @DeleteMapping("/tickets/{id}")
-    public ResponseEntity<HttpStatus> deleteTicket(@PathVariable("id") String id) throws TicketNotFoundException {
-        ticketService.deleteById(id);
+    public ResponseEntity<HttpStatus> deleteTicket(@PathVariable("id") String id) throws TicketNotFoundException, TicketConflictException {
+        ticketService.deleteById(ticketId(id));
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
     @PostMapping("/tickets/move")
-    public ResponseEntity<HttpStatus> moveTicket(@Valid @RequestBody MoveRequest moveRequest) throws TicketNotFoundException {
+    public ResponseEntity<HttpStatus> moveTicket(@Valid @RequestBody MoveRequest moveRequest) throws TicketNotFoundException, TicketConflictException {
+
+        this.ticketService.moveTicket(normalized(moveRequest));
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    // moves of one keyboard reordering or multi-select drag, applied in order in one transaction
+    @PostMapping("/tickets/move/batch")
+    public ResponseEntity<HttpStatus> moveTickets(@RequestBody @Size(min = 1, max = 500) List<@Valid MoveRequest> moveRequests) throws TicketNotFoundException, TicketConflictException {
 
-        this.ticketService.moveTicket(moveRequest);
+        List<MoveRequest> normalized = new ArrayList<>(moveRequests.size());
+        for (MoveRequest moveRequest : moveRequests) {
+            normalized.add(normalized(moveRequest));
+        }
+        this.ticketService.moveTickets(normalized);
         return new ResponseEntity<>(HttpStatus.OK);
     }
-}
\ No newline at end of file
+
+    // a ticket id is taken as any form of its UUID and passed on in the one it is stored and indexed in
+    private static String ticketId(String id) throws TicketNotFoundException {
+        String normalized = TicketIdGenerator.normalize(id);
+        if (normalized == null) {
+            throw new TicketNotFoundException("Ticket Not Available");
+        }
+        return normalized;
+    }
+
+    private static MoveRequest normalized(MoveRequest moveRequest) throws TicketNotFoundException {
+        return new MoveRequest(ticketId(moveRequest.getMovedTicketId()), ticketId(moveRequest.getAfterThisOneId()),
+                moveRequest.getMovedTicketVersion(), moveRequest.getAfterThisOneVersion());
+    }
+
+    private static String board(String boardId) {
+        return boardId != null ? boardId : Board.DEFAULT_ID;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.kanbanboardbackend.controller;
+
+import com.example.kanbanboardbackend.model.IntegrityReport;
+import com.example.kanbanboardbackend.services.TicketListVerifier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code GET /actuator/integrity} checks the ticket lists of every board, {@code GET /actuator/integrity/{boardId}} those of one.
+ * {@code POST /actuator/integrity} repairs them, all boards or the one given as {@code boardId} in the body.
+ */
+@Component
+@Endpoint(id = "integrity")
+@ConditionalOnProperty(name = "kanban.ordering.mode", havingValue = "linked", matchIfMissing = true)
+public class TicketListIntegrityEndpoint {
+
+    @Autowired
+    private TicketListVerifier ticketListVerifier;
+
+    @ReadOperation
+    public IntegrityReport verify() {
+        return ticketListVerifier.verifyAll();
+    }
+
+    @ReadOperation
+    public IntegrityReport verifyBoard(@Selector String boardId) {
+        return ticketListVerifier.verify(boardId);
+    }
+
+    @WriteOperation
+    public IntegrityReport repair(@Nullable String boardId) {
+        return boardId != null ? ticketListVerifier.repair(boardId) : ticketListVerifier.repairAll();
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.kanbanboardbackend.error;
+
+public class BoardNotFoundException extends Exception{
+
+    public BoardNotFoundException() {
+        super();
+    }
+
+    public BoardNotFoundException(String message) {
+        super(message);
+    }
+
+    public BoardNotFoundException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public BoardNotFoundException(Throwable cause) {
+        super(cause);
+    }
+
+    protected BoardNotFoundException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.kanbanboardbackend.error;
+
+public class TicketConflictException extends Exception{
+
+    public TicketConflictException() {
+        super();
+    }
+
+    public TicketConflictException(String message) {
+        super(message);
+    }
+
+    public TicketConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public TicketConflictException(Throwable cause) {
+        super(cause);
+    }
+
+    protected TicketConflictException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+}
@@ -1,6 +1,10 @@
 package com.example.kanbanboardbackend.errors;
 
+import com.example.kanbanboardbackend.error.BoardNotFoundException;
+import com.example.kanbanboardbackend.error.TicketConflictException;
 import com.example.kanbanboardbackend.error.TicketNotFoundException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -10,6 +14,8 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
 import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -42,6 +48,32 @@ public class CustomGlobalExceptionHandler extends ResponseEntityExceptionHandler
 
     }
 
+    // error handle for @Valid on the elements of a list, e.g. the tickets of a bulk import
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<Object> constraintViolation(ConstraintViolationException exception,
+                                                      WebRequest request) {
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", new Date());
+        body.put("status", HttpStatus.BAD_REQUEST.value());
+
+        List<String> errors = exception.getConstraintViolations()
+                .stream()
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.toList());
+
+        body.put("errors", errors);
+
+        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> illegalArgument(IllegalArgumentException exception,
+                                                  WebRequest request) {
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(exception.getMessage());
+    }
 
     @ExceptionHandler(TicketNotFoundException.class)
     public ResponseEntity<String> ticketNotFound(TicketNotFoundException exception,
@@ -51,4 +83,38 @@ public class CustomGlobalExceptionHandler extends ResponseEntityExceptionHandler
                 .body(exception.getMessage());
     }
 
+    @ExceptionHandler(BoardNotFoundException.class)
+    public ResponseEntity<String> boardNotFound(BoardNotFoundException exception,
+                                                WebRequest request) {
+
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(exception.getMessage());
+    }
+
+    @ExceptionHandler(TicketConflictException.class)
+    public ResponseEntity<String> ticketConflict(TicketConflictException exception,
+                                                 WebRequest request) {
+
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(exception.getMessage());
+    }
+
+    // a write other than a move lost the race for a ticket row
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<String> concurrencyFailure(ConcurrencyFailureException exception,
+                                                           WebRequest request) {
+
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("Ticket was changed by someone else, reload the board and try again");
+    }
+
+    // a unique index caught two writes putting tickets into the same place of a column
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<String> dataIntegrityViolation(DataIntegrityViolationException exception,
+                                                         WebRequest request) {
+
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("Another ticket was just put into the same place, reload the board and try again");
+    }
+
 }
\ No newline at end of file
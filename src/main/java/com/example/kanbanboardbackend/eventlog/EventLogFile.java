@@ -0,0 +1,116 @@
+package com.example.kanbanboardbackend.eventlog;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * An append-only file of records, each one prefixed with its length and a CRC32 of its bytes.
+ * Appends are buffered until {@link #sync()}, which writes them out and forces them to disk with a single fsync.
+ */
+class EventLogFile implements Closeable {
+
+    private static final int HEADER_BYTES = 8;
+
+    private final FileChannel channel;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+
+    private EventLogFile(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    static EventLogFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, CREATE, WRITE);
+        channel.position(channel.size());
+        return new EventLogFile(channel);
+    }
+
+    /**
+     * Reads every intact record of a log. A record torn by a crash ends the log, it and anything after it is cut off.
+     */
+    static List<byte[]> readValid(Path path) throws IOException {
+        List<byte[]> records = new ArrayList<>();
+        if (!Files.exists(path)) {
+            return records;
+        }
+
+        long validBytes = 0;
+        long size = Files.size(path);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (size - validBytes >= HEADER_BYTES) {
+                int length = in.readInt();
+                long checksum = in.readInt() & 0xFFFFFFFFL;
+                if (length < 0 || length > size - validBytes - HEADER_BYTES) {
+                    break;
+                }
+                byte[] payload = in.readNBytes(length);
+                if (checksum(payload) != checksum) {
+                    break;
+                }
+                records.add(payload);
+                validBytes += HEADER_BYTES + length;
+            }
+        }
+
+        if (validBytes < size) {
+            try (FileChannel channel = FileChannel.open(path, WRITE)) {
+                channel.truncate(validBytes);
+                channel.force(true);
+            }
+        }
+        return records;
+    }
+
+    void append(byte[] payload) throws IOException {
+        if (this.buffer.remaining() < HEADER_BYTES + payload.length) {
+            flush();
+            if (this.buffer.capacity() < HEADER_BYTES + payload.length) {
+                this.buffer = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+            }
+        }
+        this.buffer.putInt(payload.length);
+        this.buffer.putInt((int) checksum(payload));
+        this.buffer.put(payload);
+    }
+
+    void sync() throws IOException {
+        flush();
+        this.channel.force(false);
+    }
+
+    // everything in the log is covered by a snapshot
+    void truncate() throws IOException {
+        this.buffer.clear();
+        this.channel.truncate(0);
+        this.channel.position(0);
+        this.channel.force(true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        sync();
+        this.channel.close();
+    }
+
+    private void flush() throws IOException {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining()) {
+            this.channel.write(this.buffer);
+        }
+        this.buffer.clear();
+    }
+
+    private static long checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.kanbanboardbackend.eventlog;
+
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * One transaction in the event log: the rows it wrote, as flushed, and the ids it deleted.
+ * The rollback of a transaction is a record of its own, with the rows as they were before it.
+ */
+@Value
+@AllArgsConstructor(onConstructor_ = @JsonCreator)
+class LogRecord {
+
+    long sequence;
+
+    List<FullTicket> changed;
+
+    List<String> removedIds;
+}
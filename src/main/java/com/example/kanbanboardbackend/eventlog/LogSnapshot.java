@@ -0,0 +1,20 @@
+package com.example.kanbanboardbackend.eventlog;
+
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Every ticket of the board after the record with {@code sequence}, records up to it are no longer needed.
+ */
+@Value
+@AllArgsConstructor(onConstructor_ = @JsonCreator)
+class LogSnapshot {
+
+    long sequence;
+
+    List<FullTicket> tickets;
+}
@@ -0,0 +1,426 @@
+package com.example.kanbanboardbackend.eventlog;
+
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.TicketChangeSet;
+import com.example.kanbanboardbackend.repository.TicketCache;
+import com.example.kanbanboardbackend.repository.TicketRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Appends the {@link TicketChangeSet} of every transaction to a local log before the database commits it, so the board
+ * survives restarts of an in-memory database. A single writer thread writes whatever records are queued and forces them
+ * to disk with one fsync (group commit). A transaction the database then rolls back gets a second record that puts its
+ * tickets back the way they were; a crash in between keeps the change, for a request that never got its answer.
+ * Every {@code kanban.event-log.snapshot-interval-ms} the writer starts a new log and a thread of its own writes a snapshot
+ * of the whole board as of the old one, which is deleted once the snapshot is on disk.
+ * On startup the board is recovered from the latest snapshot and the records after it, and written into the database
+ * before anything else reads it: after the Flyway migrations, before the web server takes its first request.
+ * A commit made before that is overwritten by the recovered board and is not logged.
+ * Once a write to the log fails, the log takes no further records.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "kanban.event-log.enabled", havingValue = "true")
+public class TicketEventLog implements SmartLifecycle {
+
+    // ahead of the web server, which starts in the last phases, and stopped after it
+    static final int PHASE = 0;
+
+    static final String LOG_FILE = "events.log";
+
+    // the log a snapshot is being written for
+    static final String PREVIOUS_LOG_FILE = "events.log.previous";
+
+    static final String SNAPSHOT_FILE = "snapshot.json";
+
+    private static final int MAX_GROUP = 1024;
+
+    private static final int RESTORE_BATCH = 1000;
+
+    @Value("${kanban.event-log.dir:./data/event-log}")
+    private Path dir;
+
+    @Value("${kanban.event-log.snapshot-interval-ms:60000}")
+    private long snapshotIntervalMs;
+
+    // whether a commit waits for its record to be on disk
+    @Value("${kanban.event-log.wait-for-sync:true}")
+    private boolean waitForSync;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TicketCache ticketCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+
+    // the board as of the last written record, only touched by the writer thread once it runs
+    private final Map<String, FullTicket> board = new HashMap<>();
+
+    private long sequence;
+
+    private long snapshotSequence;
+
+    private long lastSnapshotAt;
+
+    private EventLogFile logFile;
+
+    private Thread writer;
+
+    private ExecutorService snapshots;
+
+    private Future<?> snapshotting;
+
+    private volatile boolean running;
+
+    // the write that broke the log, nothing is logged after it
+    private volatile IOException failure;
+
+    // also runs before the board projection, the search index and the rank backfill read the database on ApplicationReadyEvent
+    @Override
+    public void start() {
+        try {
+            Files.createDirectories(this.dir);
+            Path snapshotPath = this.dir.resolve(SNAPSHOT_FILE);
+            if (Files.exists(snapshotPath)) {
+                recover(snapshotPath);
+            } else {
+                // first start with the log, the board already in the database is where it begins
+                this.ticketRepository.findAll().forEach(ticket -> this.board.put(ticket.getId(), ticket));
+                writeSnapshot(new LogSnapshot(this.sequence, new ArrayList<>(this.board.values())));
+                this.snapshotSequence = this.sequence;
+            }
+            this.logFile = EventLogFile.open(this.dir.resolve(LOG_FILE));
+            if (Files.exists(this.dir.resolve(PREVIOUS_LOG_FILE))) {
+                // the snapshot of the previous log never made it, the recovered board covers both logs
+                writeSnapshot(new LogSnapshot(this.sequence, new ArrayList<>(this.board.values())));
+                Files.delete(this.dir.resolve(PREVIOUS_LOG_FILE));
+                this.logFile.truncate();
+                this.snapshotSequence = this.sequence;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not recover the board from the event log in " + this.dir, e);
+        }
+        this.lastSnapshotAt = System.currentTimeMillis();
+
+        this.running = true;
+        this.snapshots = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "ticket-event-log-snapshot"));
+        this.writer = new Thread(this::writeLoop, "ticket-event-log");
+        this.writer.start();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * Logs the changes of a transaction that is about to commit, called once Hibernate has flushed it.
+     * Returns what to hand to {@link #rolledBack} should the commit fail, {@code null} when nothing was logged.
+     */
+    public Pending append(TicketChangeSet changes) {
+        if (!this.running) {
+            // before recovery the database is about to be replaced, after stop() nothing is written any more
+            log.warn("Commit of {} tickets not logged, the event log is not running", changes.getChanged().size() + changes.getRemovedIds().size());
+            return null;
+        }
+        return enqueue(new Pending(changes, null));
+    }
+
+    /**
+     * Logs that a transaction given to {@link #append} did not commit after all, so recovery puts its tickets back.
+     */
+    public void rolledBack(Pending appended) {
+        if (appended != null && this.running) {
+            enqueue(new Pending(null, appended));
+        }
+    }
+
+    private Pending enqueue(Pending pending) {
+        if (this.failure != null) {
+            log.error("Commit not logged, the event log failed before", this.failure);
+            return null;
+        }
+        this.queue.add(pending);
+        if (this.waitForSync) {
+            try {
+                pending.synced.join();
+            } catch (CompletionException e) {
+                // the transaction goes on, only its record is missing
+                log.error("Could not write a commit to the event log", e.getCause());
+            }
+        }
+        return pending;
+    }
+
+    @Override
+    public void stop() {
+        if (this.writer == null) {
+            return;
+        }
+        this.running = false;
+        try {
+            this.writer.join();
+            this.snapshots.shutdown();
+            this.snapshots.awaitTermination(1, TimeUnit.MINUTES);
+            // a failed log keeps what it has, a snapshot of the board without the lost records would truncate it
+            if (this.failure == null && this.sequence > this.snapshotSequence) {
+                writeSnapshot(new LogSnapshot(this.sequence, new ArrayList<>(this.board.values())));
+                Files.deleteIfExists(this.dir.resolve(PREVIOUS_LOG_FILE));
+                this.logFile.truncate();
+            }
+            this.logFile.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("Could not close the event log", e);
+        }
+    }
+
+    private void recover(Path snapshotPath) throws IOException {
+        LogSnapshot snapshot = this.objectMapper.readValue(snapshotPath.toFile(), LogSnapshot.class);
+        snapshot.getTickets().forEach(ticket -> this.board.put(ticket.getId(), ticket));
+        this.sequence = snapshot.getSequence();
+        this.snapshotSequence = snapshot.getSequence();
+
+        int replayed = 0;
+        List<byte[]> payloads = new ArrayList<>(EventLogFile.readValid(this.dir.resolve(PREVIOUS_LOG_FILE)));
+        payloads.addAll(EventLogFile.readValid(this.dir.resolve(LOG_FILE)));
+        for (byte[] payload : payloads) {
+            LogRecord record = this.objectMapper.readValue(payload, LogRecord.class);
+            // records already in the snapshot are left over when a crash came between the snapshot and deleting their log
+            if (record.getSequence() > this.sequence) {
+                apply(record);
+                this.sequence = record.getSequence();
+                replayed++;
+            }
+        }
+
+        // written before there were boards, everything was on the default one
+        this.board.values().stream()
+                .filter(ticket -> ticket.getBoardId() == null)
+                .forEach(ticket -> ticket.setBoardId(Board.DEFAULT_ID));
+        restoreDatabase();
+        log.info("Recovered {} tickets from the snapshot at record {} and {} records after it",
+                this.board.size(), snapshot.getSequence(), replayed);
+    }
+
+    // replaces the tickets table with the recovered boards, straight through JDBC so nothing gets logged again
+    private void restoreDatabase() {
+        List<FullTicket> tickets = new ArrayList<>(this.board.values());
+        Set<String> boardIds = new TreeSet<>();
+        tickets.forEach(ticket -> boardIds.add(ticket.getBoardId()));
+        this.transactionTemplate.executeWithoutResult(status -> {
+            // only tickets are logged, a board missing from a fresh in-memory database comes back named after its id
+            boardIds.removeAll(this.jdbcTemplate.queryForList("SELECT id FROM boards", String.class));
+            this.jdbcTemplate.batchUpdate("INSERT INTO boards (id, name) VALUES (?, ?)", boardIds, RESTORE_BATCH,
+                    (statement, boardId) -> {
+                        statement.setString(1, boardId);
+                        statement.setString(2, boardId);
+                    });
+
+            this.jdbcTemplate.update("DELETE FROM tickets");
+            this.jdbcTemplate.batchUpdate(
+                    "INSERT INTO tickets (id, title, content, status, next_id, rank_key, version, is_root, board_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                    tickets, RESTORE_BATCH, (statement, ticket) -> {
+                        // ids go in as UUIDs, PostgreSQL does not turn strings into them on its own
+                        statement.setObject(1, UUID.fromString(ticket.getId()));
+                        statement.setString(2, ticket.getTitle());
+                        statement.setString(3, ticket.getContent());
+                        statement.setObject(4, ticket.getStatus() != null ? ticket.getStatus().ordinal() : null);
+                        statement.setObject(5, ticket.getNextId() != null ? UUID.fromString(ticket.getNextId()) : null);
+                        statement.setObject(6, ticket.getRank());
+                        statement.setObject(7, ticket.getVersion());
+                        statement.setObject(8, ticket.getIsRoot());
+                        statement.setString(9, ticket.getBoardId());
+                    });
+        });
+        this.ticketCache.evictAll();
+    }
+
+    private void writeLoop() {
+        List<Pending> group = new ArrayList<>();
+        while (this.running || !this.queue.isEmpty()) {
+            try {
+                Pending first = this.queue.poll(100, TimeUnit.MILLISECONDS);
+                if (this.failure != null) {
+                    // a snapshot failed
+                    throw this.failure;
+                }
+                if (first != null) {
+                    group.add(first);
+                    this.queue.drainTo(group, MAX_GROUP - 1);
+                    writeGroup(group);
+                }
+                if (this.sequence > this.snapshotSequence
+                        && System.currentTimeMillis() - this.lastSnapshotAt >= this.snapshotIntervalMs
+                        && (this.snapshotting == null || this.snapshotting.isDone())) {
+                    startSnapshot();
+                }
+            } catch (IOException e) {
+                // the board and the sequence still end at the last synced record; what is queued is not written either
+                log.error("Event log write failed, no further commits are logged", e);
+                this.failure = e;
+                group.forEach(pending -> pending.synced.completeExceptionally(e));
+                List<Pending> rest = new ArrayList<>();
+                this.queue.drainTo(rest);
+                rest.forEach(pending -> pending.synced.completeExceptionally(e));
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    // applied to the board as they are written, so a later record of the group sees the tickets as the earlier ones left them;
+    // if the sync fails the board is ahead of the log, but a failed log is never snapshotted again
+    private void writeGroup(List<Pending> group) throws IOException {
+        long written = this.sequence;
+        for (Pending pending : group) {
+            LogRecord record = pending.undoing == null ? redo(pending, written + 1) : undo(pending.undoing, written + 1);
+            this.logFile.append(this.objectMapper.writeValueAsBytes(record));
+            apply(record);
+            written = record.getSequence();
+        }
+        this.logFile.sync();
+        this.sequence = written;
+        this.meterRegistry.summary("kanban.event-log.group.size").record(group.size());
+        group.forEach(pending -> pending.synced.complete(null));
+    }
+
+    // keeps the tickets as they were before, should the transaction roll back
+    private LogRecord redo(Pending pending, long sequence) {
+        pending.changes.getChanged().forEach(ticket -> pending.before.put(ticket.getId(), this.board.get(ticket.getId())));
+        pending.changes.getRemovedIds().forEach(id -> pending.before.put(id, this.board.get(id)));
+        return new LogRecord(sequence, List.copyOf(pending.changes.getChanged()), List.copyOf(pending.changes.getRemovedIds()));
+    }
+
+    // column locks are held until the rollback is over, no other record has touched these tickets since
+    private LogRecord undo(Pending rolledBack, long sequence) {
+        List<FullTicket> restored = new ArrayList<>();
+        List<String> removedIds = new ArrayList<>();
+        rolledBack.before.forEach((id, ticket) -> {
+            if (ticket != null) {
+                restored.add(ticket);
+            } else {
+                removedIds.add(id);
+            }
+        });
+        return new LogRecord(sequence, restored, removedIds);
+    }
+
+    private void apply(LogRecord record) {
+        record.getRemovedIds().forEach(this.board::remove);
+        record.getChanged().forEach(ticket -> this.board.put(ticket.getId(), ticket));
+    }
+
+    // the writer only copies the board and starts a new log, committers never wait for the snapshot itself
+    private void startSnapshot() throws IOException {
+        this.logFile.close();
+        Files.move(this.dir.resolve(LOG_FILE), this.dir.resolve(PREVIOUS_LOG_FILE));
+        this.logFile = EventLogFile.open(this.dir.resolve(LOG_FILE));
+
+        LogSnapshot snapshot = new LogSnapshot(this.sequence, new ArrayList<>(this.board.values()));
+        this.snapshotSequence = this.sequence;
+        this.lastSnapshotAt = System.currentTimeMillis();
+        this.snapshotting = this.snapshots.submit(() -> {
+            try {
+                writeSnapshot(snapshot);
+                Files.delete(this.dir.resolve(PREVIOUS_LOG_FILE));
+            } catch (IOException e) {
+                // the previous log is still there, the writer stops at its next turn
+                log.error("Could not write a snapshot of the event log", e);
+                this.failure = e;
+            }
+        });
+    }
+
+    // written next to the current one and moved over it, a crash leaves either the old or the new snapshot
+    private void writeSnapshot(LogSnapshot snapshot) throws IOException {
+        Path snapshotPath = this.dir.resolve(SNAPSHOT_FILE);
+        Path written = this.dir.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(written, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+            this.objectMapper.writer()
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .writeValue(out, snapshot);
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(written, snapshotPath, ATOMIC_MOVE, REPLACE_EXISTING);
+    }
+
+    /**
+     * A transaction given to the log, or the rollback of one.
+     */
+    public static final class Pending {
+
+        private final TicketChangeSet changes;
+
+        private final Pending undoing;
+
+        // the tickets as they were before the transaction, null for the ones it created
+        private final Map<String, FullTicket> before = new HashMap<>();
+
+        private final CompletableFuture<Void> synced = new CompletableFuture<>();
+
+        private Pending(TicketChangeSet changes, Pending undoing) {
+            this.changes = changes;
+            this.undoing = undoing;
+        }
+    }
+}
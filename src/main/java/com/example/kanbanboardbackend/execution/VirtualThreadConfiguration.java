@@ -0,0 +1,42 @@
+package com.example.kanbanboardbackend.execution;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * {@code kanban.execution.mode=virtual}: every request, and every Spring MVC async task such as an export, runs on a virtual thread
+ * instead of Tomcat's pool of 200. A request blocked on JDBC then holds no platform thread, only its place in the queue
+ * for a connection, so {@code server.tomcat.max-connections} and the connection pool are what limit concurrency.
+ * Starting in this mode on anything older than Java 21 fails.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "kanban.execution.mode", havingValue = "virtual")
+public class VirtualThreadConfiguration {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        ExecutorService executor = VirtualThreads.newPerTaskExecutor("request-");
+        log.info("Running requests and async tasks on virtual threads");
+        return executor;
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandler(ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    // takes the place of the pool Spring Boot would set up for Spring MVC async requests
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor) {
+        return new TaskExecutorAdapter(virtualThreadExecutor);
+    }
+}
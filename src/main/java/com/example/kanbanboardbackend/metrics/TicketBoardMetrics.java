@@ -0,0 +1,32 @@
+package com.example.kanbanboardbackend.metrics;
+
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.services.TicketBoardProjection;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gauges of every column, read from the board projection: {@code kanban.board.tickets} counts its rows,
+ * {@code kanban.board.column.length} the tickets reachable in its list. The two differ only while the list is broken.
+ */
+@Component
+public class TicketBoardMetrics implements MeterBinder {
+
+    @Autowired
+    private TicketBoardProjection boardProjection;
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        for (TicketStatus ticketStatus : TicketStatus.values()) {
+            Gauge.builder("kanban.board.tickets", this.boardProjection, projection -> projection.countRows(ticketStatus))
+                    .tag("status", ticketStatus.name())
+                    .register(meterRegistry);
+            Gauge.builder("kanban.board.column.length", this.boardProjection, projection -> projection.columnLength(ticketStatus))
+                    .tag("status", ticketStatus.name())
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.kanbanboardbackend.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every call to the {@code TicketService} as {@code kanban.ticket.service}, tagged with the method
+ * and the exception it ended with. Endpoints are timed by Spring as {@code http.server.requests}
+ * and repository queries as {@code spring.data.repository.invocations}.
+ */
+@Aspect
+@Component
+public class TicketServiceTimer {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Around("execution(* com.example.kanbanboardbackend.services.TicketService.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(this.meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("kanban.ticket.service")
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(this.meterRegistry));
+        }
+    }
+}
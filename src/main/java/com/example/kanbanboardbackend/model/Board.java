@@ -0,0 +1,36 @@
+package com.example.kanbanboardbackend.model;
+
+import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.validator.constraints.Length;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotBlank;
+
+/**
+ * A board of one team. Every ticket, the roots of the columns included, belongs to exactly one board.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "boards")
+public class Board {
+
+    // the board every ticket was on before there were boards, also what /api/tickets without a board works on
+    public static final String DEFAULT_ID = "00000000-0000-0000-0000-000000000001";
+
+    @Id
+    @GeneratedValue(generator = "UUID")
+    @GenericGenerator(
+            name = "UUID",
+            strategy = "com.example.kanbanboardbackend.model.TicketIdGenerator"
+    )
+    private String id;
+
+    @NotBlank(message = "name cannot be blank")
+    @Length(max = 100, message = "name can be at most 100 characters")
+    @Column(name = "name")
+    private String name;
+}
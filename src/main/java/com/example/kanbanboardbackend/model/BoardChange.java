@@ -0,0 +1,27 @@
+package com.example.kanbanboardbackend.model;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * What one commit changed on a board, published by the board projection once it has applied it.
+ * A reset carries no deltas: the projection was rebuilt and the board has to be read again.
+ */
+@Value
+public class BoardChange {
+
+    String boardId;
+
+    String epoch;
+
+    long version;
+
+    List<TicketDelta> deltas;
+
+    boolean reset;
+
+    public String getId() {
+        return this.epoch + "-" + this.version;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.kanbanboardbackend.model;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * What a check of the nextId list of one column found. An intact column has one root, and a single chain from it
+ * reaches every one of its tickets and ends in exactly one tail.
+ * {@code danglingPointers} counts tickets pointing at a ticket outside the column, and {@code orphanIds} lists the tickets the chain does not reach.
+ */
+@Value
+public class ColumnIntegrity {
+
+    String boardId;
+
+    TicketStatus status;
+
+    int tickets;
+
+    int reachable;
+
+    int roots;
+
+    int tails;
+
+    int cycles;
+
+    int duplicatePredecessors;
+
+    int danglingPointers;
+
+    List<String> orphanIds;
+
+    public boolean isIntact() {
+        return this.roots == 1 && this.tails == 1 && this.cycles == 0 && this.duplicatePredecessors == 0
+                && this.danglingPointers == 0 && this.orphanIds.isEmpty();
+    }
+}
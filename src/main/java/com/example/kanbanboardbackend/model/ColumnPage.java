@@ -0,0 +1,18 @@
+package com.example.kanbanboardbackend.model;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * A window of one column. {@code nextCursor} is the id to pass as {@code after} for the next page, null on the last one.
+ */
+@Value
+public class ColumnPage {
+
+    TicketStatus status;
+
+    List<FullTicket> tickets;
+
+    String nextCursor;
+}
@@ -0,0 +1,40 @@
+package com.example.kanbanboardbackend.model;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One column of a board in order, without its root. {@code rootId} is still given: moving a ticket after the root puts it on top.
+ */
+@Value
+public class ColumnView {
+
+    String rootId;
+
+    List<TicketView> tickets;
+
+    public static ColumnView of(List<FullTicket> column) {
+        String rootId = null;
+        List<TicketView> tickets = new ArrayList<>(column.size());
+        for (FullTicket ticket : column) {
+            if (Boolean.TRUE.equals(ticket.getIsRoot())) {
+                if (rootId == null) {
+                    rootId = ticket.getId();
+                }
+            } else {
+                tickets.add(TicketView.of(ticket));
+            }
+        }
+        return new ColumnView(rootId, tickets);
+    }
+
+    public static Map<TicketStatus, ColumnView> of(Map<TicketStatus, List<FullTicket>> board) {
+        Map<TicketStatus, ColumnView> columns = new EnumMap<>(TicketStatus.class);
+        board.forEach((ticketStatus, column) -> columns.put(ticketStatus, of(column)));
+        return columns;
+    }
+}
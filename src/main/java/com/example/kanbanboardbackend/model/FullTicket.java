@@ -1,31 +1,45 @@
 package com.example.kanbanboardbackend.model;
 
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-import org.hibernate.annotations.ColumnDefault;
+import com.example.kanbanboardbackend.repository.TicketChangeListener;
+import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Type;
 
 import javax.persistence.*;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = FullTicket.CACHE_REGION)
+@EntityListeners(TicketChangeListener.class)
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "tickets")
+@Table(name = "tickets", indexes = {
+        @Index(name = "idx_tickets_board_status_rank", columnList = "boardId, status, rankKey", unique = true),
+        @Index(name = "idx_tickets_next_id", columnList = "nextId", unique = true),
+        @Index(name = "idx_tickets_board_status_next_id", columnList = "boardId, status, nextId")
+})
 public class FullTicket {
 
+    // tickets by id in the second-level cache, bounded by kanban.ticket-cache.max-tickets in TicketCacheConfiguration
+    public static final String CACHE_REGION = "tickets";
+
     @Id
     @GeneratedValue(generator = "UUID")
     @GenericGenerator(
             name = "UUID",
-            strategy = "org.hibernate.id.UUIDGenerator"
+            strategy = "com.example.kanbanboardbackend.model.TicketIdGenerator"
     )
-    @ColumnDefault("random_uuid()")
+    @Type(type = "com.example.kanbanboardbackend.model.UuidStringType")
+    @Column(name = "id", columnDefinition = "uuid")
     private String id;
 
+    @Column(name = "boardId")
+    private String boardId;
+
     @Column(name = "title")
     private String title;
 
@@ -35,10 +49,19 @@ public class FullTicket {
     @Column(name = "status")
     private TicketStatus status;
 
-    @Column(name = "nextId")
+    @Type(type = "com.example.kanbanboardbackend.model.UuidStringType")
+    @Column(name = "nextId", columnDefinition = "uuid")
     private String nextId;
 
+    @Column(name = "rankKey")
+    private Long rank;
+
+    @Version
+    @EqualsAndHashCode.Exclude
+    @Column(name = "version")
+    private Long version;
+
     @Builder.Default
-    @Column(name = "isRoot", columnDefinition = "boolean default false")
+    @Column(name = "isRoot")
     private Boolean isRoot = false;
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.example.kanbanboardbackend.model;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * The columns a check looked at, as it found them. After a repair {@code relinked} is the number of tickets whose
+ * nextId or root flag had to change, or that were added as a missing root.
+ */
+@Value
+public class IntegrityReport {
+
+    List<ColumnIntegrity> columns;
+
+    int relinked;
+
+    public boolean isIntact() {
+        return this.columns.stream().allMatch(ColumnIntegrity::isIntact);
+    }
+}
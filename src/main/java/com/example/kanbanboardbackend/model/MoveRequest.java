@@ -1,12 +1,13 @@
 package com.example.kanbanboardbackend.model;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import lombok.AllArgsConstructor;
 import lombok.Value;
 
 import javax.validation.constraints.NotNull;
 
 @Value
-@AllArgsConstructor
+@AllArgsConstructor(onConstructor_ = @JsonCreator)
 public class MoveRequest {
 
     @NotNull
@@ -14,4 +15,13 @@ public class MoveRequest {
 
     @NotNull
     String afterThisOneId;
+
+    // versions the client last saw, the move is refused when either ticket has changed since
+    Long movedTicketVersion;
+
+    Long afterThisOneVersion;
+
+    public MoveRequest(String movedTicketId, String afterThisOneId) {
+        this(movedTicketId, afterThisOneId, null, null);
+    }
 }
@@ -0,0 +1,28 @@
+package com.example.kanbanboardbackend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The ticket rows one transaction wrote, published once it has committed.
+ * {@code changed} holds copies of inserted and updated rows as committed, {@code removedIds} the ids of deleted ones.
+ * In a cluster, {@code sequences} holds the number the commit got on the bus for every board it wrote to.
+ */
+@Value
+@AllArgsConstructor
+public class TicketChangeSet {
+
+    Collection<FullTicket> changed;
+
+    Set<String> removedIds;
+
+    Map<String, Long> sequences;
+
+    public TicketChangeSet(Collection<FullTicket> changed, Set<String> removedIds) {
+        this(changed, removedIds, Map.of());
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.kanbanboardbackend.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+
+/**
+ * One visible change of a ticket. {@code previousId} and {@code nextId} are its neighbours in its column afterwards,
+ * so a client can place it without the rest of the column. A deleted ticket only carries its id and former status.
+ */
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TicketDelta {
+
+    public enum Type {
+        created, updated, moved, deleted
+    }
+
+    Type type;
+
+    String id;
+
+    TicketStatus status;
+
+    TicketView ticket;
+
+    String previousId;
+
+    String nextId;
+}
@@ -0,0 +1,64 @@
+package com.example.kanbanboardbackend.model;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.UUIDGenerator;
+
+import java.io.Serializable;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered UUIDs (version 7), except that an id given to a ticket before it is persisted is kept.
+ * A bulk import links its tickets in memory that way, and since ids never come from the database the inserts still batch.
+ * New ids sort after the ones before them, so inserts land at the end of the primary key and {@code nextId} indexes
+ * instead of on a random page of each.
+ */
+public class TicketIdGenerator extends UUIDGenerator {
+
+    // milliseconds since the epoch shifted left by 12, plus a counter in the low 12 bits for ids of the same millisecond
+    private static final AtomicLong lastTimeAndSequence = new AtomicLong();
+
+    public static String newId() {
+        long now = System.currentTimeMillis() << 12;
+        // a 4097th id in one millisecond borrows from the next one, which keeps the ids of this JVM increasing
+        long timeAndSequence = lastTimeAndSequence.updateAndGet(last -> Math.max(last + 1, now));
+        long mostSignificantBits = (timeAndSequence >>> 12) << 16 | 0x7000L | (timeAndSequence & 0xfffL);
+        long leastSignificantBits = ThreadLocalRandom.current().nextLong() & 0x3fffffffffffffffL | 0x8000000000000000L;
+        return new UUID(mostSignificantBits, leastSignificantBits).toString();
+    }
+
+    /**
+     * An id in the form it is stored and compared in, lowercase with dashes, from any case of a UUID with or without
+     * its dashes. Null when {@code id} is no UUID and so cannot be the id of any ticket.
+     */
+    public static String normalize(String id) {
+        if (id == null) {
+            return null;
+        }
+        String hex = id;
+        if (id.length() == 36) {
+            if (id.charAt(8) != '-' || id.charAt(13) != '-' || id.charAt(18) != '-' || id.charAt(23) != '-') {
+                return null;
+            }
+            hex = id.substring(0, 8) + id.substring(9, 13) + id.substring(14, 18) + id.substring(19, 23) + id.substring(24);
+        }
+        if (hex.length() != 32) {
+            return null;
+        }
+        for (int i = 0; i < hex.length(); i++) {
+            if (Character.digit(hex.charAt(i), 16) < 0) {
+                return null;
+            }
+        }
+        return new UUID(Long.parseUnsignedLong(hex.substring(0, 16), 16), Long.parseUnsignedLong(hex.substring(16), 16)).toString();
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        if (object instanceof FullTicket && ((FullTicket) object).getId() != null) {
+            return ((FullTicket) object).getId();
+        }
+        return newId();
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.kanbanboardbackend.model;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * One page of search hits, best first. {@code total} counts the hits of all pages.
+ */
+@Value
+public class TicketSearchPage {
+
+    List<FullTicket> tickets;
+
+    long total;
+
+    int page;
+
+    int size;
+}
@@ -0,0 +1,24 @@
+package com.example.kanbanboardbackend.model;
+
+import lombok.Value;
+
+/**
+ * A ticket as a board shows it. Where it sits is given by its place in its column, so nothing about the linkage is sent.
+ */
+@Value
+public class TicketView {
+
+    String id;
+
+    String title;
+
+    String content;
+
+    TicketStatus status;
+
+    Long version;
+
+    public static TicketView of(FullTicket ticket) {
+        return new TicketView(ticket.getId(), ticket.getTitle(), ticket.getContent(), ticket.getStatus(), ticket.getVersion());
+    }
+}
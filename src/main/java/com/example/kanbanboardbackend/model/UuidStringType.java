@@ -0,0 +1,84 @@
+package com.example.kanbanboardbackend.model;
+
+import org.hibernate.type.AbstractSingleColumnStandardBasicType;
+import org.hibernate.type.descriptor.ValueBinder;
+import org.hibernate.type.descriptor.ValueExtractor;
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.type.descriptor.java.JavaTypeDescriptor;
+import org.hibernate.type.descriptor.java.StringTypeDescriptor;
+import org.hibernate.type.descriptor.sql.BasicBinder;
+import org.hibernate.type.descriptor.sql.BasicExtractor;
+import org.hibernate.type.descriptor.sql.SqlTypeDescriptor;
+
+import java.sql.*;
+import java.util.UUID;
+
+/**
+ * A ticket id kept as a {@code String} everywhere but in the database, where it is a native {@code uuid} of 16 bytes
+ * instead of 36 characters. H2 and PostgreSQL both bind and return {@link UUID} objects for such columns.
+ */
+public class UuidStringType extends AbstractSingleColumnStandardBasicType<String> {
+
+    public UuidStringType() {
+        super(UuidSqlTypeDescriptor.INSTANCE, StringTypeDescriptor.INSTANCE);
+    }
+
+    @Override
+    public String getName() {
+        return "uuid-string";
+    }
+
+    private static class UuidSqlTypeDescriptor implements SqlTypeDescriptor {
+
+        static final UuidSqlTypeDescriptor INSTANCE = new UuidSqlTypeDescriptor();
+
+        @Override
+        public int getSqlType() {
+            return Types.OTHER;
+        }
+
+        @Override
+        public boolean canBeRemapped() {
+            return false;
+        }
+
+        @Override
+        public <X> ValueBinder<X> getBinder(JavaTypeDescriptor<X> javaTypeDescriptor) {
+            return new BasicBinder<>(javaTypeDescriptor, this) {
+                @Override
+                protected void doBind(PreparedStatement st, X value, int index, WrapperOptions options) throws SQLException {
+                    st.setObject(index, UUID.fromString(javaTypeDescriptor.unwrap(value, String.class, options)));
+                }
+
+                @Override
+                protected void doBind(CallableStatement st, X value, String name, WrapperOptions options) throws SQLException {
+                    st.setObject(name, UUID.fromString(javaTypeDescriptor.unwrap(value, String.class, options)));
+                }
+            };
+        }
+
+        @Override
+        public <X> ValueExtractor<X> getExtractor(JavaTypeDescriptor<X> javaTypeDescriptor) {
+            return new BasicExtractor<>(javaTypeDescriptor, this) {
+                @Override
+                protected X doExtract(ResultSet rs, String name, WrapperOptions options) throws SQLException {
+                    return javaTypeDescriptor.wrap(toString(rs.getObject(name)), options);
+                }
+
+                @Override
+                protected X doExtract(CallableStatement statement, int index, WrapperOptions options) throws SQLException {
+                    return javaTypeDescriptor.wrap(toString(statement.getObject(index)), options);
+                }
+
+                @Override
+                protected X doExtract(CallableStatement statement, String name, WrapperOptions options) throws SQLException {
+                    return javaTypeDescriptor.wrap(toString(statement.getObject(name)), options);
+                }
+
+                private String toString(Object uuid) {
+                    return uuid != null ? uuid.toString() : null;
+                }
+            };
+        }
+    }
+}
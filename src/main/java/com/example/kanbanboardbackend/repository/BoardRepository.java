@@ -0,0 +1,7 @@
+package com.example.kanbanboardbackend.repository;
+
+import com.example.kanbanboardbackend.model.Board;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface BoardRepository extends JpaRepository<Board, String> {
+}
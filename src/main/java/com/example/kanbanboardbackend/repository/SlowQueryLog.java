@@ -0,0 +1,54 @@
+package com.example.kanbanboardbackend.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Logs repository queries that take longer than {@code kanban.slow-query.threshold-ms}, so queries stay visible
+ * without logging every statement. Only {@code kanban.slow-query.sample-rate} of the slow ones are logged,
+ * a struggling database cannot flood the log. The fields end up as their own keys in the JSON log.
+ */
+@Slf4j
+@Component
+public class SlowQueryLog implements RepositoryMethodInvocationListener, BeanPostProcessor {
+
+    @Value("${kanban.slow-query.threshold-ms:200}")
+    private long thresholdMs;
+
+    @Value("${kanban.slow-query.sample-rate:1.0}")
+    private double sampleRate;
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport) {
+            ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(
+                    repositoryFactory -> repositoryFactory.addInvocationListener(this));
+        }
+        return bean;
+    }
+
+    @Override
+    public void afterInvocation(RepositoryMethodInvocation invocation) {
+        long durationMs = invocation.getDuration(TimeUnit.MILLISECONDS);
+        if (this.thresholdMs <= 0 || durationMs < this.thresholdMs) {
+            return;
+        }
+        if (this.sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= this.sampleRate) {
+            return;
+        }
+        log.warn("Slow query {} {} {} {}",
+                kv("repository", invocation.getRepositoryInterface().getSimpleName()),
+                kv("method", invocation.getMethod().getName()),
+                kv("durationMs", durationMs),
+                kv("outcome", invocation.getResult().getState()));
+    }
+}
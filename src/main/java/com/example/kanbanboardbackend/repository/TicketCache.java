@@ -0,0 +1,38 @@
+package com.example.kanbanboardbackend.repository;
+
+import com.example.kanbanboardbackend.model.FullTicket;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Collection;
+
+/**
+ * The second-level cache of tickets and of the queries for them. Hibernate keeps it current through every write it
+ * makes itself; whatever writes the tickets table around it, plain JDBC or an SQL script, has to evict it here.
+ */
+@Component
+public class TicketCache {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    public void evictAll() {
+        Cache cache = this.entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(FullTicket.class);
+        cache.evictQueryRegions();
+    }
+
+    /**
+     * Evicts some tickets another node wrote, and every cached query: their results may have changed with them.
+     */
+    public void evict(Collection<String> ids) {
+        Cache cache = this.entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        for (String id : ids) {
+            cache.evictEntityData(FullTicket.class, id);
+        }
+        cache.evictQueryRegions();
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.kanbanboardbackend.repository;
+
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * The Caffeine regions behind Hibernate's second-level cache. Each application context gets a cache manager of its
+ * own: the provider would otherwise hand every context in the JVM the same one, and contexts on different databases
+ * would read each other's tickets. It is closed with the context, which also drops it from the provider.
+ * Whether Hibernate uses the regions at all is up to {@code hibernate.cache.*}.
+ */
+@Configuration
+public class TicketCacheConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager ticketCacheManager(@Value("${kanban.ticket-cache.max-tickets:50000}") long maxTickets,
+                                           @Value("${kanban.ticket-cache.max-queries:10000}") long maxQueries) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("kanban:ticket-cache:" + UUID.randomUUID()), getClass().getClassLoader());
+        cacheManager.createCache(FullTicket.CACHE_REGION, bounded(maxTickets));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, bounded(maxQueries));
+        // when each table was last written, evicting from it could let cached query results outlive a write
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer ticketCacheManagerCustomizer(CacheManager ticketCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, ticketCacheManager);
+    }
+
+    private static CaffeineConfiguration<Object, Object> bounded(long maximumSize) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        return configuration;
+    }
+}
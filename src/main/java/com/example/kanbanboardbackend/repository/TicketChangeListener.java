@@ -0,0 +1,133 @@
+package com.example.kanbanboardbackend.repository;
+
+import com.example.kanbanboardbackend.cluster.ClusterBus;
+import com.example.kanbanboardbackend.eventlog.TicketEventLog;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.TicketChangeSet;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import java.util.*;
+
+/**
+ * Collects every ticket row written by a transaction and publishes them as one {@link TicketChangeSet} after commit,
+ * so in-memory views of the board follow every write path, including ones that never go through the ticket service.
+ * In a cluster the ids of those rows also go out on the {@link ClusterBus}, from within the transaction once Hibernate
+ * has flushed it, so the other nodes hear of exactly the commits that happen. The {@link TicketEventLog} gets the changes
+ * at the same point, so they are on disk before the commit, and hears of it when the commit fails after all.
+ */
+public class TicketChangeListener {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // all of them need the entity manager factory, which is still being built when Hibernate creates its listeners
+    @Autowired
+    private ObjectProvider<ClusterBus> clusterBus;
+
+    @Autowired
+    private ObjectProvider<TicketEventLog> eventLog;
+
+    @Autowired
+    private ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    @PostPersist
+    @PostUpdate
+    public void changed(FullTicket ticket) {
+        Changes changes = currentChanges();
+        if (changes != null) {
+            changes.removedIds.remove(ticket.getId());
+            changes.changed.put(ticket.getId(), ticket);
+        }
+    }
+
+    @PostRemove
+    public void removed(FullTicket ticket) {
+        Changes changes = currentChanges();
+        if (changes != null) {
+            changes.changed.remove(ticket.getId());
+            changes.removedIds.add(ticket.getId());
+            changes.removedFrom.put(ticket.getId(), ticket.getBoardId());
+        }
+    }
+
+    private Changes currentChanges() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+
+        Changes changes = (Changes) TransactionSynchronizationManager.getResource(Changes.class);
+        if (changes == null) {
+            changes = new Changes();
+            TransactionSynchronizationManager.bindResource(Changes.class, changes);
+            TransactionSynchronizationManager.registerSynchronization(changes);
+            if (this.clusterBus.getIfAvailable() != null || this.eventLog.getIfAvailable() != null) {
+                // runs after the flush at commit, which may be the flush that got here
+                EntityManagerFactoryUtils.getTransactionalEntityManager(this.entityManagerFactory.getObject())
+                        .unwrap(SessionImplementor.class).getActionQueue().registerProcess(changes);
+            }
+        }
+        return changes;
+    }
+
+    private class Changes implements TransactionSynchronization, BeforeTransactionCompletionProcess {
+
+        private final Map<String, FullTicket> changed = new LinkedHashMap<>();
+
+        private final Set<String> removedIds = new LinkedHashSet<>();
+
+        // the board of every deleted row, the bus numbers commits per board
+        private final Map<String, String> removedFrom = new HashMap<>();
+
+        private Map<String, Long> sequences = Map.of();
+
+        private TicketEventLog.Pending logged;
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            ClusterBus bus = clusterBus.getIfAvailable();
+            if (bus != null) {
+                Map<String, Collection<String>> idsByBoard = new HashMap<>();
+                this.changed.values().forEach(ticket ->
+                        idsByBoard.computeIfAbsent(ticket.getBoardId(), key -> new LinkedHashSet<>()).add(ticket.getId()));
+                this.removedIds.forEach(id ->
+                        idsByBoard.computeIfAbsent(this.removedFrom.get(id), key -> new LinkedHashSet<>()).add(id));
+                this.sequences = bus.publish(idsByBoard);
+            }
+            TicketEventLog events = eventLog.getIfAvailable();
+            if (events != null) {
+                this.logged = events.append(changeSet());
+            }
+        }
+
+        @Override
+        public void afterCommit() {
+            eventPublisher.publishEvent(changeSet());
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(Changes.class);
+            if (status != STATUS_COMMITTED && this.logged != null) {
+                eventLog.getObject().rolledBack(this.logged);
+            }
+        }
+
+        // the entities may be reused by the same persistence context later, hand them out as they are now
+        private TicketChangeSet changeSet() {
+            List<FullTicket> committed = new ArrayList<>(this.changed.size());
+            this.changed.values().forEach(ticket -> committed.add(ticket.toBuilder().build()));
+            return new TicketChangeSet(committed, Set.copyOf(this.removedIds), this.sequences);
+        }
+    }
+}
@@ -3,17 +3,89 @@ package com.example.kanbanboardbackend.repository;
 
 import com.example.kanbanboardbackend.model.FullTicket;
 import com.example.kanbanboardbackend.model.TicketStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface TicketRepository extends JpaRepository<FullTicket, String> {
 
+    // the neighbour lookups of every move and append, kept in the query cache until the next write to tickets
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
     FullTicket findByNextId(String nextId);
 
-    FullTicket findByNextIdAndStatus(String nextId, TicketStatus ticketStatus);
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    FullTicket findByBoardIdAndStatusAndNextIdIsNull(String boardId, TicketStatus ticketStatus);
+
+    List<FullTicket> findByBoardId(String boardId);
+
+    List<FullTicket> findByBoardIdAndStatusOrderByRankAsc(String boardId, TicketStatus ticketStatus);
+
+    List<FullTicket> findByBoardIdAndStatus(String boardId, TicketStatus ticketStatus);
+
+    FullTicket findFirstByBoardIdAndStatusOrderByRankDesc(String boardId, TicketStatus ticketStatus);
+
+    FullTicket findFirstByBoardIdAndStatusAndRankGreaterThanAndIdNotOrderByRankAsc(String boardId, TicketStatus ticketStatus, Long rank, String id);
+
+    boolean existsByRankIsNull();
+
+    long countByBoardIdAndStatus(String boardId, TicketStatus ticketStatus);
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<FullTicket> streamAllBy();
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<FullTicket> streamByBoardIdAndStatusOrderByRankAsc(String boardId, TicketStatus ticketStatus);
+
+    /**
+     * One column of a board in list order, walking the {@code nextId} chain from its root in the database.
+     * The walk stops after {@code maxLength} tickets, so a cycle cannot keep it going.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(nativeQuery = true, value = "WITH RECURSIVE chain(id, next_id, position) AS ("
+            + " SELECT id, next_id, 0 FROM tickets WHERE is_root = TRUE AND board_id = :boardId AND status = :status"
+            + " UNION ALL"
+            + " SELECT t.id, t.next_id, c.position + 1 FROM tickets t JOIN chain c ON t.id = c.next_id"
+            + " WHERE c.position < :maxLength)"
+            + " SELECT t.* FROM chain c JOIN tickets t ON t.id = c.id ORDER BY c.position")
+    Stream<FullTicket> streamChain(@Param("boardId") String boardId, @Param("status") int status, @Param("maxLength") long maxLength);
+
+    @Query(nativeQuery = true, value = "WITH RECURSIVE chain(id, next_id, position) AS ("
+            + " SELECT id, next_id, 0 FROM tickets WHERE is_root = TRUE AND board_id = :boardId AND status = :status"
+            + " UNION ALL"
+            + " SELECT t.id, t.next_id, c.position + 1 FROM tickets t JOIN chain c ON t.id = c.next_id"
+            + " WHERE c.position + 1 < :count)"
+            + " SELECT t.* FROM chain c JOIN tickets t ON t.id = c.id ORDER BY c.position")
+    List<FullTicket> findChainFromRoot(@Param("boardId") String boardId, @Param("status") int status, @Param("count") int count);
+
+    /**
+     * Up to {@code count} tickets following {@code afterId} in its column, walking only as far as that.
+     */
+    @Query(nativeQuery = true, value = "WITH RECURSIVE chain(id, next_id, position) AS ("
+            + " SELECT t.id, t.next_id, 0 FROM tickets t JOIN tickets a ON t.id = a.next_id WHERE a.id = CAST(:afterId AS uuid)"
+            + " UNION ALL"
+            + " SELECT t.id, t.next_id, c.position + 1 FROM tickets t JOIN chain c ON t.id = c.next_id"
+            + " WHERE c.position + 1 < :count)"
+            + " SELECT t.* FROM chain c JOIN tickets t ON t.id = c.id ORDER BY c.position")
+    List<FullTicket> findChainAfter(@Param("afterId") String afterId, @Param("count") int count);
+
+    /**
+     * The columns, as board id and status, with two neighbouring ranks less than {@code minGap} apart.
+     */
+    @Query(nativeQuery = true, value = "SELECT DISTINCT board_id, status FROM ("
+            + " SELECT board_id, status, rank_key - LAG(rank_key) OVER (PARTITION BY board_id, status ORDER BY rank_key) AS gap"
+            + " FROM tickets WHERE rank_key IS NOT NULL) gaps"
+            + " WHERE gap < :minGap")
+    List<Object[]> findColumnsWithRankGapBelow(@Param("minGap") long minGap);
+
+    List<FullTicket> findByBoardIdAndStatusOrderByRankAsc(String boardId, TicketStatus ticketStatus, Pageable pageable);
 
-    List<FullTicket> findByTitleContaining(String title);
+    List<FullTicket> findByBoardIdAndStatusAndRankGreaterThanOrderByRankAsc(String boardId, TicketStatus ticketStatus, Long rank, Pageable pageable);
 
-}
\ No newline at end of file
+}
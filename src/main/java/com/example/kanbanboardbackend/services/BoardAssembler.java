@@ -0,0 +1,156 @@
+package com.example.kanbanboardbackend.services;
+
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.TicketStatus;
+
+import java.util.*;
+
+/**
+ * Puts the rows of a linked board in order. One pass over the rows indexes them by id, finds the root of every
+ * column and counts its tickets; then each column is walked from its root. A walk stops at a ticket of another column
+ * and gives up as soon as it is longer than its column, so a cycle costs one column's length rather than a hung thread.
+ */
+final class BoardAssembler {
+
+    // below this the three walks are done before another thread would be running
+    static final int PARALLEL_THRESHOLD = 50_000;
+
+    private BoardAssembler() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<TicketStatus, List<FullTicket>> assemble(List<FullTicket> rows) {
+        TicketStatus[] statuses = TicketStatus.values();
+        Map<String, FullTicket> byId = new HashMap<>(capacity(rows.size()));
+        FullTicket[] roots = new FullTicket[statuses.length];
+        int[] counts = new int[statuses.length];
+        for (FullTicket ticket : rows) {
+            byId.put(ticket.getId(), ticket);
+            int column = ticket.getStatus().ordinal();
+            counts[column]++;
+            if (roots[column] == null && Boolean.TRUE.equals(ticket.getIsRoot())) {
+                roots[column] = ticket;
+            }
+        }
+
+        List<FullTicket>[] walked = new List[statuses.length];
+        if (rows.size() >= PARALLEL_THRESHOLD) {
+            Arrays.stream(statuses).parallel()
+                    .forEach(ticketStatus -> walked[ticketStatus.ordinal()] = walk(ticketStatus, roots[ticketStatus.ordinal()], byId, counts[ticketStatus.ordinal()]));
+        } else {
+            for (TicketStatus ticketStatus : statuses) {
+                walked[ticketStatus.ordinal()] = walk(ticketStatus, roots[ticketStatus.ordinal()], byId, counts[ticketStatus.ordinal()]);
+            }
+        }
+
+        Map<TicketStatus, List<FullTicket>> board = new EnumMap<>(TicketStatus.class);
+        for (TicketStatus ticketStatus : statuses) {
+            board.put(ticketStatus, walked[ticketStatus.ordinal()]);
+        }
+        return Collections.unmodifiableMap(board);
+    }
+
+    /**
+     * One column from the tickets it is made of, indexed by id. The projection keeps its columns that way, so nothing is rehashed.
+     */
+    static List<FullTicket> column(TicketStatus ticketStatus, Map<String, FullTicket> byId) {
+        FullTicket root = null;
+        for (FullTicket ticket : byId.values()) {
+            if (Boolean.TRUE.equals(ticket.getIsRoot())) {
+                root = ticket;
+                break;
+            }
+        }
+        return walk(ticketStatus, root, byId, byId.size());
+    }
+
+    static List<FullTicket> column(TicketStatus ticketStatus, Collection<FullTicket> tickets) {
+        Map<String, FullTicket> byId = new HashMap<>(capacity(tickets.size()));
+        for (FullTicket ticket : tickets) {
+            byId.put(ticket.getId(), ticket);
+        }
+        return column(ticketStatus, byId);
+    }
+
+    /**
+     * Puts changed tickets into the rest of their column, which is in order. The changed tickets that link to each other
+     * go in as one run, in front of the ticket the last of them links to. The result has to be a list from the root
+     * where every ticket links to the next one, else the column is left to be walked in full.
+     */
+    static boolean splice(List<FullTicket> column, List<FullTicket> changed) {
+        Map<String, FullTicket> changedById = new HashMap<>(capacity(changed.size()));
+        Set<String> linkedTo = new HashSet<>();
+        for (FullTicket ticket : changed) {
+            changedById.put(ticket.getId(), ticket);
+        }
+        for (FullTicket ticket : changed) {
+            if (ticket.getNextId() != null && changedById.containsKey(ticket.getNextId())) {
+                linkedTo.add(ticket.getNextId());
+            }
+        }
+
+        int spliced = 0;
+        for (FullTicket first : changed) {
+            if (linkedTo.contains(first.getId())) {
+                continue;
+            }
+            List<FullTicket> run = new ArrayList<>();
+            for (FullTicket ticket = first; ticket != null; ticket = changedById.get(ticket.getNextId())) {
+                if (run.size() == changed.size()) {
+                    // runs into a cycle
+                    return false;
+                }
+                run.add(ticket);
+            }
+            spliced += run.size();
+            // a run that is not followed by a ticket of this column ends it
+            int at = indexOf(column, run.get(run.size() - 1).getNextId());
+            column.addAll(at >= 0 ? at : column.size(), run);
+        }
+        if (spliced != changed.size()) {
+            // a cycle among the changed tickets, none of them is where a run starts
+            return false;
+        }
+
+        if (!column.isEmpty() && !Boolean.TRUE.equals(column.get(0).getIsRoot())) {
+            return false;
+        }
+        for (int i = 1; i < column.size(); i++) {
+            if (!column.get(i).getId().equals(column.get(i - 1).getNextId())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(List<FullTicket> column, String id) {
+        if (id != null) {
+            for (int i = 0; i < column.size(); i++) {
+                if (id.equals(column.get(i).getId())) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static List<FullTicket> walk(TicketStatus ticketStatus, FullTicket root, Map<String, FullTicket> byId, int columnSize) {
+        if (root == null) {
+            throw new IllegalStateException("No root with status " + ticketStatus + " found");
+        }
+        List<FullTicket> column = new ArrayList<>(columnSize);
+        FullTicket current = root;
+        while (current != null && current.getStatus() == ticketStatus) {
+            if (column.size() == columnSize) {
+                throw new IllegalStateException("Cycle in the list of tickets with status " + ticketStatus);
+            }
+            column.add(current);
+            current = current.getNextId() != null ? byId.get(current.getNextId()) : null;
+        }
+        return column;
+    }
+
+    private static int capacity(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.kanbanboardbackend.services;
+
+import com.example.kanbanboardbackend.model.TicketStatus;
+import lombok.Value;
+
+import java.util.Comparator;
+
+/**
+ * One column of one board, the unit that is locked, rebalanced and re-ordered on its own.
+ */
+@Value
+public class BoardColumn implements Comparable<BoardColumn> {
+
+    private static final Comparator<BoardColumn> ORDER = Comparator.comparing(BoardColumn::getBoardId)
+            .thenComparing(BoardColumn::getStatus);
+
+    String boardId;
+
+    TicketStatus status;
+
+    @Override
+    public int compareTo(BoardColumn other) {
+        return ORDER.compare(this, other);
+    }
+}
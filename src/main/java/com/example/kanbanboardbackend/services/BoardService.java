@@ -0,0 +1,23 @@
+package com.example.kanbanboardbackend.services;
+
+import com.example.kanbanboardbackend.error.BoardNotFoundException;
+import com.example.kanbanboardbackend.model.Board;
+
+import java.util.List;
+
+public interface BoardService {
+
+    List<Board> findAll();
+
+    Board findById(String id) throws BoardNotFoundException;
+
+    /**
+     * Creates a board with an empty column of every status.
+     */
+    Board create(Board board);
+
+    /**
+     * Throws unless the board exists, answered from the board projection for any board it holds.
+     */
+    void requireExists(String id) throws BoardNotFoundException;
+}
@@ -0,0 +1,65 @@
+package com.example.kanbanboardbackend.services;
+
+import com.example.kanbanboardbackend.error.BoardNotFoundException;
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.repository.BoardRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+@Service
+public class BoardServiceImpl implements BoardService {
+
+    @Autowired
+    private BoardRepository boardRepository;
+
+    @Autowired
+    private TicketOrdering ticketOrdering;
+
+    @Autowired
+    private TicketBoardProjection boardProjection;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    public List<Board> findAll() {
+        return this.boardRepository.findAll();
+    }
+
+    @Override
+    public Board findById(String id) throws BoardNotFoundException {
+        return this.boardRepository.findById(id)
+                .orElseThrow(() -> new BoardNotFoundException("Board " + id + " not found"));
+    }
+
+    @Override
+    public Board create(Board board) {
+        return this.transactionTemplate.execute(status -> {
+            Board saved = this.boardRepository.save(Board.builder().name(board.getName()).build());
+            // every column starts with its root, nothing else can see the board before this commits
+            for (TicketStatus ticketStatus : TicketStatus.values()) {
+                FullTicket root = FullTicket.builder()
+                        .boardId(saved.getId())
+                        .title(ticketStatus.name() + "Root")
+                        .content(ticketStatus.name() + "Root")
+                        .status(ticketStatus)
+                        .isRoot(true)
+                        .build();
+                this.ticketOrdering.append(root, null);
+            }
+            return saved;
+        });
+    }
+
+    @Override
+    public void requireExists(String id) throws BoardNotFoundException {
+        if (!this.boardProjection.isReady(id) && !this.boardRepository.existsById(id)) {
+            throw new BoardNotFoundException("Board " + id + " not found");
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.kanbanboardbackend.services;
+
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The committed board at one version. The version goes up with every change applied to the projection.
+ */
+@Getter
+public class BoardSnapshot {
+
+    private final long version;
+
+    private final Map<TicketStatus, List<FullTicket>> columns;
+
+    // where every ticket sits in its column, so a page can start after any of them without a search;
+    // indexed the first time a column is looked up by ticket, a commit does not pay for it
+    @Getter(lombok.AccessLevel.NONE)
+    private final Map<TicketStatus, Map<String, Integer>> positions;
+
+    public BoardSnapshot(long version, Map<TicketStatus, List<FullTicket>> columns) {
+        this(version, columns, Map.of());
+    }
+
+    /**
+     * With the positions of those columns that are already indexed, e.g. the ones a change left as they were.
+     */
+    public BoardSnapshot(long version, Map<TicketStatus, List<FullTicket>> columns, Map<TicketStatus, Map<String, Integer>> positions) {
+        this.version = version;
+        this.columns = columns;
+        this.positions = new ConcurrentHashMap<>(positions);
+    }
+
+    /**
+     * Where a ticket sits in a column, or null when it is not in that column.
+     */
+    public Integer position(TicketStatus ticketStatus, String id) {
+        return positions(ticketStatus).get(id);
+    }
+
+    Map<String, Integer> positions(TicketStatus ticketStatus) {
+        return this.positions.computeIfAbsent(ticketStatus, key -> {
+            List<FullTicket> column = this.columns.get(key);
+            Map<String, Integer> columnPositions = new HashMap<>(column.size() * 4 / 3 + 1);
+            for (int i = 0; i < column.size(); i++) {
+                columnPositions.put(column.get(i).getId(), i);
+            }
+            return Collections.unmodifiableMap(columnPositions);
+        });
+    }
+
+    // the columns indexed so far
+    Map<TicketStatus, Map<String, Integer>> indexedPositions() {
+        return this.positions;
+    }
+
+    /**
+     * Up to {@code count} tickets of a column, starting after {@code afterId} or at the top when it is null.
+     * Null when {@code afterId} is not in that column.
+     */
+    public List<FullTicket> window(TicketStatus ticketStatus, String afterId, int count) {
+        List<FullTicket> column = this.columns.get(ticketStatus);
+        int from = 0;
+        if (afterId != null) {
+            Integer position = position(ticketStatus, afterId);
+            if (position == null) {
+                return null;
+            }
+            from = position + 1;
+        }
+        return column.subList(from, Math.min(column.size(), from + count));
+    }
+}
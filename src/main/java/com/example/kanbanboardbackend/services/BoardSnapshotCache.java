@@ -0,0 +1,190 @@
+package com.example.kanbanboardbackend.services;
+
+import com.example.kanbanboardbackend.error.BoardNotFoundException;
+import com.example.kanbanboardbackend.model.ColumnView;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Value;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the serialized current version of every board, so polling clients get either a 304 or bytes serialized once per version.
+ * By default a board is sent as it always was, each column a JSON list of tickets with their root.
+ * Clients that ask for {@code application/vnd.kanban.columns+json} or {@code application/cbor} get it as {@link ColumnView}s,
+ * without the linkage. Each format has its own ETag.
+ */
+@Component
+public class BoardSnapshotCache {
+
+    @Autowired
+    private TicketBoardProjection boardProjection;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    private final Map<Format, ObjectMapper> mappers = new EnumMap<>(Format.class);
+
+    private final Map<Format, Map<String, SerializedBoard>> cached = new EnumMap<>(Format.class);
+
+    public enum Format {
+
+        JSON(MediaType.APPLICATION_JSON, "", false),
+        COLUMNS_JSON(MediaType.valueOf("application/vnd.kanban.columns+json"), "-columns", true),
+        CBOR(MediaType.APPLICATION_CBOR, "-cbor", true);
+
+        private final MediaType mediaType;
+
+        private final String eTagSuffix;
+
+        // ColumnViews instead of the tickets as stored
+        private final boolean columnViews;
+
+        Format(MediaType mediaType, String eTagSuffix, boolean columnViews) {
+            this.mediaType = mediaType;
+            this.eTagSuffix = eTagSuffix;
+            this.columnViews = columnViews;
+        }
+
+        public MediaType getMediaType() {
+            return this.mediaType;
+        }
+
+        public String getETagSuffix() {
+            return this.eTagSuffix;
+        }
+
+        /**
+         * The format an {@code Accept} header prefers, JSON when it names neither or cannot be read.
+         */
+        public static Format accepted(String accept) {
+            if (accept == null) {
+                return JSON;
+            }
+            List<MediaType> mediaTypes;
+            try {
+                mediaTypes = MediaType.parseMediaTypes(accept);
+            } catch (InvalidMediaTypeException e) {
+                return JSON;
+            }
+            MediaType.sortBySpecificityAndQuality(mediaTypes);
+            for (MediaType mediaType : mediaTypes) {
+                if (mediaType.getQualityValue() == 0) {
+                    continue;
+                }
+                if (mediaType.isCompatibleWith(JSON.mediaType)) {
+                    return JSON;
+                }
+                if (mediaType.isCompatibleWith(COLUMNS_JSON.mediaType)) {
+                    return COLUMNS_JSON;
+                }
+                if (mediaType.isCompatibleWith(CBOR.mediaType)) {
+                    return CBOR;
+                }
+            }
+            return JSON;
+        }
+    }
+
+    @Value
+    public static class SerializedBoard {
+
+        String eTag;
+
+        MediaType mediaType;
+
+        byte[] body;
+    }
+
+    @PostConstruct
+    void createMappers() {
+        this.mappers.put(Format.JSON, this.objectMapper);
+        this.mappers.put(Format.COLUMNS_JSON, this.objectMapper);
+        // the same modules and settings as the JSON mapper
+        this.mappers.put(Format.CBOR, this.objectMapperBuilder.factory(new CBORFactory()).build());
+        for (Format format : Format.values()) {
+            this.cached.put(format, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * The ETag of the current version of a board, or null while there is no projection of it. Needs neither the service nor a serializer.
+     */
+    public String currentETag(String boardId) {
+        return currentETag(boardId, Format.JSON);
+    }
+
+    public String currentETag(String boardId, Format format) {
+        BoardSnapshot snapshot = this.boardProjection.getSnapshot(boardId);
+        return snapshot != null ? eTag(snapshot, format) : null;
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header names {@code eTag}, using the weak comparison the header calls for.
+     */
+    public static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+            if (trimmed.equals("*") || trimmed.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public SerializedBoard get(String boardId) throws JsonProcessingException, BoardNotFoundException {
+        return get(boardId, Format.JSON);
+    }
+
+    public SerializedBoard get(String boardId, Format format) throws JsonProcessingException, BoardNotFoundException {
+        ObjectMapper mapper = this.mappers.get(format);
+        BoardSnapshot snapshot = this.boardProjection.getSnapshot(boardId);
+        if (snapshot == null) {
+            // no projection to version the board with, serialize what the repository has
+            return new SerializedBoard(null, format.mediaType, mapper.writeValueAsBytes(body(this.ticketService.getAll(boardId), format)));
+        }
+
+        String eTag = eTag(snapshot, format);
+        Map<String, SerializedBoard> cachedBoards = this.cached.get(format);
+        SerializedBoard current = cachedBoards.get(boardId);
+        if (current == null || !current.getETag().equals(eTag)) {
+            current = new SerializedBoard(eTag, format.mediaType, mapper.writeValueAsBytes(body(snapshot.getColumns(), format)));
+            cachedBoards.put(boardId, current);
+        }
+        return current;
+    }
+
+    private static Object body(Map<TicketStatus, List<FullTicket>> columns, Format format) {
+        return format.columnViews ? ColumnView.of(columns) : columns;
+    }
+
+    private String eTag(BoardSnapshot snapshot, Format format) {
+        // the JSON one is the same id the board stream gives the change that led to this version
+        return "\"" + this.boardProjection.getEpoch() + "-" + snapshot.getVersion() + format.eTagSuffix + "\"";
+    }
+}
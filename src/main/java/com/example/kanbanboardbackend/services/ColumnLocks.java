@@ -0,0 +1,99 @@
+package com.example.kanbanboardbackend.services;
+
+import com.example.kanbanboardbackend.cluster.DatabaseColumnLocks;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One lock per column of every board, so writes to different columns or boards run in parallel while writes to the same column queue up.
+ * Locks are always taken in {@link BoardColumn} order, so writes spanning two columns cannot deadlock.
+ * Hold them around the whole transaction, commit included, so commits of one column are published in order.
+ * In a cluster each column is then locked in the shared database as well, see {@link DatabaseColumnLocks}, so writes
+ * queue up across nodes the same way; a node's own writes still queue up here first and hold one database lock at a time.
+ * A column's lock is only kept while a write holds or waits for it, so boards that come and go leave nothing behind.
+ */
+@Component
+public class ColumnLocks {
+
+    private final Map<BoardColumn, ColumnLock> locks = new ConcurrentHashMap<>();
+
+    @Autowired(required = false)
+    private DatabaseColumnLocks databaseColumnLocks;
+
+    public Held lock(String boardId, TicketStatus... ticketStatuses) {
+        SortedSet<BoardColumn> ordered = new TreeSet<>();
+        for (TicketStatus ticketStatus : ticketStatuses) {
+            if (ticketStatus != null) {
+                ordered.add(new BoardColumn(boardId, ticketStatus));
+            }
+        }
+
+        List<BoardColumn> acquired = new ArrayList<>(ordered.size());
+        for (BoardColumn column : ordered) {
+            // counted in before waiting, so a lock someone waits for is never dropped
+            ColumnLock lock = this.locks.compute(column, (key, current) -> {
+                ColumnLock counted = current != null ? current : new ColumnLock();
+                counted.users++;
+                return counted;
+            });
+            lock.lock.lock();
+            acquired.add(column);
+        }
+
+        DatabaseColumnLocks.Held shared = null;
+        if (this.databaseColumnLocks != null) {
+            try {
+                shared = this.databaseColumnLocks.lock(ordered);
+            } catch (RuntimeException e) {
+                new Held(acquired, null).close();
+                throw e;
+            }
+        }
+        return new Held(acquired, shared);
+    }
+
+    // columns with a lock right now
+    int size() {
+        return this.locks.size();
+    }
+
+    private void unlock(BoardColumn column) {
+        this.locks.get(column).lock.unlock();
+        this.locks.compute(column, (key, current) -> --current.users == 0 ? null : current);
+    }
+
+    // a lock and the writes holding or waiting for it, counted only inside compute
+    private static class ColumnLock {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private int users;
+    }
+
+    public class Held implements AutoCloseable {
+
+        private final List<BoardColumn> acquired;
+
+        private final DatabaseColumnLocks.Held shared;
+
+        private Held(List<BoardColumn> acquired, DatabaseColumnLocks.Held shared) {
+            this.acquired = acquired;
+            this.shared = shared;
+        }
+
+        @Override
+        public void close() {
+            if (this.shared != null) {
+                this.shared.close();
+            }
+            for (int i = this.acquired.size() - 1; i >= 0; i--) {
+                unlock(this.acquired.get(i));
+            }
+        }
+    }
+}
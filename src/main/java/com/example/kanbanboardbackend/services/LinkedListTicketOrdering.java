@@ -0,0 +1,276 @@
+package com.example.kanbanboardbackend.services;
+
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.MoveRequest;
+import com.example.kanbanboardbackend.model.TicketIdGenerator;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.repository.TicketRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+@Component
+@ConditionalOnProperty(name = "kanban.ordering.mode", havingValue = "linked", matchIfMissing = true)
+public class LinkedListTicketOrdering implements TicketOrdering {
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Override
+    public FullTicket append(FullTicket newTicket, FullTicket lastTicket) {
+        if (lastTicket != null) {
+            FullTicket savedNewTicket = this.ticketRepository.save(newTicket);
+            lastTicket.setNextId(savedNewTicket.getId());
+            this.ticketRepository.save(lastTicket);
+            return savedNewTicket;
+        } else {
+            return this.ticketRepository.save(newTicket);
+        }
+    }
+
+    @Override
+    public List<FullTicket> appendAll(List<FullTicket> newTickets, FullTicket lastTicket) {
+        if (newTickets.isEmpty()) {
+            return newTickets;
+        }
+
+        // ids are handed out up front so the whole chain is linked before the first insert
+        newTickets.forEach(ticket -> ticket.setId(TicketIdGenerator.newId()));
+        for (int i = 0; i < newTickets.size(); i++) {
+            newTickets.get(i).setNextId(i + 1 < newTickets.size() ? newTickets.get(i + 1).getId() : null);
+        }
+        List<FullTicket> saved = this.ticketRepository.saveAll(newTickets);
+
+        if (lastTicket != null) {
+            lastTicket.setNextId(saved.get(0).getId());
+            this.ticketRepository.save(lastTicket);
+        }
+        return saved;
+    }
+
+    @Override
+    public void remove(FullTicket ticket) {
+        FullTicket leftNeighbor = this.ticketRepository.findByNextId(ticket.getId());
+        String nextId = ticket.getNextId();
+
+        // the removed row has to let go of its successor before the left neighbor takes it over
+        this.ticketRepository.delete(ticket);
+        if (leftNeighbor != null) {
+            this.ticketRepository.flush();
+            leftNeighbor.setNextId(nextId);
+            this.ticketRepository.save(leftNeighbor);
+        }
+    }
+
+    /**
+     * Moves a ticket behind another one. No two rows may point at the same ticket at any time (nextId is unique),
+     * so the old left neighbor lets go of the moved ticket first and takes over its successor last.
+     */
+    @Override
+    public void moveAfter(FullTicket movedTicket, FullTicket afterThisOne) {
+
+        if (movedTicket.getId().equals(afterThisOne.getId())) {
+            movedTicket.setStatus(afterThisOne.getStatus());
+            return;
+        }
+
+        FullTicket leftNeighbor = this.ticketRepository.findByNextId(movedTicket.getId());
+        if (leftNeighbor != null && leftNeighbor.getId().equals(afterThisOne.getId())) {
+            // already in place
+            return;
+        }
+
+        String previousNextId = movedTicket.getNextId();
+        String newNextId = afterThisOne.getNextId();
+
+        if (leftNeighbor != null) {
+            leftNeighbor.setNextId(null);
+            this.ticketRepository.saveAndFlush(leftNeighbor);
+        }
+
+        afterThisOne.setNextId(movedTicket.getId());
+        this.ticketRepository.saveAndFlush(afterThisOne);
+
+        movedTicket.setStatus(afterThisOne.getStatus());
+        movedTicket.setNextId(newNextId);
+        this.ticketRepository.saveAndFlush(movedTicket);
+
+        if (leftNeighbor != null && previousNextId != null) {
+            leftNeighbor.setNextId(previousNextId);
+            this.ticketRepository.save(leftNeighbor);
+        }
+    }
+
+    @Override
+    public void moveAll(List<MoveRequest> moves, BoardSnapshot view) {
+        Relinking relinking = new Relinking(view);
+        for (MoveRequest move : moves) {
+            relinking.moveAfter(move.getMovedTicketId(), move.getAfterThisOneId());
+        }
+
+        Map<String, FullTicket> changed = relinking.changed();
+        if (changed.isEmpty()) {
+            return;
+        }
+        List<FullTicket> rows = this.ticketRepository.findAllById(changed.keySet());
+        for (FullTicket row : rows) {
+            if (!Objects.equals(row.getVersion(), changed.get(row.getId()).getVersion())) {
+                throw new OptimisticLockingFailureException("Ticket " + row.getId() + " has changed since the board was read");
+            }
+        }
+
+        // every rewritten nextId is cleared first, so the unique index never sees two rows pointing at the same ticket
+        for (FullTicket row : rows) {
+            if (!Objects.equals(row.getNextId(), relinking.nextId(row.getId()))) {
+                row.setNextId(null);
+            }
+        }
+        this.ticketRepository.flush();
+        for (FullTicket row : rows) {
+            row.setNextId(relinking.nextId(row.getId()));
+            row.setStatus(relinking.status(row.getId()));
+        }
+        this.ticketRepository.flush();
+    }
+
+    @Override
+    public FullTicket findLast(String boardId, TicketStatus ticketStatus, FullTicket committedTail) {
+        if (committedTail != null) {
+            // a primary key lookup confirms the tail, the row is loaded for the append anyway
+            FullTicket current = this.ticketRepository.findById(committedTail.getId()).orElse(null);
+            if (current != null && ticketStatus.equals(current.getStatus()) && current.getNextId() == null) {
+                return current;
+            }
+        }
+        return this.ticketRepository.findByBoardIdAndStatusAndNextIdIsNull(boardId, ticketStatus);
+    }
+
+    @Override
+    public Map<TicketStatus, List<FullTicket>> readBoard(String boardId) {
+        return BoardAssembler.assemble(this.ticketRepository.findByBoardId(boardId));
+    }
+
+    @Override
+    public Stream<FullTicket> streamColumn(String boardId, TicketStatus ticketStatus) {
+        return this.ticketRepository.streamChain(boardId, ticketStatus.ordinal(), this.ticketRepository.countByBoardIdAndStatus(boardId, ticketStatus));
+    }
+
+    @Override
+    public List<FullTicket> readWindow(String boardId, TicketStatus ticketStatus, FullTicket after, int count) {
+        if (after == null) {
+            return this.ticketRepository.findChainFromRoot(boardId, ticketStatus.ordinal(), count);
+        }
+        return this.ticketRepository.findChainAfter(after.getId(), count);
+    }
+
+    @Override
+    public List<FullTicket> sort(TicketStatus ticketStatus, Collection<FullTicket> column) {
+        return BoardAssembler.column(ticketStatus, column);
+    }
+
+    @Override
+    public List<FullTicket> sort(TicketStatus ticketStatus, Map<String, FullTicket> columnById) {
+        return BoardAssembler.column(ticketStatus, columnById);
+    }
+
+    @Override
+    public boolean splice(List<FullTicket> column, List<FullTicket> changed) {
+        return BoardAssembler.splice(column, changed);
+    }
+
+    /**
+     * Moves applied to a view of the board without touching it: only the pointers that changed are kept,
+     * everything else is read from the view, so a move costs the same however long its columns are.
+     */
+    private static class Relinking {
+
+        private final BoardSnapshot view;
+
+        private final Map<String, FullTicket> byId = new HashMap<>();
+
+        private final Map<String, String> nextIds = new HashMap<>();
+
+        private final Map<String, String> previousIds = new HashMap<>();
+
+        private final Map<String, TicketStatus> statuses = new HashMap<>();
+
+        private Relinking(BoardSnapshot view) {
+            this.view = view;
+        }
+
+        // the same steps moveAfter takes on the rows
+        void moveAfter(String movedId, String afterThisOneId) {
+            if (movedId.equals(afterThisOneId)) {
+                return;
+            }
+            String leftNeighborId = previousId(movedId);
+            if (afterThisOneId.equals(leftNeighborId)) {
+                return;
+            }
+
+            String previousNextId = nextId(movedId);
+            String newNextId = nextId(afterThisOneId);
+            if (leftNeighborId != null) {
+                this.nextIds.put(leftNeighborId, previousNextId);
+            }
+            if (previousNextId != null) {
+                this.previousIds.put(previousNextId, leftNeighborId);
+            }
+
+            this.nextIds.put(afterThisOneId, movedId);
+            this.previousIds.put(movedId, afterThisOneId);
+            this.nextIds.put(movedId, newNextId);
+            if (newNextId != null) {
+                this.previousIds.put(newNextId, movedId);
+            }
+            this.statuses.put(movedId, status(afterThisOneId));
+        }
+
+        // tickets whose nextId or status ended up different, as the view has them
+        Map<String, FullTicket> changed() {
+            Map<String, FullTicket> changed = new HashMap<>();
+            Set<String> touched = new HashSet<>(this.nextIds.keySet());
+            touched.addAll(this.statuses.keySet());
+            for (String id : touched) {
+                FullTicket ticket = ticket(id);
+                if (!Objects.equals(ticket.getNextId(), nextId(id)) || ticket.getStatus() != status(id)) {
+                    changed.put(id, ticket);
+                }
+            }
+            return changed;
+        }
+
+        String nextId(String id) {
+            return this.nextIds.containsKey(id) ? this.nextIds.get(id) : ticket(id).getNextId();
+        }
+
+        TicketStatus status(String id) {
+            return this.statuses.containsKey(id) ? this.statuses.get(id) : ticket(id).getStatus();
+        }
+
+        private String previousId(String id) {
+            if (this.previousIds.containsKey(id)) {
+                return this.previousIds.get(id);
+            }
+            FullTicket ticket = ticket(id);
+            int position = this.view.position(ticket.getStatus(), id);
+            return position > 0 ? this.view.getColumns().get(ticket.getStatus()).get(position - 1).getId() : null;
+        }
+
+        private FullTicket ticket(String id) {
+            return this.byId.computeIfAbsent(id, key -> {
+                for (TicketStatus ticketStatus : this.view.getColumns().keySet()) {
+                    Integer position = this.view.position(ticketStatus, key);
+                    if (position != null) {
+                        return this.view.getColumns().get(ticketStatus).get(position);
+                    }
+                }
+                throw new IllegalStateException("Ticket " + key + " is not in the columns read for the move");
+            });
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.kanbanboardbackend.services;
+
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.MoveRequest;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.repository.TicketRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Orders every column by a gapped {@code rank} key, so a move rewrites only the moved ticket
+ * and a column is read with a single {@code ORDER BY rank} query.
+ * A unique index on {@code (board_id, status, rank_key)} makes two placements into the same gap conflict.
+ */
+@Component
+@ConditionalOnProperty(name = "kanban.ordering.mode", havingValue = "rank")
+public class RankTicketOrdering implements TicketOrdering {
+
+    static final long RANK_GAP = 1L << 32;
+
+    // once the space left between two neighbours drops below this, the column gets rebalanced in the background
+    static final long MIN_GAP = 1L << 8;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    // giving ranks to the tickets of linked mode drops their nextId links, so it is only done when asked for
+    @Value("${kanban.ordering.migrate-to-rank:false}")
+    private boolean migrateToRank;
+
+    private final Set<BoardColumn> pendingRebalance = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public FullTicket append(FullTicket newTicket, FullTicket lastTicket) {
+        newTicket.setRank(lastTicket != null ? lastTicket.getRank() + RANK_GAP : 0L);
+        return this.ticketRepository.save(newTicket);
+    }
+
+    @Override
+    public List<FullTicket> appendAll(List<FullTicket> newTickets, FullTicket lastTicket) {
+        long rank = lastTicket != null ? lastTicket.getRank() + RANK_GAP : 0L;
+        for (FullTicket newTicket : newTickets) {
+            newTicket.setRank(rank);
+            rank += RANK_GAP;
+        }
+        return this.ticketRepository.saveAll(newTickets);
+    }
+
+    @Override
+    public void remove(FullTicket ticket) {
+        // removing a ticket leaves its neighbours' ranks untouched
+        this.ticketRepository.delete(ticket);
+    }
+
+    @Override
+    public void moveAfter(FullTicket movedTicket, FullTicket afterThisOne) {
+
+        if (movedTicket.getId().equals(afterThisOne.getId())) {
+            return;
+        }
+
+        // status and rank change together, the queries below flush the moved ticket and its old rank may be taken in the new column
+        FullTicket rightNeighbor = findRightNeighbor(movedTicket, afterThisOne);
+        if (rightNeighbor != null && rightNeighbor.getRank() - afterThisOne.getRank() < 2) {
+            // no room left between the neighbours, spread the column out before placing the ticket
+            rebalance(afterThisOne.getBoardId(), afterThisOne.getStatus());
+            rightNeighbor = findRightNeighbor(movedTicket, afterThisOne);
+        }
+
+        movedTicket.setStatus(afterThisOne.getStatus());
+        if (rightNeighbor == null) {
+            movedTicket.setRank(afterThisOne.getRank() + RANK_GAP);
+        } else {
+            long gap = rightNeighbor.getRank() - afterThisOne.getRank();
+            movedTicket.setRank(afterThisOne.getRank() + gap / 2);
+            if (gap / 2 < MIN_GAP) {
+                this.pendingRebalance.add(new BoardColumn(afterThisOne.getBoardId(), afterThisOne.getStatus()));
+            }
+        }
+        this.ticketRepository.save(movedTicket);
+    }
+
+    @Override
+    public void moveAll(List<MoveRequest> moves, BoardSnapshot view) {
+        // a rank move writes only the moved row anyway, a ticket moved twice is written once at flush
+        for (MoveRequest move : moves) {
+            moveAfter(this.ticketRepository.getById(move.getMovedTicketId()), this.ticketRepository.getById(move.getAfterThisOneId()));
+        }
+    }
+
+    @Override
+    public FullTicket findLast(String boardId, TicketStatus ticketStatus, FullTicket committedTail) {
+        // the (board, status, rank) index finds the last rank directly, a remembered tail could not be confirmed any cheaper
+        return this.ticketRepository.findFirstByBoardIdAndStatusOrderByRankDesc(boardId, ticketStatus);
+    }
+
+    @Override
+    public Map<TicketStatus, List<FullTicket>> readBoard(String boardId) {
+        return Map.of(
+                TicketStatus.toDo, this.ticketRepository.findByBoardIdAndStatusOrderByRankAsc(boardId, TicketStatus.toDo),
+                TicketStatus.toTest, this.ticketRepository.findByBoardIdAndStatusOrderByRankAsc(boardId, TicketStatus.toTest),
+                TicketStatus.done, this.ticketRepository.findByBoardIdAndStatusOrderByRankAsc(boardId, TicketStatus.done)
+        );
+    }
+
+    @Override
+    public Stream<FullTicket> streamColumn(String boardId, TicketStatus ticketStatus) {
+        return this.ticketRepository.streamByBoardIdAndStatusOrderByRankAsc(boardId, ticketStatus);
+    }
+
+    @Override
+    public List<FullTicket> readWindow(String boardId, TicketStatus ticketStatus, FullTicket after, int count) {
+        if (after == null) {
+            return this.ticketRepository.findByBoardIdAndStatusOrderByRankAsc(boardId, ticketStatus, PageRequest.of(0, count));
+        }
+        return this.ticketRepository.findByBoardIdAndStatusAndRankGreaterThanOrderByRankAsc(boardId, ticketStatus, after.getRank(), PageRequest.of(0, count));
+    }
+
+    @Override
+    public List<FullTicket> sort(TicketStatus ticketStatus, Collection<FullTicket> column) {
+        var sorted = new ArrayList<>(column);
+        sorted.sort(Comparator.comparing(FullTicket::getRank, Comparator.nullsLast(Comparator.naturalOrder())));
+        return sorted;
+    }
+
+    @Override
+    public boolean splice(List<FullTicket> column, List<FullTicket> changed) {
+        for (FullTicket ticket : changed) {
+            if (ticket.getRank() == null) {
+                return false;
+            }
+            int low = 0;
+            int high = column.size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                Long rank = column.get(middle).getRank();
+                if (rank == null) {
+                    return false;
+                }
+                if (rank < ticket.getRank()) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            // a rank is unique in its column, a ticket still holding it means an earlier commit has not arrived yet
+            if (low < column.size() && ticket.getRank().equals(column.get(low).getRank())) {
+                return false;
+            }
+            column.add(low, ticket);
+        }
+        return true;
+    }
+
+    /**
+     * Reassigns evenly spaced ranks to a column of a board, keeping its current order.
+     */
+    @Transactional
+    public void rebalance(String boardId, TicketStatus ticketStatus) {
+        this.pendingRebalance.remove(new BoardColumn(boardId, ticketStatus));
+        assignRanks(this.ticketRepository.findByBoardIdAndStatusOrderByRankAsc(boardId, ticketStatus));
+    }
+
+    /**
+     * Columns whose gaps got too small, to be rebalanced in the background.
+     */
+    public Set<BoardColumn> getPendingRebalances() {
+        return Set.copyOf(this.pendingRebalance);
+    }
+
+    /**
+     * Finds the columns whose ranks got too close before a restart, the columns that were waiting for a rebalance then.
+     */
+    public void findPendingRebalances() {
+        for (Object[] column : this.ticketRepository.findColumnsWithRankGapBelow(MIN_GAP)) {
+            this.pendingRebalance.add(new BoardColumn((String) column[0], TicketStatus.values()[((Number) column[1]).intValue()]));
+        }
+    }
+
+    /**
+     * Gives rank keys to tickets that were created while the board was linked through {@code nextId},
+     * walking each chain from its root so the visible order is preserved.
+     * This is a one-way migration, only done with {@code kanban.ordering.migrate-to-rank=true}: it drops the
+     * {@code nextId} links, and moves in rank mode do not keep them, so the board cannot go back to linked mode.
+     */
+    @Transactional
+    public void backfill() {
+        if (!this.ticketRepository.existsByRankIsNull()) {
+            return;
+        }
+        if (!this.migrateToRank) {
+            throw new IllegalStateException("There are tickets without a rank, ordered through nextId in linked mode. "
+                    + "Set kanban.ordering.migrate-to-rank=true to rank them, which cannot be undone, or go back to kanban.ordering.mode=linked");
+        }
+
+        Map<String, List<FullTicket>> byBoard = new HashMap<>();
+        this.ticketRepository.findAll().forEach(ticket -> byBoard.computeIfAbsent(ticket.getBoardId(), boardId -> new ArrayList<>()).add(ticket));
+        for (List<FullTicket> rows : byBoard.values()) {
+            Map<TicketStatus, List<FullTicket>> board = BoardAssembler.assemble(rows);
+            for (TicketStatus ticketStatus : TicketStatus.values()) {
+                List<FullTicket> column = board.get(ticketStatus);
+                column.forEach(ticket -> ticket.setNextId(null));
+                assignRanks(column);
+            }
+        }
+    }
+
+    // the unique index is checked row by row, so the tickets that get a new rank step aside to negative ones first
+    private void assignRanks(List<FullTicket> column) {
+        List<FullTicket> reranked = new ArrayList<>();
+        List<Long> ranks = new ArrayList<>();
+        long rank = 0L;
+        for (FullTicket ticket : column) {
+            if (!Long.valueOf(rank).equals(ticket.getRank())) {
+                reranked.add(ticket);
+                ranks.add(rank);
+            }
+            rank += RANK_GAP;
+        }
+        if (reranked.isEmpty()) {
+            return;
+        }
+
+        for (int i = 0; i < reranked.size(); i++) {
+            reranked.get(i).setRank(-1L - i);
+        }
+        this.ticketRepository.saveAllAndFlush(reranked);
+        for (int i = 0; i < reranked.size(); i++) {
+            reranked.get(i).setRank(ranks.get(i));
+        }
+        this.ticketRepository.saveAll(reranked);
+    }
+
+    private FullTicket findRightNeighbor(FullTicket movedTicket, FullTicket afterThisOne) {
+        return this.ticketRepository.findFirstByBoardIdAndStatusAndRankGreaterThanAndIdNotOrderByRankAsc(
+                afterThisOne.getBoardId(), afterThisOne.getStatus(), afterThisOne.getRank(), movedTicket.getId());
+    }
+}
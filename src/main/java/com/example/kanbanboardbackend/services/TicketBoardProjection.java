@@ -0,0 +1,424 @@
+package com.example.kanbanboardbackend.services;
+
+import com.example.kanbanboardbackend.cluster.ClusterBus;
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.BoardChange;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.TicketChangeSet;
+import com.example.kanbanboardbackend.model.TicketDelta;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.model.TicketView;
+import com.example.kanbanboardbackend.repository.BoardRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Committed state of every board kept in memory, one ordered list per column.
+ * Built from the repository on startup and then kept up to date from the {@link TicketChangeSet} of every commit,
+ * splicing the tickets it wrote into their columns next to their neighbours; a column is only sorted as a whole when
+ * they do not fit. Published columns are never changed in place, a change swaps in new lists.
+ * Every board is projected on its own, under its own lock and with its own version, so a commit to one board
+ * neither waits for nor invalidates any other.
+ * <p>
+ * In a cluster the version of a board is the number the {@link ClusterBus} gave its last commit, and commits are applied
+ * in that order: one that gets here before an earlier one waits for it. Every node then has the same board at the same
+ * version, and the ETags and event ids of one are good on the others.
+ */
+@Slf4j
+@Component
+public class TicketBoardProjection {
+
+    static final String INTEGRITY_FAILURES = "kanban.board.integrity.failures";
+
+    // commits whose tickets could not be spliced into their columns, which were sorted as a whole instead
+    static final String RESORTS = "kanban.board.projection.resorts";
+
+    @Autowired
+    private TicketOrdering ticketOrdering;
+
+    @Autowired
+    private BoardRepository boardRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // the bus needs this projection to apply what it carries
+    @Autowired
+    private ObjectProvider<ClusterBus> clusterBus;
+
+    // versions start over on every restart, the epoch keeps a version from a previous run from matching
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+
+    private final Map<String, BoardProjection> boards = new ConcurrentHashMap<>();
+
+    // the board of every projected ticket, a deleted ticket comes only with its id
+    private final Map<String, String> boardIdByTicket = new ConcurrentHashMap<>();
+
+    // commits before startup are part of what the first build reads
+    private volatile boolean started;
+
+    public String getEpoch() {
+        ClusterBus bus = this.clusterBus.getIfAvailable();
+        return bus != null ? bus.getEpoch() : this.epoch;
+    }
+
+    public boolean isReady(String boardId) {
+        return getSnapshot(boardId) != null;
+    }
+
+    public BoardSnapshot getSnapshot(String boardId) {
+        BoardProjection board = this.boards.get(boardId);
+        return board != null ? board.snapshot : null;
+    }
+
+    public Map<TicketStatus, List<FullTicket>> getColumns(String boardId) {
+        BoardSnapshot current = getSnapshot(boardId);
+        return current != null ? current.getColumns() : null;
+    }
+
+    // rows of a column on all boards, NaN while no board is projected
+    public double countRows(TicketStatus ticketStatus) {
+        double rows = Double.NaN;
+        for (BoardProjection board : this.boards.values()) {
+            double boardRows = board.countRows(ticketStatus);
+            if (!Double.isNaN(boardRows)) {
+                rows = Double.isNaN(rows) ? boardRows : rows + boardRows;
+            }
+        }
+        return rows;
+    }
+
+    // tickets reachable in the list of a column on all boards, NaN while no board is projected
+    public double columnLength(TicketStatus ticketStatus) {
+        double length = Double.NaN;
+        for (BoardProjection board : this.boards.values()) {
+            BoardSnapshot current = board.snapshot;
+            if (current != null) {
+                length = (Double.isNaN(length) ? 0 : length) + current.getColumns().get(ticketStatus).size();
+            }
+        }
+        return length;
+    }
+
+    /**
+     * The last committed ticket of a column, or null while there is no projection of the board.
+     */
+    public FullTicket getLast(String boardId, TicketStatus ticketStatus) {
+        var columns = getColumns(boardId);
+        if (columns == null || columns.get(ticketStatus).isEmpty()) {
+            return null;
+        }
+        List<FullTicket> column = columns.get(ticketStatus);
+        return column.get(column.size() - 1);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        this.started = true;
+        for (Board board : this.boardRepository.findAll()) {
+            rebuild(board.getId());
+        }
+    }
+
+    public void rebuild(String boardId) {
+        BoardProjection board = this.boards.computeIfAbsent(boardId, BoardProjection::new);
+        board.lock.lock();
+        try {
+            board.rebuild();
+        } finally {
+            board.lock.unlock();
+        }
+    }
+
+    @EventListener
+    public void apply(TicketChangeSet changes) {
+        if (!this.started) {
+            return;
+        }
+
+        Map<String, Set<String>> removedByBoard = new HashMap<>();
+        Map<String, List<FullTicket>> changedByBoard = new HashMap<>();
+        for (String id : changes.getRemovedIds()) {
+            String boardId = this.boardIdByTicket.get(id);
+            if (boardId != null) {
+                removedByBoard.computeIfAbsent(boardId, key -> new HashSet<>()).add(id);
+            }
+        }
+        for (FullTicket ticket : changes.getChanged()) {
+            changedByBoard.computeIfAbsent(ticket.getBoardId(), key -> new ArrayList<>()).add(ticket);
+        }
+
+        Set<String> touchedBoards = new HashSet<>(removedByBoard.keySet());
+        touchedBoards.addAll(changedByBoard.keySet());
+        for (String boardId : touchedBoards) {
+            BoardProjection board = this.boards.computeIfAbsent(boardId, BoardProjection::new);
+            board.lock.lock();
+            try {
+                if (board.snapshot == null) {
+                    // a board created since startup, or one that could not be read before: what just committed is in the repository
+                    board.rebuild();
+                } else {
+                    board.receive(removedByBoard.getOrDefault(boardId, Set.of()), changedByBoard.getOrDefault(boardId, List.of()),
+                            changes.getSequences().get(boardId));
+                }
+            } finally {
+                board.lock.unlock();
+            }
+        }
+    }
+
+    private class BoardProjection {
+
+        private final String boardId;
+
+        // not a monitor: a rebuild reads the database while holding it, which would pin a virtual thread to its carrier
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private volatile BoardSnapshot snapshot;
+
+        private long version;
+
+        private final Map<TicketStatus, Map<String, FullTicket>> rows = new EnumMap<>(TicketStatus.class);
+
+        private final Map<String, TicketStatus> statusById = new HashMap<>();
+
+        // in a cluster, commits that got here before one numbered earlier
+        private final SortedMap<Long, TicketChangeSet> waiting = new TreeMap<>();
+
+        private BoardProjection(String boardId) {
+            this.boardId = boardId;
+        }
+
+        private double countRows(TicketStatus ticketStatus) {
+            this.lock.lock();
+            try {
+                return this.snapshot != null ? this.rows.get(ticketStatus).size() : Double.NaN;
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        private void rebuild() {
+            ClusterBus bus = clusterBus.getIfAvailable();
+            // read before the board, every commit numbered up to it is in what is read; a later one is applied again
+            long version = bus != null ? Math.max(bus.sequence(this.boardId), this.version) : this.version + 1;
+            Map<TicketStatus, List<FullTicket>> board;
+            try {
+                board = ticketOrdering.readBoard(this.boardId);
+            } catch (IllegalStateException e) {
+                // reads of this board keep going to the repository until it can be read again
+                log.error("Could not build the projection of board {}", this.boardId, e);
+                meterRegistry.counter(INTEGRITY_FAILURES, "source", "rebuild").increment();
+                this.snapshot = null;
+                return;
+            }
+
+            this.statusById.keySet().forEach(boardIdByTicket::remove);
+            this.rows.clear();
+            this.statusById.clear();
+            Map<TicketStatus, List<FullTicket>> columns = new EnumMap<>(TicketStatus.class);
+            for (TicketStatus ticketStatus : TicketStatus.values()) {
+                Map<String, FullTicket> column = new HashMap<>();
+                for (FullTicket ticket : board.get(ticketStatus)) {
+                    column.put(ticket.getId(), ticket);
+                    this.statusById.put(ticket.getId(), ticketStatus);
+                    boardIdByTicket.put(ticket.getId(), this.boardId);
+                }
+                this.rows.put(ticketStatus, column);
+                columns.put(ticketStatus, List.copyOf(board.get(ticketStatus)));
+            }
+            publish(columns, EnumSet.allOf(TicketStatus.class), null, version);
+            eventPublisher.publishEvent(new BoardChange(this.boardId, getEpoch(), this.version, List.of(), true));
+            applyWaiting();
+        }
+
+        private void receive(Set<String> removedIds, List<FullTicket> changed, Long sequence) {
+            if (clusterBus.getIfAvailable() == null) {
+                apply(removedIds, changed, this.version + 1);
+            } else if (sequence == null) {
+                // written without going through the bus, there is no telling where it belongs
+                rebuild();
+            } else if (sequence > this.version + 1) {
+                // an earlier commit to this board is still on its way, it has committed already
+                this.waiting.put(sequence, new TicketChangeSet(changed, removedIds));
+            } else if (sequence == this.version + 1) {
+                apply(removedIds, changed, sequence.longValue());
+                applyWaiting();
+            }
+            // anything older is in the board already
+        }
+
+        private void applyWaiting() {
+            this.waiting.headMap(this.version + 1).clear();
+            TicketChangeSet next;
+            while (this.snapshot != null && (next = this.waiting.remove(this.version + 1)) != null) {
+                apply(next.getRemovedIds(), new ArrayList<>(next.getChanged()), this.version + 1);
+            }
+        }
+
+        private void apply(Set<String> removedIds, List<FullTicket> changed, long version) {
+            Set<TicketStatus> touched = EnumSet.noneOf(TicketStatus.class);
+            List<FullTicket> removed = new ArrayList<>(removedIds.size());
+            Map<FullTicket, FullTicket> previousById = new LinkedHashMap<>();
+            // tickets that are no longer where they were in their column
+            Set<String> leaving = new HashSet<>();
+            for (String id : removedIds) {
+                TicketStatus ticketStatus = this.statusById.remove(id);
+                if (ticketStatus != null) {
+                    removed.add(this.rows.get(ticketStatus).remove(id));
+                    boardIdByTicket.remove(id);
+                    leaving.add(id);
+                    touched.add(ticketStatus);
+                }
+            }
+            Map<TicketStatus, List<FullTicket>> arriving = new EnumMap<>(TicketStatus.class);
+            for (FullTicket ticket : changed) {
+                TicketStatus previousStatus = this.statusById.get(ticket.getId());
+                FullTicket previous = null;
+                if (previousStatus != null) {
+                    previous = this.rows.get(previousStatus).get(ticket.getId());
+                    if (isOlder(ticket, previous)) {
+                        // a later commit of this row got here first
+                        continue;
+                    }
+                    this.rows.get(previousStatus).remove(ticket.getId());
+                    leaving.add(ticket.getId());
+                    touched.add(previousStatus);
+                }
+                previousById.put(ticket, previous);
+                arriving.computeIfAbsent(ticket.getStatus(), key -> new ArrayList<>()).add(ticket);
+                this.rows.get(ticket.getStatus()).put(ticket.getId(), ticket);
+                this.statusById.put(ticket.getId(), ticket.getStatus());
+                boardIdByTicket.put(ticket.getId(), this.boardId);
+                touched.add(ticket.getStatus());
+            }
+
+            BoardSnapshot before = this.snapshot;
+            if (touched.isEmpty()) {
+                if (clusterBus.getIfAvailable() != null) {
+                    // the number is taken all the same
+                    publish(new EnumMap<>(before.getColumns()), touched, before, version);
+                    eventPublisher.publishEvent(new BoardChange(this.boardId, getEpoch(), this.version, List.of(), false));
+                }
+                return;
+            }
+
+            Map<TicketStatus, List<FullTicket>> columns = new EnumMap<>(before.getColumns());
+            // the ticket each leaving one came after
+            Map<String, String> previousIds = new HashMap<>();
+            try {
+                for (TicketStatus ticketStatus : touched) {
+                    List<FullTicket> column = without(before.getColumns().get(ticketStatus), leaving, previousIds);
+                    if (!ticketOrdering.splice(column, arriving.getOrDefault(ticketStatus, List.of()))) {
+                        // commits of different transactions can arrive out of order, the rows they left still have an order
+                        Map<String, FullTicket> rows = this.rows.get(ticketStatus);
+                        column = ticketOrdering.sort(ticketStatus, rows);
+                        if (column.size() != rows.size()) {
+                            throw new IllegalStateException(rows.size() - column.size() + " tickets with status " + ticketStatus + " are not reachable");
+                        }
+                        meterRegistry.counter(RESORTS).increment();
+                    }
+                    columns.put(ticketStatus, Collections.unmodifiableList(column));
+                }
+            } catch (IllegalStateException e) {
+                // start over from what the repository has
+                log.warn("Could not order the projection of board {} after a commit, rebuilding it: {}", this.boardId, e.getMessage());
+                meterRegistry.counter(INTEGRITY_FAILURES, "source", "commit").increment();
+                rebuild();
+                return;
+            }
+
+            publish(columns, touched, before, version);
+            eventPublisher.publishEvent(new BoardChange(this.boardId, getEpoch(), this.version, deltas(columns, touched, removed, previousById, previousIds), false));
+        }
+
+        // the rest of a column in order, noting where each ticket taken out of it was
+        private List<FullTicket> without(List<FullTicket> column, Set<String> leaving, Map<String, String> previousIds) {
+            List<FullTicket> rest = new ArrayList<>(column.size() + 1);
+            for (int i = 0; i < column.size(); i++) {
+                String id = column.get(i).getId();
+                if (leaving.contains(id)) {
+                    previousIds.put(id, i > 0 ? column.get(i - 1).getId() : null);
+                } else {
+                    rest.add(column.get(i));
+                }
+            }
+            return rest;
+        }
+
+        // only what a client sees: tickets whose text changed or that ended up in another place, not rows whose nextId was rewired
+        private List<TicketDelta> deltas(Map<TicketStatus, List<FullTicket>> columns, Set<TicketStatus> touched, List<FullTicket> removed,
+                                         Map<FullTicket, FullTicket> previousById, Map<String, String> previousIds) {
+            Map<String, Integer> positions = new HashMap<>();
+            for (FullTicket ticket : previousById.keySet()) {
+                positions.put(ticket.getId(), null);
+            }
+            for (TicketStatus ticketStatus : touched) {
+                List<FullTicket> column = columns.get(ticketStatus);
+                for (int i = 0; i < column.size(); i++) {
+                    if (positions.containsKey(column.get(i).getId())) {
+                        positions.put(column.get(i).getId(), i);
+                    }
+                }
+            }
+
+            List<TicketDelta> deltas = new ArrayList<>(removed.size() + previousById.size());
+            for (FullTicket ticket : removed) {
+                deltas.add(new TicketDelta(TicketDelta.Type.deleted, ticket.getId(), ticket.getStatus(), null, null, null));
+            }
+            for (Map.Entry<FullTicket, FullTicket> entry : previousById.entrySet()) {
+                FullTicket ticket = entry.getKey();
+                FullTicket previous = entry.getValue();
+                List<FullTicket> column = columns.get(ticket.getStatus());
+                Integer position = positions.get(ticket.getId());
+                String previousId = position != null && position > 0 ? column.get(position - 1).getId() : null;
+
+                TicketDelta.Type type;
+                if (previous == null) {
+                    type = TicketDelta.Type.created;
+                } else if (previous.getStatus() != ticket.getStatus() || !Objects.equals(previousId, previousIds.get(ticket.getId()))) {
+                    type = TicketDelta.Type.moved;
+                } else if (!Objects.equals(previous.getTitle(), ticket.getTitle()) || !Objects.equals(previous.getContent(), ticket.getContent())) {
+                    type = TicketDelta.Type.updated;
+                } else {
+                    continue;
+                }
+                deltas.add(new TicketDelta(type, ticket.getId(), ticket.getStatus(), TicketView.of(ticket), previousId,
+                        position != null && position + 1 < column.size() ? column.get(position + 1).getId() : null));
+            }
+            return deltas;
+        }
+
+        private void publish(Map<TicketStatus, List<FullTicket>> columns, Set<TicketStatus> touched, BoardSnapshot before, long version) {
+            // the columns a change left as they were keep the positions indexed so far
+            Map<TicketStatus, Map<String, Integer>> positions = new EnumMap<>(TicketStatus.class);
+            if (before != null) {
+                before.indexedPositions().forEach((ticketStatus, columnPositions) -> {
+                    if (!touched.contains(ticketStatus)) {
+                        positions.put(ticketStatus, columnPositions);
+                    }
+                });
+            }
+            this.version = version;
+            this.snapshot = new BoardSnapshot(version, Collections.unmodifiableMap(columns), positions);
+        }
+    }
+
+    private static boolean isOlder(FullTicket ticket, FullTicket previous) {
+        return previous != null && ticket.getVersion() != null && previous.getVersion() != null
+                && ticket.getVersion() < previous.getVersion();
+    }
+}
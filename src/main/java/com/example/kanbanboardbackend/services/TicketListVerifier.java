@@ -0,0 +1,400 @@
+package com.example.kanbanboardbackend.services;
+
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.ColumnIntegrity;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.IntegrityReport;
+import com.example.kanbanboardbackend.model.TicketIdGenerator;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.repository.BoardRepository;
+import com.example.kanbanboardbackend.repository.TicketCache;
+import com.example.kanbanboardbackend.repository.TicketRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Checks the nextId lists of every column in one pass over its rows, so a broken list is found before the board
+ * projection tries to walk it: a missing or second root, a cycle, tickets no chain reaches, more than one tail,
+ * two tickets pointing at the same one and pointers leaving the column.
+ * A repair keeps the chain reachable from the root in its order and relinks every orphan behind its tail,
+ * runs of orphans that still point at each other staying together.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "kanban.ordering.mode", havingValue = "linked", matchIfMissing = true)
+public class TicketListVerifier {
+
+    static final String PROBLEMS = "kanban.board.integrity.problems";
+
+    static final String RELINKED = "kanban.board.integrity.relinked";
+
+    static final String VERIFICATION = "kanban.board.integrity.verification";
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TicketCache ticketCache;
+
+    @Autowired
+    private BoardRepository boardRepository;
+
+    @Autowired
+    private ColumnLocks columnLocks;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TicketBoardProjection boardProjection;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${kanban.integrity.verify-on-startup:true}")
+    private boolean verifyOnStartup;
+
+    @Value("${kanban.integrity.repair-on-startup:false}")
+    private boolean repairOnStartup;
+
+    // each column is read on its own connection, keep it below the connection pool
+    @Value("${kanban.integrity.parallelism:4}")
+    private int parallelism;
+
+    // what the last check found, by problem
+    private final Map<String, AtomicLong> problems = new LinkedHashMap<>();
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void registerGauges() {
+        for (String problem : List.of("brokenColumns", "missingRoots", "cycles", "orphans", "tails", "duplicatePredecessors", "danglingPointers")) {
+            this.problems.put(problem, this.meterRegistry.gauge(PROBLEMS, List.of(Tag.of("problem", problem)), new AtomicLong()));
+        }
+        this.executor = Executors.newFixedThreadPool(Math.max(1, this.parallelism), runnable -> {
+            Thread thread = new Thread(runnable, "ticket-list-verifier");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        this.executor.shutdownNow();
+    }
+
+    // after the event log has recovered the database, before the board projection walks the lists
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifyOnStartup() {
+        if (!this.verifyOnStartup) {
+            return;
+        }
+        IntegrityReport report = verifyAll();
+        for (ColumnIntegrity column : report.getColumns()) {
+            if (!column.isIntact()) {
+                log.error("Broken ticket list: {}", column);
+            }
+        }
+        if (this.repairOnStartup && !report.isIntact()) {
+            IntegrityReport repaired = repairAll();
+            log.warn("Repaired the ticket lists on startup, {} tickets relinked", repaired.getRelinked());
+        }
+    }
+
+    /**
+     * Checks every column of every board, several columns at a time.
+     */
+    public IntegrityReport verifyAll() {
+        List<BoardColumn> columns = new ArrayList<>();
+        for (Board board : this.boardRepository.findAll()) {
+            for (TicketStatus ticketStatus : TicketStatus.values()) {
+                columns.add(new BoardColumn(board.getId(), ticketStatus));
+            }
+        }
+        return record(verify(columns));
+    }
+
+    public IntegrityReport verify(String boardId) {
+        List<BoardColumn> columns = new ArrayList<>();
+        for (TicketStatus ticketStatus : TicketStatus.values()) {
+            columns.add(new BoardColumn(boardId, ticketStatus));
+        }
+        return new IntegrityReport(verify(columns), 0);
+    }
+
+    /**
+     * Repairs every board with a broken column. The report has the columns as they were found.
+     */
+    public IntegrityReport repairAll() {
+        List<ColumnIntegrity> found = new ArrayList<>();
+        int relinked = 0;
+        for (Board board : this.boardRepository.findAll()) {
+            IntegrityReport repaired = repair(board.getId());
+            found.addAll(repaired.getColumns());
+            relinked += repaired.getRelinked();
+        }
+        verifyAll();
+        return new IntegrityReport(found, relinked);
+    }
+
+    /**
+     * Relinks the columns of one board, holding all of its column locks, and rebuilds its projection afterwards.
+     * Nothing is written when every column is intact.
+     */
+    public IntegrityReport repair(String boardId) {
+        IntegrityReport report;
+        try (ColumnLocks.Held held = this.columnLocks.lock(boardId, TicketStatus.values())) {
+            // whatever broke the lists most likely wrote around Hibernate, so nothing cached is trusted
+            this.ticketCache.evictAll();
+            report = this.transactionTemplate.execute(status -> relink(boardId));
+        }
+        if (report.getRelinked() > 0) {
+            this.meterRegistry.counter(RELINKED).increment(report.getRelinked());
+            this.boardProjection.rebuild(boardId);
+        }
+        return report;
+    }
+
+    private List<ColumnIntegrity> verify(List<BoardColumn> columns) {
+        Timer.Sample sample = Timer.start(this.meterRegistry);
+        try {
+            List<Future<ColumnIntegrity>> checks = new ArrayList<>(columns.size());
+            for (BoardColumn column : columns) {
+                checks.add(this.executor.submit(() -> inspect(column.getBoardId(), column.getStatus(),
+                        this.ticketRepository.findByBoardIdAndStatus(column.getBoardId(), column.getStatus()))));
+            }
+            List<ColumnIntegrity> results = new ArrayList<>(checks.size());
+            for (Future<ColumnIntegrity> check : checks) {
+                results.add(check.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while checking the ticket lists", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not check the ticket lists", e.getCause());
+        } finally {
+            sample.stop(this.meterRegistry.timer(VERIFICATION));
+        }
+    }
+
+    private IntegrityReport record(List<ColumnIntegrity> columns) {
+        this.problems.get("brokenColumns").set(columns.stream().filter(column -> !column.isIntact()).count());
+        this.problems.get("missingRoots").set(columns.stream().filter(column -> column.getRoots() == 0).count());
+        this.problems.get("cycles").set(columns.stream().mapToLong(ColumnIntegrity::getCycles).sum());
+        this.problems.get("orphans").set(columns.stream().mapToLong(column -> column.getOrphanIds().size()).sum());
+        // tails beyond the one every column has
+        this.problems.get("tails").set(columns.stream().mapToLong(column -> Math.max(0, column.getTails() - 1)).sum());
+        this.problems.get("duplicatePredecessors").set(columns.stream().mapToLong(ColumnIntegrity::getDuplicatePredecessors).sum());
+        this.problems.get("danglingPointers").set(columns.stream().mapToLong(ColumnIntegrity::getDanglingPointers).sum());
+        return new IntegrityReport(columns, 0);
+    }
+
+    private IntegrityReport relink(String boardId) {
+        Map<TicketStatus, List<FullTicket>> byStatus = new EnumMap<>(TicketStatus.class);
+        for (TicketStatus ticketStatus : TicketStatus.values()) {
+            byStatus.put(ticketStatus, new ArrayList<>());
+        }
+        for (FullTicket ticket : this.ticketRepository.findByBoardId(boardId)) {
+            byStatus.get(ticket.getStatus()).add(ticket);
+        }
+
+        List<ColumnIntegrity> found = new ArrayList<>();
+        List<FullTicket> rows = new ArrayList<>();
+        List<FullTicket> newRoots = new ArrayList<>();
+        Map<String, String> nextIds = new HashMap<>();
+        for (TicketStatus ticketStatus : TicketStatus.values()) {
+            List<FullTicket> column = byStatus.get(ticketStatus);
+            ColumnIntegrity integrity = inspect(boardId, ticketStatus, column);
+            found.add(integrity);
+            if (integrity.isIntact()) {
+                continue;
+            }
+            List<FullTicket> order = repairedOrder(boardId, ticketStatus, column);
+            rows.addAll(column);
+            if (order.size() > column.size()) {
+                newRoots.add(order.get(0));
+            }
+            for (int i = 0; i < order.size(); i++) {
+                nextIds.put(order.get(i).getId(), i + 1 < order.size() ? order.get(i + 1).getId() : null);
+            }
+        }
+
+        // only the head of each repaired column stays a root, a second root is relinked as an ordinary ticket
+        Set<String> pointedAt = new HashSet<>(nextIds.values());
+        List<FullTicket> changed = new ArrayList<>();
+        for (FullTicket ticket : rows) {
+            boolean root = !pointedAt.contains(ticket.getId());
+            if (!Objects.equals(ticket.getNextId(), nextIds.get(ticket.getId())) || Boolean.TRUE.equals(ticket.getIsRoot()) != root) {
+                changed.add(ticket);
+            }
+        }
+
+        // every rewritten nextId is cleared first, so the unique index never sees two rows pointing at the same ticket
+        for (FullTicket ticket : changed) {
+            ticket.setNextId(null);
+        }
+        this.ticketRepository.flush();
+        for (FullTicket ticket : changed) {
+            ticket.setNextId(nextIds.get(ticket.getId()));
+            ticket.setIsRoot(!pointedAt.contains(ticket.getId()));
+        }
+        for (FullTicket root : newRoots) {
+            root.setNextId(nextIds.get(root.getId()));
+        }
+        this.ticketRepository.saveAll(newRoots);
+        this.ticketRepository.flush();
+        return new IntegrityReport(found, changed.size() + newRoots.size());
+    }
+
+    /**
+     * One pass over the rows of a column: every ticket is visited a bounded number of times, however the pointers are tangled.
+     */
+    static ColumnIntegrity inspect(String boardId, TicketStatus ticketStatus, List<FullTicket> column) {
+        Map<String, FullTicket> byId = new HashMap<>(column.size() * 4 / 3 + 1);
+        FullTicket root = null;
+        int roots = 0;
+        for (FullTicket ticket : column) {
+            byId.put(ticket.getId(), ticket);
+            if (Boolean.TRUE.equals(ticket.getIsRoot())) {
+                roots++;
+                if (root == null) {
+                    root = ticket;
+                }
+            }
+        }
+
+        Map<String, Integer> predecessors = new HashMap<>(column.size() * 4 / 3 + 1);
+        int tails = 0;
+        int dangling = 0;
+        int duplicatePredecessors = 0;
+        for (FullTicket ticket : column) {
+            String nextId = ticket.getNextId();
+            if (nextId == null) {
+                tails++;
+            } else if (!byId.containsKey(nextId)) {
+                // the chain ends here as far as this column is concerned
+                tails++;
+                dangling++;
+            } else if (predecessors.merge(nextId, 1, Integer::sum) == 2) {
+                duplicatePredecessors++;
+            }
+        }
+
+        // the chain from the root, a ticket seen twice closes a cycle
+        Set<String> reached = new HashSet<>(column.size() * 4 / 3 + 1);
+        int cycles = 0;
+        FullTicket current = root;
+        while (current != null && reached.add(current.getId())) {
+            current = byId.get(current.getNextId());
+        }
+        if (current != null) {
+            cycles++;
+        }
+
+        // cycles among the tickets the root does not reach: every ticket has one successor, so each walk ends
+        // at a ticket seen before, and a ticket seen before on the same walk is on a cycle
+        Map<String, Integer> walkOf = new HashMap<>();
+        int walk = 0;
+        for (FullTicket start : column) {
+            if (reached.contains(start.getId()) || walkOf.containsKey(start.getId())) {
+                continue;
+            }
+            walk++;
+            FullTicket step = start;
+            while (step != null && !reached.contains(step.getId()) && !walkOf.containsKey(step.getId())) {
+                walkOf.put(step.getId(), walk);
+                step = byId.get(step.getNextId());
+            }
+            if (step != null && Integer.valueOf(walk).equals(walkOf.get(step.getId()))) {
+                cycles++;
+            }
+        }
+
+        List<String> orphanIds = column.stream()
+                .map(FullTicket::getId)
+                .filter(id -> !reached.contains(id))
+                .collect(Collectors.toList());
+        return new ColumnIntegrity(boardId, ticketStatus, column.size(), reached.size(), roots, tails, cycles,
+                duplicatePredecessors, dangling, orphanIds);
+    }
+
+    /**
+     * The order a repair gives a column: the chain from its root, then every run of orphans in the order they point at each other.
+     * A column without a root gets a new one in front, which the caller has to save.
+     */
+    static List<FullTicket> repairedOrder(String boardId, TicketStatus ticketStatus, List<FullTicket> column) {
+        Map<String, FullTicket> byId = new HashMap<>(column.size() * 4 / 3 + 1);
+        FullTicket root = null;
+        for (FullTicket ticket : column) {
+            byId.put(ticket.getId(), ticket);
+            if (root == null && Boolean.TRUE.equals(ticket.getIsRoot())) {
+                root = ticket;
+            }
+        }
+        if (root == null) {
+            root = FullTicket.builder()
+                    .id(TicketIdGenerator.newId())
+                    .boardId(boardId)
+                    .title(ticketStatus.name() + "Root")
+                    .content(ticketStatus.name() + "Root")
+                    .status(ticketStatus)
+                    .isRoot(true)
+                    .build();
+        }
+
+        List<FullTicket> order = new ArrayList<>(column.size() + 1);
+        Set<String> placed = new HashSet<>(column.size() * 4 / 3 + 1);
+        for (FullTicket current = root; current != null && placed.add(current.getId()); current = byId.get(current.getNextId())) {
+            order.add(current);
+        }
+
+        // heads of the orphan runs are the orphans no other orphan points at
+        Set<String> pointedAt = new HashSet<>();
+        for (FullTicket ticket : column) {
+            if (!placed.contains(ticket.getId()) && ticket.getNextId() != null) {
+                pointedAt.add(ticket.getNextId());
+            }
+        }
+        for (FullTicket ticket : column) {
+            if (!placed.contains(ticket.getId()) && !pointedAt.contains(ticket.getId())) {
+                appendRun(ticket, byId, placed, order);
+            }
+        }
+        // whatever is left are cycles no chain leads into, each one is cut where the rows happen to start it
+        for (FullTicket ticket : column) {
+            if (!placed.contains(ticket.getId())) {
+                appendRun(ticket, byId, placed, order);
+            }
+        }
+        return order;
+    }
+
+    private static void appendRun(FullTicket head, Map<String, FullTicket> byId, Set<String> placed, List<FullTicket> order) {
+        for (FullTicket current = head; current != null && placed.add(current.getId()); current = byId.get(current.getNextId())) {
+            order.add(current);
+        }
+    }
+}
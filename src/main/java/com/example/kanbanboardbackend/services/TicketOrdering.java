@@ -0,0 +1,77 @@
+package com.example.kanbanboardbackend.services;
+
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.MoveRequest;
+import com.example.kanbanboardbackend.model.TicketStatus;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the tickets of every column of a board in order. Tickets only ever move within their board. Selected with the {@code kanban.ordering.mode} property:
+ * {@code linked} (default) chains tickets through {@code nextId}, {@code rank} gives every ticket a sortable rank key.
+ */
+public interface TicketOrdering {
+
+    /**
+     * Adds a ticket at the end of its column on its board, {@code lastTicket} being what {@link #findLast} returned for that column.
+     */
+    FullTicket append(FullTicket newTicket, FullTicket lastTicket);
+
+    /**
+     * Adds tickets, all of one column, at its end in the given order, writing the current last ticket at most once.
+     */
+    List<FullTicket> appendAll(List<FullTicket> newTickets, FullTicket lastTicket);
+
+    /**
+     * Deletes a ticket and closes the gap it leaves in its column.
+     */
+    void remove(FullTicket ticket);
+
+    void moveAfter(FullTicket movedTicket, FullTicket afterThisOne);
+
+    /**
+     * Applies moves one after another, as {@link #moveAfter} would, and writes every ticket whose place changed once.
+     * {@code view} holds at least the columns of all tickets named in the moves, in board order, as the caller last saw them.
+     */
+    void moveAll(List<MoveRequest> moves, BoardSnapshot view);
+
+    /**
+     * The last ticket of a column of a board. {@code committedTail} is the last ticket the board projection knows of, or null;
+     * an ordering that can confirm it against its own row does so instead of searching the column.
+     */
+    FullTicket findLast(String boardId, TicketStatus ticketStatus, FullTicket committedTail);
+
+    Map<TicketStatus, List<FullTicket>> readBoard(String boardId);
+
+    /**
+     * One column in board order, read from the database as it is consumed. Needs an open transaction and closing.
+     */
+    Stream<FullTicket> streamColumn(String boardId, TicketStatus ticketStatus);
+
+    /**
+     * Up to {@code count} tickets of a column following {@code after}, or from the top when it is null,
+     * reading no more of the column than that.
+     */
+    List<FullTicket> readWindow(String boardId, TicketStatus ticketStatus, FullTicket after, int count);
+
+    /**
+     * Puts the tickets of one column, already in memory, in board order.
+     */
+    List<FullTicket> sort(TicketStatus ticketStatus, Collection<FullTicket> column);
+
+    /**
+     * The same for a column already indexed by id, which an ordering that follows ids can use as it is.
+     */
+    default List<FullTicket> sort(TicketStatus ticketStatus, Map<String, FullTicket> columnById) {
+        return sort(ticketStatus, columnById.values());
+    }
+
+    /**
+     * Puts tickets that changed back into their column, {@code column} holding the rest of it in board order,
+     * each one next to its neighbours. False when they do not fit the rest of the column, which then has to be sorted as a whole.
+     */
+    boolean splice(List<FullTicket> column, List<FullTicket> changed);
+}
@@ -0,0 +1,39 @@
+package com.example.kanbanboardbackend.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "kanban.ordering.mode", havingValue = "rank")
+public class TicketRankRebalancer {
+
+    @Autowired
+    private RankTicketOrdering rankTicketOrdering;
+
+    @Autowired
+    private ColumnLocks columnLocks;
+
+    // runs before the board projection is built from the ranks, and after the event log has recovered the board
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillRanks() {
+        this.rankTicketOrdering.backfill();
+        // which columns were waiting for a rebalance is not kept across restarts, their gaps tell
+        this.rankTicketOrdering.findPendingRebalances();
+    }
+
+    @Scheduled(fixedDelayString = "${kanban.ordering.rebalance-interval-ms:5000}")
+    public void rebalancePendingColumns() {
+        for (BoardColumn column : this.rankTicketOrdering.getPendingRebalances()) {
+            try (ColumnLocks.Held held = this.columnLocks.lock(column.getBoardId(), column.getStatus())) {
+                this.rankTicketOrdering.rebalance(column.getBoardId(), column.getStatus());
+            }
+        }
+    }
+}
@@ -0,0 +1,537 @@
+package com.example.kanbanboardbackend.services;
+
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.TicketChangeSet;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.repository.TicketRepository;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Inverted index over the title and content of every committed ticket, kept in memory with one index per board,
+ * so a search only walks the postings of its own board. The root of a column is not a ticket anyone wrote, so it is left out.
+ * Built from the repository on startup and then kept up to date from the {@link TicketChangeSet} of every commit.
+ * <p>
+ * Every word of a query has to match, the last one also as a prefix so results follow typing.
+ * Hits are ranked by how often the words occur, in the title three times as much as in the content,
+ * weighted by how rare the words are on the board.
+ */
+@Slf4j
+@Component
+public class TicketSearchIndex {
+
+    static final int TITLE_WEIGHT = 3;
+
+    // shorter prefixes would expand to a good part of the dictionary, they only match whole words
+    static final int MIN_PREFIX_LENGTH = 3;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, BoardIndex> boards = new HashMap<>();
+
+    // the index each ticket is in, a deleted ticket comes only with its id
+    private final Map<String, BoardIndex> boardByTicket = new HashMap<>();
+
+    @Value
+    public static class Hits {
+
+        List<String> ids;
+
+        long total;
+    }
+
+    private static class Document {
+
+        private final String id;
+
+        private final int textHash;
+
+        private TicketStatus status;
+
+        private Long version;
+
+        private Document(String id, int textHash, TicketStatus status, Long version) {
+            this.id = id;
+            this.textHash = textHash;
+            this.status = status;
+            this.version = version;
+        }
+    }
+
+    // (ordinal, weight) pairs, in the order the ordinals were given out
+    private static class Postings {
+
+        private int[] entries = new int[4];
+
+        private int size;
+
+        private void add(int ordinal, int weight) {
+            if (this.size * 2 == this.entries.length) {
+                this.entries = Arrays.copyOf(this.entries, this.entries.length * 2);
+            }
+            this.entries[this.size * 2] = ordinal;
+            this.entries[this.size * 2 + 1] = weight;
+            this.size++;
+        }
+    }
+
+    // where each candidate of one search sits in its arrays, open addressing over just the candidates, so a search
+    // costs memory for what matched and not for every ticket indexed
+    private static class CandidateSlots {
+
+        // ordinal + 1, 0 marks a free entry
+        private final int[] keys;
+
+        private final int[] slots;
+
+        private final int mask;
+
+        private CandidateSlots(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+            this.keys = new int[capacity];
+            this.slots = new int[capacity];
+            this.mask = capacity - 1;
+        }
+
+        private int get(int ordinal) {
+            for (int i = hash(ordinal) & this.mask; this.keys[i] != 0; i = (i + 1) & this.mask) {
+                if (this.keys[i] == ordinal + 1) {
+                    return this.slots[i];
+                }
+            }
+            return -1;
+        }
+
+        private void put(int ordinal, int slot) {
+            int i = hash(ordinal) & this.mask;
+            while (this.keys[i] != 0 && this.keys[i] != ordinal + 1) {
+                i = (i + 1) & this.mask;
+            }
+            this.keys[i] = ordinal + 1;
+            this.slots[i] = slot;
+        }
+
+        private static int hash(int ordinal) {
+            int h = ordinal * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    // the tickets matching every word so far, with their scores, kept in primitive arrays
+    private static class Candidates {
+
+        private final List<Document> documents;
+
+        private CandidateSlots slots;
+
+        private int[] ordinals = new int[16];
+
+        private double[] scores = new double[16];
+
+        private int size;
+
+        // at most as many as the postings of the first word hold
+        private Candidates(List<Document> documents, long expected) {
+            this.documents = documents;
+            this.slots = new CandidateSlots((int) Math.min(expected, Integer.MAX_VALUE / 4));
+        }
+
+        private void start(List<Postings> match, double idf, TicketStatus status) {
+            for (Postings postings : match) {
+                for (int i = 0; i < postings.size; i++) {
+                    int ordinal = postings.entries[i * 2];
+                    Document document = this.documents.get(ordinal);
+                    if (document == null || (status != null && !status.equals(document.status))) {
+                        continue;
+                    }
+                    int slot = this.slots.get(ordinal);
+                    if (slot < 0) {
+                        slot = add(ordinal);
+                    }
+                    this.scores[slot] += postings.entries[i * 2 + 1] * idf;
+                }
+            }
+        }
+
+        private void narrow(List<Postings> match, double idf) {
+            double[] added = new double[this.size];
+            boolean[] hit = new boolean[this.size];
+            for (Postings postings : match) {
+                // a few candidates are looked up in a long list, otherwise the list is walked once
+                if ((long) this.size * (32 - Integer.numberOfLeadingZeros(postings.size)) < postings.size) {
+                    for (int j = 0; j < this.size; j++) {
+                        int found = find(postings, this.ordinals[j]);
+                        if (found >= 0) {
+                            hit[j] = true;
+                            added[j] += postings.entries[found * 2 + 1] * idf;
+                        }
+                    }
+                } else {
+                    for (int i = 0; i < postings.size; i++) {
+                        int j = this.slots.get(postings.entries[i * 2]);
+                        if (j >= 0) {
+                            hit[j] = true;
+                            added[j] += postings.entries[i * 2 + 1] * idf;
+                        }
+                    }
+                }
+            }
+
+            int kept = 0;
+            for (int j = 0; j < this.size; j++) {
+                if (hit[j]) {
+                    this.ordinals[kept] = this.ordinals[j];
+                    this.scores[kept] = this.scores[j] + added[j];
+                    kept++;
+                }
+            }
+            this.size = kept;
+            this.slots = new CandidateSlots(kept);
+            for (int j = 0; j < kept; j++) {
+                this.slots.put(this.ordinals[j], j);
+            }
+        }
+
+        // the ordinals of the best count candidates, best first, using a heap that holds just those
+        private int[] best(int count) {
+            int k = Math.min(count, this.size);
+            int[] heap = new int[k];
+            int heapSize = 0;
+            for (int j = 0; j < this.size; j++) {
+                if (heapSize < k) {
+                    heap[heapSize++] = j;
+                    siftUp(heap, heapSize - 1);
+                } else if (k > 0 && better(j, heap[0])) {
+                    heap[0] = j;
+                    siftDown(heap, heapSize);
+                }
+            }
+
+            int[] best = new int[k];
+            for (int i = k - 1; i >= 0; i--) {
+                best[i] = this.ordinals[heap[0]];
+                heap[0] = heap[--heapSize];
+                siftDown(heap, heapSize);
+            }
+            return best;
+        }
+
+        private int add(int ordinal) {
+            if (this.size == this.ordinals.length) {
+                this.ordinals = Arrays.copyOf(this.ordinals, this.size * 2);
+                this.scores = Arrays.copyOf(this.scores, this.size * 2);
+            }
+            this.slots.put(ordinal, this.size);
+            this.ordinals[this.size] = ordinal;
+            this.scores[this.size] = 0;
+            return this.size++;
+        }
+
+        // higher score first, ties by id so pages stay stable
+        private boolean better(int a, int b) {
+            if (this.scores[a] != this.scores[b]) {
+                return this.scores[a] > this.scores[b];
+            }
+            return this.documents.get(this.ordinals[a]).id.compareTo(this.documents.get(this.ordinals[b]).id) < 0;
+        }
+
+        // the heap keeps the worst of the best at its top
+        private void siftUp(int[] heap, int i) {
+            while (i > 0 && better(heap[(i - 1) / 2], heap[i])) {
+                swap(heap, i, (i - 1) / 2);
+                i = (i - 1) / 2;
+            }
+        }
+
+        private void siftDown(int[] heap, int heapSize) {
+            int i = 0;
+            while (true) {
+                int worst = i;
+                for (int child = 2 * i + 1; child <= 2 * i + 2 && child < heapSize; child++) {
+                    if (better(heap[worst], heap[child])) {
+                        worst = child;
+                    }
+                }
+                if (worst == i) {
+                    return;
+                }
+                swap(heap, i, worst);
+                i = worst;
+            }
+        }
+
+        private void swap(int[] heap, int a, int b) {
+            int swapped = heap[a];
+            heap[a] = heap[b];
+            heap[b] = swapped;
+        }
+    }
+
+    // postings are in ordinal order, ordinals are only ever handed out in increasing order
+    private static int find(Postings postings, int ordinal) {
+        int low = 0;
+        int high = postings.size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int found = postings.entries[middle * 2];
+            if (found < ordinal) {
+                low = middle + 1;
+            } else if (found > ordinal) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        this.lock.writeLock().lock();
+        try {
+            this.boards.clear();
+            this.boardByTicket.clear();
+
+            TransactionTemplate readOnly = new TransactionTemplate(this.transactionTemplate.getTransactionManager());
+            readOnly.setReadOnly(true);
+            readOnly.executeWithoutResult(status -> {
+                try (Stream<FullTicket> all = this.ticketRepository.streamAllBy()) {
+                    all.forEach(ticket -> {
+                        index(ticket);
+                        this.entityManager.detach(ticket);
+                    });
+                }
+            });
+            log.info("Indexed {} tickets of {} boards for search", this.boardByTicket.size(), this.boards.size());
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void apply(TicketChangeSet changes) {
+        this.lock.writeLock().lock();
+        try {
+            changes.getRemovedIds().forEach(this::remove);
+            changes.getChanged().forEach(this::index);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the best {@code limit} tickets of a board after skipping {@code offset}, best first, and how many tickets matched in all.
+     */
+    public Hits search(String boardId, String query, TicketStatus status, long offset, int limit) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) {
+            return new Hits(List.of(), 0);
+        }
+
+        this.lock.readLock().lock();
+        try {
+            BoardIndex board = this.boards.get(boardId);
+            return board != null ? board.search(words, status, offset, limit) : new Hits(List.of(), 0);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static long size(List<Postings> match) {
+        long size = 0;
+        for (Postings postings : match) {
+            size += postings.size;
+        }
+        return size;
+    }
+
+    private void index(FullTicket ticket) {
+        BoardIndex board = this.boardByTicket.get(ticket.getId());
+        if (Boolean.TRUE.equals(ticket.getIsRoot())) {
+            remove(ticket.getId());
+            return;
+        }
+        if (board == null) {
+            board = this.boards.computeIfAbsent(ticket.getBoardId(), BoardIndex::new);
+            this.boardByTicket.put(ticket.getId(), board);
+        }
+        board.index(ticket);
+    }
+
+    private void remove(String id) {
+        BoardIndex board = this.boardByTicket.remove(id);
+        if (board != null) {
+            board.remove(id);
+            if (board.ordinalById.isEmpty()) {
+                this.boards.remove(board.boardId);
+            }
+        }
+    }
+
+    // the words and tickets of one board
+    private static class BoardIndex {
+
+        private final String boardId;
+
+        // words in sorted order, so a prefix is a range of the dictionary
+        private final NavigableMap<String, Postings> terms = new TreeMap<>();
+
+        // a ticket's text is indexed under an ordinal, re-indexing it gives it a new one and leaves the old one dead
+        private final List<Document> documents = new ArrayList<>();
+
+        private final Map<String, Integer> ordinalById = new HashMap<>();
+
+        private int dead;
+
+        private BoardIndex(String boardId) {
+            this.boardId = boardId;
+        }
+
+        private Hits search(List<String> words, TicketStatus status, long offset, int limit) {
+            List<List<Postings>> matches = new ArrayList<>(words.size());
+            for (int i = 0; i < words.size(); i++) {
+                List<Postings> postings = lookup(words.get(i), i == words.size() - 1);
+                if (postings.isEmpty()) {
+                    return new Hits(List.of(), 0);
+                }
+                matches.add(postings);
+            }
+            // the rarest word decides the candidates, the others only narrow them down
+            matches.sort(Comparator.comparingLong(TicketSearchIndex::size));
+
+            Candidates candidates = new Candidates(this.documents, size(matches.get(0)));
+            for (int i = 0; i < matches.size() && (i == 0 || candidates.size > 0); i++) {
+                double idf = Math.log(1 + (double) this.ordinalById.size() / Math.max(1, size(matches.get(i))));
+                if (i == 0) {
+                    candidates.start(matches.get(i), idf, status);
+                } else {
+                    candidates.narrow(matches.get(i), idf);
+                }
+            }
+
+            List<String> ids = new ArrayList<>();
+            // a page past the last hit is empty
+            for (int ordinal : candidates.best((int) Math.min(offset + limit, candidates.size))) {
+                ids.add(this.documents.get(ordinal).id);
+            }
+            return new Hits(ids.subList((int) Math.min(offset, ids.size()), ids.size()), candidates.size);
+        }
+
+        private List<Postings> lookup(String word, boolean asPrefix) {
+            if (asPrefix && word.length() >= MIN_PREFIX_LENGTH) {
+                return new ArrayList<>(this.terms.subMap(word, true, word + Character.MAX_VALUE, false).values());
+            }
+            Postings postings = this.terms.get(word);
+            return postings != null ? List.of(postings) : List.of();
+        }
+
+        private void index(FullTicket ticket) {
+            int textHash = Objects.hash(ticket.getTitle(), ticket.getContent());
+            Integer existing = this.ordinalById.get(ticket.getId());
+            if (existing != null) {
+                Document document = this.documents.get(existing);
+                if (ticket.getVersion() != null && document.version != null && ticket.getVersion() < document.version) {
+                    // a later commit of this ticket got here first
+                    return;
+                }
+                if (document.textHash == textHash) {
+                    // moved, the words stay where they are
+                    document.status = ticket.getStatus();
+                    document.version = ticket.getVersion();
+                    return;
+                }
+                remove(ticket.getId());
+            }
+
+            int ordinal = this.documents.size();
+            this.documents.add(new Document(ticket.getId(), textHash, ticket.getStatus(), ticket.getVersion()));
+            this.ordinalById.put(ticket.getId(), ordinal);
+
+            Map<String, Integer> weights = new HashMap<>();
+            tokenize(ticket.getTitle()).forEach(word -> weights.merge(word, TITLE_WEIGHT, Integer::sum));
+            tokenize(ticket.getContent()).forEach(word -> weights.merge(word, 1, Integer::sum));
+            weights.forEach((word, weight) -> this.terms.computeIfAbsent(word, w -> new Postings()).add(ordinal, weight));
+            if (this.dead > 10_000 && this.dead > this.ordinalById.size()) {
+                compact();
+            }
+        }
+
+        private void remove(String id) {
+            Integer ordinal = this.ordinalById.remove(id);
+            if (ordinal != null) {
+                this.documents.set(ordinal, null);
+                this.dead++;
+            }
+        }
+
+        // drops dead ordinals from the postings and numbers the live documents from zero again
+        private void compact() {
+            int[] renumbered = new int[this.documents.size()];
+            List<Document> live = new ArrayList<>(this.ordinalById.size());
+            for (int ordinal = 0; ordinal < this.documents.size(); ordinal++) {
+                Document document = this.documents.get(ordinal);
+                renumbered[ordinal] = document != null ? live.size() : -1;
+                if (document != null) {
+                    this.ordinalById.put(document.id, live.size());
+                    live.add(document);
+                }
+            }
+
+            Iterator<Postings> iterator = this.terms.values().iterator();
+            while (iterator.hasNext()) {
+                Postings postings = iterator.next();
+                int kept = 0;
+                for (int i = 0; i < postings.size; i++) {
+                    int ordinal = renumbered[postings.entries[i * 2]];
+                    if (ordinal >= 0) {
+                        postings.entries[kept * 2] = ordinal;
+                        postings.entries[kept * 2 + 1] = postings.entries[i * 2 + 1];
+                        kept++;
+                    }
+                }
+                postings.size = kept;
+                if (kept == 0) {
+                    iterator.remove();
+                }
+            }
+
+            this.documents.clear();
+            this.documents.addAll(live);
+            this.dead = 0;
+        }
+    }
+}
@@ -1,34 +1,63 @@
 package com.example.kanbanboardbackend.services;
 
+import com.example.kanbanboardbackend.error.BoardNotFoundException;
+import com.example.kanbanboardbackend.error.TicketConflictException;
 import com.example.kanbanboardbackend.error.TicketNotFoundException;
+import com.example.kanbanboardbackend.model.ColumnPage;
 import com.example.kanbanboardbackend.model.FullTicket;
 import com.example.kanbanboardbackend.model.MoveRequest;
 import com.example.kanbanboardbackend.model.Ticket;
+import com.example.kanbanboardbackend.model.TicketSearchPage;
 import com.example.kanbanboardbackend.model.TicketStatus;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
+/**
+ * Tickets of one board at a time: whatever takes a {@code boardId} reads or adds to that board only,
+ * and a ticket found by its id is only ever moved within its own board.
+ */
 public interface TicketService {
-    FullTicket save(Ticket ticket);
+    FullTicket save(String boardId, Ticket ticket) throws BoardNotFoundException;
+
+    List<FullTicket> saveAll(String boardId, List<Ticket> tickets) throws BoardNotFoundException;
 
     FullTicket findById(String id) throws TicketNotFoundException;
 
-    FullTicket findLast(TicketStatus ticketStatus);
+    FullTicket findLast(String boardId, TicketStatus ticketStatus);
+
+    List<FullTicket> findAllAsList(String boardId) throws BoardNotFoundException;
 
-    List<FullTicket> findAllAsList();
+    Map<String, FullTicket> findAllAsMap(String boardId) throws BoardNotFoundException;
 
-    Map<String, FullTicket> findAllAsMap();
+    Map<TicketStatus, List<FullTicket>> getAll(String boardId) throws BoardNotFoundException;
 
-    Map<TicketStatus, List<FullTicket>> getAll();
+    /**
+     * Up to {@code limit} tickets of one column following the ticket {@code after}, or from the top when it is null.
+     */
+    ColumnPage findColumnPage(String boardId, TicketStatus ticketStatus, String after, int limit) throws TicketNotFoundException, BoardNotFoundException;
 
-    void deleteById(String id) throws TicketNotFoundException;
+    /**
+     * Hands every ticket of a board to {@code action} in board order, without holding the board in memory.
+     */
+    void forEachInBoardOrder(String boardId, Consumer<FullTicket> action) throws BoardNotFoundException;
 
-    List<FullTicket> findByTitleContaining(String title);
+    void deleteById(String id) throws TicketNotFoundException, TicketConflictException;
 
-    FullTicket update(String id, Ticket ticket) throws TicketNotFoundException;
+    /**
+     * Tickets whose title or content has every word of {@code query}, best match first, optionally of one column only.
+     */
+    TicketSearchPage search(String boardId, String query, TicketStatus ticketStatus, int page, int size) throws BoardNotFoundException;
+
+    FullTicket update(String id, Ticket ticket) throws TicketNotFoundException, TicketConflictException;
 
     FullTicket findByNextId(String nextId);
 
-    void moveTicket(MoveRequest moveRequest) throws TicketNotFoundException;
+    void moveTicket(MoveRequest moveRequest) throws TicketNotFoundException, TicketConflictException;
+
+    /**
+     * Applies moves in the given order in one transaction, as if each had been sent on its own.
+     */
+    void moveTickets(List<MoveRequest> moveRequests) throws TicketNotFoundException, TicketConflictException;
 }
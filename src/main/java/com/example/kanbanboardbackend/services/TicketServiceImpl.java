@@ -1,16 +1,28 @@
 package com.example.kanbanboardbackend.services;
 
+import com.example.kanbanboardbackend.error.BoardNotFoundException;
+import com.example.kanbanboardbackend.error.TicketConflictException;
 import com.example.kanbanboardbackend.error.TicketNotFoundException;
+import com.example.kanbanboardbackend.model.ColumnPage;
 import com.example.kanbanboardbackend.model.FullTicket;
 import com.example.kanbanboardbackend.model.MoveRequest;
 import com.example.kanbanboardbackend.model.Ticket;
+import com.example.kanbanboardbackend.model.TicketIdGenerator;
+import com.example.kanbanboardbackend.model.TicketSearchPage;
 import com.example.kanbanboardbackend.model.TicketStatus;
 import com.example.kanbanboardbackend.repository.TicketRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -20,29 +32,77 @@ public class TicketServiceImpl implements TicketService {
     @Autowired
     private TicketRepository ticketRepository;
 
+    @Autowired
+    private TicketOrdering ticketOrdering;
+
+    @Autowired
+    private TicketBoardProjection boardProjection;
+
+    @Autowired
+    private BoardService boardService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ColumnLocks columnLocks;
+
+    @Autowired
+    private TicketSearchIndex searchIndex;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${kanban.write.max-attempts:3}")
+    private int maxAttempts;
+
     @Override
-    @Transactional
-    public FullTicket save(Ticket ticket) {
-        FullTicket lastTicket = this.findLast(ticket.getStatus());
+    public FullTicket save(String boardId, Ticket ticket) throws BoardNotFoundException {
+        this.boardService.requireExists(boardId);
         FullTicket newTicket = FullTicket.builder()
+                .boardId(boardId)
                 .title(ticket.getTitle())
                 .status(ticket.getStatus())
                 .content(ticket.getContent()).build();
 
-        if (lastTicket != null) {
-            FullTicket savedNewTicket = this.ticketRepository.save(newTicket);
-            lastTicket.setNextId(savedNewTicket.getId());
-            this.ticketRepository.save(lastTicket);
-            return savedNewTicket;
-        } else {
-            return this.ticketRepository.save(newTicket);
+        try (ColumnLocks.Held held = this.columnLocks.lock(boardId, ticket.getStatus())) {
+            return this.transactionTemplate.execute(status -> this.ticketOrdering.append(newTicket, this.findLast(boardId, newTicket.getStatus())));
         }
     }
 
+    @Override
+    public List<FullTicket> saveAll(String boardId, List<Ticket> tickets) throws BoardNotFoundException {
+        this.boardService.requireExists(boardId);
+        List<FullTicket> newTickets = new ArrayList<>(tickets.size());
+        Map<TicketStatus, List<FullTicket>> byColumn = new EnumMap<>(TicketStatus.class);
+        for (Ticket ticket : tickets) {
+            if (ticket.getStatus() == null) {
+                throw new IllegalArgumentException("Every ticket of a bulk import needs a status");
+            }
+            FullTicket newTicket = FullTicket.builder()
+                    .boardId(boardId)
+                    .title(ticket.getTitle())
+                    .status(ticket.getStatus())
+                    .content(ticket.getContent()).build();
+            newTickets.add(newTicket);
+            byColumn.computeIfAbsent(ticket.getStatus(), ticketStatus -> new ArrayList<>()).add(newTicket);
+        }
+
+        // one transaction for the whole import, each column gets its tickets in one go behind its current last one
+        try (ColumnLocks.Held held = this.columnLocks.lock(boardId, byColumn.keySet().toArray(new TicketStatus[0]))) {
+            this.transactionTemplate.executeWithoutResult(status -> byColumn.forEach(
+                    (ticketStatus, column) -> this.ticketOrdering.appendAll(column, this.findLast(boardId, ticketStatus))));
+        }
+        return newTickets;
+    }
 
     @Override
     public FullTicket findById(String id) throws TicketNotFoundException {
-        Optional<FullTicket> foundById = ticketRepository.findById(id);
+        // what is no UUID cannot be bound to the id column, nor be the id of a ticket
+        Optional<FullTicket> foundById = isTicketId(id) ? ticketRepository.findById(id) : Optional.empty();
 
         if (!foundById.isPresent()) {
             throw new TicketNotFoundException("Ticket Not Available");
@@ -53,146 +113,313 @@ public class TicketServiceImpl implements TicketService {
     }
 
     @Override
-    public FullTicket findLast(TicketStatus ticketStatus) {
-        return this.ticketRepository.findByNextIdAndStatus(null, ticketStatus);
+    public FullTicket findLast(String boardId, TicketStatus ticketStatus) {
+        return this.ticketOrdering.findLast(boardId, ticketStatus, this.boardProjection.getLast(boardId, ticketStatus));
     }
 
     @Override
-    public List<FullTicket> findAllAsList() {
-        var all = this.ticketRepository.findAll();
+    public List<FullTicket> findAllAsList(String boardId) throws BoardNotFoundException {
+        var board = this.readBoard(boardId);
         return Stream.of(
-                        sorted(TicketStatus.toDo, all),
-                        sorted(TicketStatus.toTest, all),
-                        sorted(TicketStatus.done, all)
+                        board.get(TicketStatus.toDo),
+                        board.get(TicketStatus.toTest),
+                        board.get(TicketStatus.done)
                 )
                 .flatMap(Collection::stream)
                 .collect(Collectors.toList());
     }
 
     @Override
-    public Map<String, FullTicket> findAllAsMap() {
-        return findAllAsList()
+    public Map<String, FullTicket> findAllAsMap(String boardId) throws BoardNotFoundException {
+        return findAllAsList(boardId)
                 .stream()
                 .collect(Collectors.toMap(FullTicket::getId, ticket -> ticket)
                 );
     }
 
     @Override
-    @Transactional
-    public void deleteById(String id) throws TicketNotFoundException {
-
-        FullTicket foundById = this.findById(id);
-
-        // update left neighbor
-        FullTicket leftNeighbor = findByNextId(id);
-        if (leftNeighbor != null) {
-            leftNeighbor.setNextId(foundById.getNextId());
-            this.ticketRepository.save(leftNeighbor);
-        }
-        this.ticketRepository.deleteById(id);
+    public void deleteById(String id) throws TicketNotFoundException, TicketConflictException {
+        retrying("delete", () -> {
+            FullTicket ticket = this.findById(id);
+            TicketStatus ticketStatus = ticket.getStatus();
+            try (ColumnLocks.Held held = this.columnLocks.lock(ticket.getBoardId(), ticketStatus)) {
+                return inTransaction(() -> {
+                    FullTicket foundById = this.findInColumn(id, ticketStatus);
+
+                    this.ticketOrdering.remove(foundById);
+                    return foundById;
+                });
+            }
+        });
     }
 
     @Override
-    public List<FullTicket> findByTitleContaining(String title) {
-        return ticketRepository.findByTitleContaining(title);
+    public TicketSearchPage search(String boardId, String query, TicketStatus ticketStatus, int page, int size) throws BoardNotFoundException {
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("A search page starts at page 0 and holds at least one ticket");
+        }
+        this.boardService.requireExists(boardId);
+        // as a long, a page far past the last hit is empty rather than a negative offset
+        TicketSearchIndex.Hits hits = this.searchIndex.search(boardId, query, ticketStatus, (long) page * size, size);
+
+        // only the tickets of this page are loaded, put back in the order of the hits
+        Map<String, FullTicket> byId = this.ticketRepository.findAllById(hits.getIds())
+                .stream()
+                .collect(Collectors.toMap(FullTicket::getId, ticket -> ticket));
+        List<FullTicket> tickets = hits.getIds()
+                .stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new TicketSearchPage(tickets, hits.getTotal(), page, size);
     }
 
     @Override
-    public FullTicket update(String id, Ticket ticket) throws TicketNotFoundException {
-        FullTicket byId = this.findById(id);
-        byId.setContent(ticket.getContent());
-        byId.setStatus(ticket.getStatus());
-        byId.setTitle(ticket.getTitle());
-        return ticketRepository.save(byId);
+    public FullTicket update(String id, Ticket ticket) throws TicketNotFoundException, TicketConflictException {
+        return retrying("update", () -> {
+            FullTicket current = this.findById(id);
+            TicketStatus ticketStatus = current.getStatus();
+            try (ColumnLocks.Held held = this.columnLocks.lock(current.getBoardId(), ticketStatus, ticket.getStatus())) {
+                return inTransaction(() -> {
+                    FullTicket byId = this.findInColumn(id, ticketStatus);
+                    byId.setContent(ticket.getContent());
+                    byId.setTitle(ticket.getTitle());
+
+                    if (ticket.getStatus() != null && !ticket.getStatus().equals(byId.getStatus())) {
+                        // a ticket changing status goes to the end of its new column
+                        FullTicket lastTicket = this.findLast(byId.getBoardId(), ticket.getStatus());
+                        this.ticketOrdering.moveAfter(byId, lastTicket);
+                        return byId;
+                    }
+
+                    return ticketRepository.save(byId);
+                });
+            }
+        });
     }
 
     @Override
     public FullTicket findByNextId(String nextId) {
-        return this.ticketRepository.findByNextId(nextId);
+        return isTicketId(nextId) ? this.ticketRepository.findByNextId(nextId) : null;
     }
 
     @Override
-    public Map<TicketStatus, List<FullTicket>> getAll() {
-        var all = this.ticketRepository.findAll();
-        return Map.of(
-                TicketStatus.toDo, sorted(TicketStatus.toDo, all),
-                TicketStatus.toTest, sorted(TicketStatus.toTest, all),
-                TicketStatus.done, sorted(TicketStatus.done, all)
-        );
+    public Map<TicketStatus, List<FullTicket>> getAll(String boardId) throws BoardNotFoundException {
+        return this.readBoard(boardId);
     }
 
     @Override
-    @Transactional
-    public void moveTicket(MoveRequest moveRequest) throws TicketNotFoundException {
-
-        FullTicket movedTicket = findById(moveRequest.getMovedTicketId());
-        FullTicket afterThisOne = findById(moveRequest.getAfterThisOneId());
-
-        if (movedTicket.getStatus().equals(afterThisOne.getStatus())) {
-            this.moveTicketWithinTheSameTicketStatus(movedTicket, afterThisOne);
+    public ColumnPage findColumnPage(String boardId, TicketStatus ticketStatus, String after, int limit) throws TicketNotFoundException, BoardNotFoundException {
+        // one ticket more than asked for tells whether there is a next page
+        List<FullTicket> window;
+        BoardSnapshot snapshot = this.boardProjection.getSnapshot(boardId);
+        if (snapshot != null && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            window = snapshot.window(ticketStatus, after, limit + 1);
         } else {
-            this.moveTicketToAnotherTicketStatus(movedTicket, afterThisOne);
+            this.boardService.requireExists(boardId);
+            FullTicket afterTicket = after != null ? this.findById(after) : null;
+            window = afterTicket == null || (boardId.equals(afterTicket.getBoardId()) && ticketStatus.equals(afterTicket.getStatus()))
+                    ? this.ticketOrdering.readWindow(boardId, ticketStatus, afterTicket, limit + 1)
+                    : null;
+        }
+
+        if (window == null) {
+            throw new TicketNotFoundException("Ticket " + after + " is not in column " + ticketStatus);
         }
+
+        boolean hasMore = window.size() > limit;
+        List<FullTicket> page = hasMore ? window.subList(0, limit) : window;
+        return new ColumnPage(ticketStatus, List.copyOf(page), hasMore ? page.get(limit - 1).getId() : null);
     }
 
-    private void moveTicketWithinTheSameTicketStatus(FullTicket movedTicket, FullTicket afterThisOne) throws TicketNotFoundException {
+    @Override
+    public void forEachInBoardOrder(String boardId, Consumer<FullTicket> action) throws BoardNotFoundException {
+        this.boardService.requireExists(boardId);
+        TransactionTemplate readOnly = new TransactionTemplate(this.transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            for (TicketStatus ticketStatus : TicketStatus.values()) {
+                try (Stream<FullTicket> column = this.ticketOrdering.streamColumn(boardId, ticketStatus)) {
+                    column.forEach(ticket -> {
+                        action.accept(ticket);
+                        // handed out, nothing needs to keep it in the persistence context
+                        this.entityManager.detach(ticket);
+                    });
+                }
+            }
+        });
+    }
+
+    @Override
+    public void moveTicket(MoveRequest moveRequest) throws TicketNotFoundException, TicketConflictException {
+        retrying("move", () -> {
+            FullTicket moved = findById(moveRequest.getMovedTicketId());
+            FullTicket target = findById(moveRequest.getAfterThisOneId());
+            String boardId = sameBoard(List.of(moved, target));
+            TicketStatus movedStatus = moved.getStatus();
+            TicketStatus afterThisOneStatus = target.getStatus();
+
+            // a move between columns holds both of them
+            try (ColumnLocks.Held held = this.columnLocks.lock(boardId, movedStatus, afterThisOneStatus)) {
+                return inTransaction(() -> {
+                    FullTicket movedTicket = findInColumn(moveRequest.getMovedTicketId(), movedStatus);
+                    FullTicket afterThisOne = findInColumn(moveRequest.getAfterThisOneId(), afterThisOneStatus);
+
+                    expectVersion(movedTicket, moveRequest.getMovedTicketVersion());
+                    expectVersion(afterThisOne, moveRequest.getAfterThisOneVersion());
+
+                    this.ticketOrdering.moveAfter(movedTicket, afterThisOne);
+                    return movedTicket;
+                });
+            }
+        });
+    }
 
-        if (movedTicket.getId().equals(afterThisOne.getId())) {
-            return;
+    @Override
+    public void moveTickets(List<MoveRequest> moveRequests) throws TicketNotFoundException, TicketConflictException {
+        Set<String> ids = new HashSet<>();
+        moveRequests.forEach(moveRequest -> {
+            ids.add(moveRequest.getMovedTicketId());
+            ids.add(moveRequest.getAfterThisOneId());
+        });
+        if (!ids.stream().allMatch(TicketServiceImpl::isTicketId)) {
+            throw new TicketNotFoundException("Ticket Not Available");
         }
 
-        FullTicket leftNeighbor = findByNextId(movedTicket.getId());
-        if (leftNeighbor != null) {
-            leftNeighbor.setNextId(movedTicket.getNextId());
-            this.ticketRepository.save(leftNeighbor);
+        retrying("moveBatch", () -> {
+            List<FullTicket> found = this.ticketRepository.findAllById(ids);
+            if (found.size() != ids.size()) {
+                throw new TicketNotFoundException("Ticket Not Available");
+            }
+            String boardId = sameBoard(found);
+            Set<TicketStatus> statuses = found.stream().map(FullTicket::getStatus).collect(Collectors.toCollection(() -> EnumSet.noneOf(TicketStatus.class)));
+            // outside a caller's own transaction the moves are applied to the projection, the database is read only for the rows that change
+            boolean fromProjection = this.boardProjection.isReady(boardId) && !TransactionSynchronizationManager.isActualTransactionActive();
+
+            try (ColumnLocks.Held held = this.columnLocks.lock(boardId, statuses.toArray(new TicketStatus[0]))) {
+                return inTransaction(() -> {
+                    BoardSnapshot view = fromProjection ? this.boardProjection.getSnapshot(boardId) : readColumns(boardId, statuses);
+                    for (MoveRequest moveRequest : moveRequests) {
+                        expectVersion(findInView(view, moveRequest.getMovedTicketId(), statuses), moveRequest.getMovedTicketVersion());
+                        expectVersion(findInView(view, moveRequest.getAfterThisOneId(), statuses), moveRequest.getAfterThisOneVersion());
+                    }
+                    this.ticketOrdering.moveAll(moveRequests, view);
+                    return null;
+                });
+            }
+        });
+    }
+
+    private BoardSnapshot readColumns(String boardId, Set<TicketStatus> statuses) {
+        Map<TicketStatus, List<FullTicket>> columns = new EnumMap<>(TicketStatus.class);
+        for (TicketStatus ticketStatus : statuses) {
+            columns.put(ticketStatus, this.ticketOrdering.sort(ticketStatus, this.ticketRepository.findByBoardIdAndStatus(boardId, ticketStatus)));
         }
-        movedTicket.setNextId(afterThisOne.getNextId());
-        this.ticketRepository.save(movedTicket);
+        return new BoardSnapshot(0, columns);
+    }
 
-        afterThisOne.setNextId(movedTicket.getId());
-        this.ticketRepository.save(afterThisOne);
+    private static boolean isTicketId(String id) {
+        return TicketIdGenerator.normalize(id) != null;
     }
 
-    private void moveTicketToAnotherTicketStatus(FullTicket movedTicket, FullTicket afterThisOne) throws TicketNotFoundException {
+    // tickets only ever move within their board
+    private static String sameBoard(List<FullTicket> tickets) {
+        String boardId = tickets.get(0).getBoardId();
+        for (FullTicket ticket : tickets) {
+            if (!boardId.equals(ticket.getBoardId())) {
+                throw new IllegalArgumentException("Tickets can only be moved within their board");
+            }
+        }
+        return boardId;
+    }
 
-        movedTicket.setStatus(afterThisOne.getStatus());
+    // a ticket missing from the locked columns was moved or deleted after they were picked
+    private FullTicket findInView(BoardSnapshot view, String id, Set<TicketStatus> lockedStatuses) {
+        for (TicketStatus ticketStatus : lockedStatuses) {
+            Integer position = view.position(ticketStatus, id);
+            if (position != null) {
+                return view.getColumns().get(ticketStatus).get(position);
+            }
+        }
+        throw new ColumnChangedException();
+    }
 
-        if (movedTicket.getId().equals(afterThisOne.getId())) {
-            return;
+    // the columns to lock are picked before the transaction starts, the ticket may have left that column since
+    private FullTicket findInColumn(String id, TicketStatus lockedStatus) throws TicketNotFoundException {
+        FullTicket ticket = this.findById(id);
+        if (!Objects.equals(ticket.getStatus(), lockedStatus)) {
+            throw new ColumnChangedException();
         }
+        return ticket;
+    }
 
-        FullTicket leftNeighbor = findByNextId(movedTicket.getId());
-        if (leftNeighbor != null) {
-            leftNeighbor.setNextId(movedTicket.getNextId());
-            this.ticketRepository.save(leftNeighbor);
+    private void expectVersion(FullTicket ticket, Long expectedVersion) throws TicketConflictException {
+        if (expectedVersion != null && !expectedVersion.equals(ticket.getVersion())) {
+            throw new TicketConflictException("Ticket " + ticket.getId() + " has changed since version " + expectedVersion);
         }
-        movedTicket.setNextId(afterThisOne.getNextId());
-        this.ticketRepository.save(movedTicket);
+    }
 
-        afterThisOne.setNextId(movedTicket.getId());
-        this.ticketRepository.save(afterThisOne);
+    @FunctionalInterface
+    private interface TicketWork<T> {
+        T run() throws TicketNotFoundException, TicketConflictException;
     }
 
-    private List<FullTicket> sorted(TicketStatus ticketStatus, List<FullTicket> all) {
-        Optional<FullTicket> root = all
-                .stream()
-                .filter(ticket -> (ticket.getIsRoot() && ticket.getStatus().equals(ticketStatus))).findFirst();
+    // retries a write that lost a race for its rows or its columns, then gives up with a conflict
+    private <T> T retrying(String operation, TicketWork<T> write) throws TicketNotFoundException, TicketConflictException {
+
+        // a caller's own transaction is already marked for rollback after a conflict, retrying inside it cannot help
+        int maxAttempts = TransactionSynchronizationManager.isActualTransactionActive() ? 1 : this.maxAttempts;
+
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return write.run();
+                } catch (ConcurrencyFailureException | ColumnChangedException e) {
+                    if (attempt >= maxAttempts) {
+                        throw new TicketConflictException("Ticket was changed by someone else, reload the board and try again", e);
+                    }
+                }
+            }
+        } catch (TicketConflictException e) {
+            this.meterRegistry.counter("kanban.ticket.conflicts", "operation", operation).increment();
+            throw e;
+        }
+    }
 
-        if (root.isEmpty()) {
-            throw new IllegalStateException("No root with status" + ticketStatus + " found");
+    // runs work in a transaction of its own (or the caller's), letting the checked ticket exceptions through
+    private <T> T inTransaction(TicketWork<T> work) throws TicketNotFoundException, TicketConflictException {
+        try {
+            return this.transactionTemplate.execute(status -> {
+                try {
+                    return work.run();
+                } catch (TicketNotFoundException | TicketConflictException e) {
+                    throw new WrappedTicketException(e);
+                }
+            });
+        } catch (WrappedTicketException e) {
+            if (e.getCause() instanceof TicketNotFoundException) {
+                throw (TicketNotFoundException) e.getCause();
+            }
+            throw (TicketConflictException) e.getCause();
         }
+    }
 
-        Map<String, FullTicket> map = all
-                .stream()
-                .collect(Collectors.toMap(FullTicket::getId, ticket -> ticket)
-                );
+    private static class WrappedTicketException extends RuntimeException {
+        WrappedTicketException(Exception cause) {
+            super(cause);
+        }
+    }
+
+    private static class ColumnChangedException extends RuntimeException {
+    }
 
-        var results = new ArrayList<FullTicket>();
-        FullTicket current = root.get();
-        while (current != null) {
-            results.add(current);
-            current = map.get(current.getNextId());
+    // a caller inside a transaction may have uncommitted changes of its own, so only the others read the projection
+    private Map<TicketStatus, List<FullTicket>> readBoard(String boardId) throws BoardNotFoundException {
+        var columns = this.boardProjection.getColumns(boardId);
+        if (columns != null && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return columns;
         }
-        return results;
+        this.boardService.requireExists(boardId);
+        return this.ticketOrdering.readBoard(boardId);
     }
 }
@@ -0,0 +1,15 @@
+CREATE TABLE tickets (
+    id       VARCHAR(255) NOT NULL,
+    title    VARCHAR(255),
+    content  VARCHAR(255),
+    status   INTEGER,
+    next_id  VARCHAR(255),
+    rank_key BIGINT,
+    version  BIGINT DEFAULT 0,
+    is_root  BOOLEAN DEFAULT FALSE,
+    CONSTRAINT pk_tickets PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_tickets_status_rank ON tickets (status, rank_key);
+CREATE UNIQUE INDEX idx_tickets_next_id ON tickets (next_id);
+CREATE INDEX idx_tickets_status_next_id ON tickets (status, next_id);
@@ -1,3 +1,4 @@
+-- the root of every column, plus three tickets to start the toDo column with
 INSERT INTO TICKETS (ID, CONTENT, NEXT_ID, STATUS, TITLE, IS_ROOT) VALUES (
 '1b1a957e-4335-470e-babe-60d32b17aa2d', 'toDoRoot', '2e25ddd1-602e-4f94-ab54-fc0147989042',  0, 'toDoRoot', true);
 INSERT INTO TICKETS (ID, CONTENT, NEXT_ID, STATUS, TITLE, IS_ROOT) VALUES (
@@ -0,0 +1,16 @@
+CREATE TABLE boards (
+    id   VARCHAR(255) NOT NULL,
+    name VARCHAR(255),
+    CONSTRAINT pk_boards PRIMARY KEY (id)
+);
+
+-- every ticket so far was on the one board there was
+INSERT INTO boards (id, name) VALUES ('00000000-0000-0000-0000-000000000001', 'default');
+
+ALTER TABLE tickets ADD COLUMN board_id VARCHAR(255) DEFAULT '00000000-0000-0000-0000-000000000001' NOT NULL;
+
+-- every column query names its board first, so one board's tickets sit together in the index
+DROP INDEX idx_tickets_status_rank;
+DROP INDEX idx_tickets_status_next_id;
+CREATE INDEX idx_tickets_board_status_rank ON tickets (board_id, status, rank_key);
+CREATE INDEX idx_tickets_board_status_next_id ON tickets (board_id, status, next_id);
@@ -0,0 +1,24 @@
+-- clustered mode: the ids of the tickets every commit wrote, for the other nodes to read them back
+CREATE TABLE ticket_invalidations (
+    seq        BIGINT NOT NULL,
+    node_id    VARCHAR(64) NOT NULL,
+    ticket_ids VARCHAR NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    CONSTRAINT pk_ticket_invalidations PRIMARY KEY (seq)
+);
+
+CREATE INDEX idx_ticket_invalidations_created_at ON ticket_invalidations (created_at);
+
+-- their numbers, counted up by each commit in its last moments, so they commit in order and without gaps
+CREATE TABLE ticket_invalidation_seq (
+    seq BIGINT NOT NULL
+);
+
+INSERT INTO ticket_invalidation_seq (seq) VALUES (0);
+
+-- and one row per column of a board, held with SELECT ... FOR UPDATE by the node writing to that column
+CREATE TABLE column_locks (
+    board_id VARCHAR(255) NOT NULL,
+    status   INTEGER NOT NULL,
+    CONSTRAINT pk_column_locks PRIMARY KEY (board_id, status)
+);
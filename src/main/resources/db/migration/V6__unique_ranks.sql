@@ -0,0 +1,3 @@
+-- rank mode: two tickets placed into the same gap of a column conflict here instead of sharing a rank
+DROP INDEX idx_tickets_board_status_rank;
+CREATE UNIQUE INDEX idx_tickets_board_status_rank ON tickets (board_id, status, rank_key);
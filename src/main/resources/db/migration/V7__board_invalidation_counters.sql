@@ -0,0 +1,30 @@
+-- clustered mode: commits are numbered per board, so only commits to the same board wait for each other's number.
+-- The rows so far are numbered across boards, only nodes that are running read them.
+DROP TABLE ticket_invalidations;
+DROP TABLE ticket_invalidation_seq;
+
+CREATE TABLE ticket_invalidations (
+    board_id   VARCHAR(255) NOT NULL,
+    seq        BIGINT NOT NULL,
+    node_id    VARCHAR(64) NOT NULL,
+    ticket_ids VARCHAR NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    CONSTRAINT pk_ticket_invalidations PRIMARY KEY (board_id, seq)
+);
+
+CREATE INDEX idx_ticket_invalidations_created_at ON ticket_invalidations (created_at);
+
+-- the number of the last commit to each board, created by its first commit
+CREATE TABLE board_invalidation_seq (
+    board_id VARCHAR(255) NOT NULL,
+    seq      BIGINT NOT NULL,
+    CONSTRAINT pk_board_invalidation_seq PRIMARY KEY (board_id)
+);
+
+-- what the numbers count from, picked by the first node to start; the versions of the boards are those numbers,
+-- so an ETag or event id is good on every node
+CREATE TABLE cluster_epoch (
+    id    INTEGER NOT NULL,
+    epoch VARCHAR(36) NOT NULL,
+    CONSTRAINT pk_cluster_epoch PRIMARY KEY (id)
+);
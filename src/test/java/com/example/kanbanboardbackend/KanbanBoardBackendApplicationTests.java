@@ -1,24 +1,32 @@
 package com.example.kanbanboardbackend;
 
+import com.example.kanbanboardbackend.error.TicketConflictException;
 import com.example.kanbanboardbackend.error.TicketNotFoundException;
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.ColumnPage;
 import com.example.kanbanboardbackend.model.FullTicket;
 import com.example.kanbanboardbackend.model.MoveRequest;
 import com.example.kanbanboardbackend.model.Ticket;
 import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.repository.TicketCache;
 import com.example.kanbanboardbackend.services.TicketService;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.*;
 
@@ -30,6 +38,12 @@ public class KanbanBoardBackendApplicationTests {
     @Autowired
     private TicketService ticketService;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TicketCache ticketCache;
+
     private FullTicket rootToDo;
     private FullTicket rootToTest;
     private FullTicket rootDone;
@@ -37,29 +51,35 @@ public class KanbanBoardBackendApplicationTests {
     private FullTicket secondToDo;
     private FullTicket thirdToDo;
 
+    // the @Sql scripts run before this and write the tickets table around Hibernate
+    @Before
+    public void evictTicketCache() {
+        ticketCache.evictAll();
+    }
+
     @Before
     public void setUpFirstSecondAndThird() {
-        rootToDo = FullTicket.builder()
+        rootToDo = FullTicket.builder().boardId(Board.DEFAULT_ID)
                 .id("1b1a957e-4335-470e-babe-60d32b17aa2d").content("toDoRoot")
                 .nextId("2e25ddd1-602e-4f94-ab54-fc0147989042").status(TicketStatus.toDo)
                 .title("toDoRoot").isRoot(true).build();
-        rootToTest = FullTicket.builder()
+        rootToTest = FullTicket.builder().boardId(Board.DEFAULT_ID)
                 .id("103fe588-fefa-4814-9bf3-6055f0149adb").content("toTestRoot")
                 .nextId(null).status(TicketStatus.toTest)
                 .title("toTestRoot").isRoot(true).build();
-        rootDone = FullTicket.builder()
+        rootDone = FullTicket.builder().boardId(Board.DEFAULT_ID)
                 .id("43efb13a-b048-4533-b7b1-cbbd851365e6").content("doneRoot")
                 .nextId(null).status(TicketStatus.done)
                 .title("doneRoot").isRoot(true).build();
-        firstToDo = FullTicket.builder()
+        firstToDo = FullTicket.builder().boardId(Board.DEFAULT_ID)
                 .id("2e25ddd1-602e-4f94-ab54-fc0147989042").content("First ToDo")
                 .nextId("c0ed5dfa-8eb9-40f4-a425-2065b97631a5").status(TicketStatus.toDo)
                 .title("first toDo").isRoot(false).build();
-        secondToDo = FullTicket.builder()
+        secondToDo = FullTicket.builder().boardId(Board.DEFAULT_ID)
                 .id("c0ed5dfa-8eb9-40f4-a425-2065b97631a5").content("Second ToDo")
                 .nextId("e3929b60-6910-4a54-b4f1-324af7180fa6").status(TicketStatus.toDo)
                 .title("second toDo").isRoot(false).build();
-        thirdToDo = FullTicket.builder()
+        thirdToDo = FullTicket.builder().boardId(Board.DEFAULT_ID)
                 .id("e3929b60-6910-4a54-b4f1-324af7180fa6").content("Third ToDo")
                 .nextId(null).status(TicketStatus.toDo)
                 .title("third toDo").isRoot(false).build();
@@ -67,18 +87,18 @@ public class KanbanBoardBackendApplicationTests {
 
     @Test
     @Sql(scripts = "/mixed_tickets.sql") // to create DB tables and init sample DB data
-    public void testIfFindAllReturnsSortedTickets() {
-        assertEquals(List.of(rootToDo, firstToDo, secondToDo, thirdToDo, rootToTest, rootDone), ticketService.findAllAsList());
+    public void testIfFindAllReturnsSortedTickets() throws Exception {
+        assertEquals(List.of(rootToDo, firstToDo, secondToDo, thirdToDo, rootToTest, rootDone), ticketService.findAllAsList(Board.DEFAULT_ID));
         assertEquals(Map.of(
                 TicketStatus.toDo, List.of(rootToDo, firstToDo, secondToDo, thirdToDo),
                 TicketStatus.toTest, List.of(rootToTest),
                 TicketStatus.done, List.of(rootDone)
-        ), ticketService.getAll());
+        ), ticketService.getAll(Board.DEFAULT_ID));
     }
 
     @Test
-    public void givenTicketRepositoryInitiated_ThreeRootTicketsFound() {
-        var roots = ticketService.findAllAsList()
+    public void givenTicketRepositoryInitiated_ThreeRootTicketsFound() throws Exception {
+        var roots = ticketService.findAllAsList(Board.DEFAULT_ID)
                 .stream()
                 .filter(FullTicket::getIsRoot)
                 .collect(Collectors.toList());
@@ -86,8 +106,8 @@ public class KanbanBoardBackendApplicationTests {
     }
 
     @Test
-    public void givenTicketRepositoryInitiated_SixTicketsFound() {
-        assertEquals(6, ticketService.findAllAsList().size());
+    public void givenTicketRepositoryInitiated_SixTicketsFound() throws Exception {
+        assertEquals(6, ticketService.findAllAsList(Board.DEFAULT_ID).size());
     }
 
     @Test
@@ -99,7 +119,7 @@ public class KanbanBoardBackendApplicationTests {
                 .content("this is its content")
                 .status(TicketStatus.toDo)
                 .title("title").build();
-        final FullTicket ticket = ticketService.save(newTicket);
+        final FullTicket ticket = ticketService.save(Board.DEFAULT_ID, newTicket);
 
         // when saving
         FullTicket found = ticketService.findById(ticket.getId());
@@ -111,19 +131,19 @@ public class KanbanBoardBackendApplicationTests {
     @Sql(scripts = "/reset_db.sql") // to create DB tables and init sample DB data
     public void givenTicketRepository_whenAddingMultipleTickets_setNextId() throws Exception {
 
-        final FullTicket first = ticketService.save(
+        final FullTicket first = ticketService.save(Board.DEFAULT_ID,
                 Ticket.builder()
                         .title("first")
                         .content("content")
                         .status(TicketStatus.toDo)
                         .build());
-        final FullTicket second = ticketService.save(
+        final FullTicket second = ticketService.save(Board.DEFAULT_ID,
                 Ticket.builder()
                         .title("second")
                         .content("content")
                         .status(TicketStatus.toDo)
                         .build());
-        final FullTicket third = ticketService.save(
+        final FullTicket third = ticketService.save(Board.DEFAULT_ID,
                 Ticket.builder()
                         .title("third")
                         .content("content")
@@ -148,29 +168,53 @@ public class KanbanBoardBackendApplicationTests {
                 .content("this is its content")
                 .status(TicketStatus.toDo)
                 .title("first ticket").build();
-        FullTicket firstSaved = ticketService.save(firstTicket);
+        FullTicket firstSaved = ticketService.save(Board.DEFAULT_ID, firstTicket);
 
-        FullTicket last = ticketService.findLast(TicketStatus.toDo);
+        FullTicket last = ticketService.findLast(Board.DEFAULT_ID, TicketStatus.toDo);
         assertEquals(firstSaved, last);
     }
 
+    @Test
+    @Sql(scripts = "/reset_db.sql") // to create DB tables and init sample DB data
+    public void givenBulkImport_whenSaving_thenEachColumnGetsItsTicketsInOrder() throws Exception {
+
+        FullTicket existing = ticketService.save(Board.DEFAULT_ID, Ticket.builder()
+                .title("existing").content("content").status(TicketStatus.toTest).build());
+
+        List<FullTicket> saved = ticketService.saveAll(Board.DEFAULT_ID, List.of(
+                Ticket.builder().title("first").content("content").status(TicketStatus.toTest).build(),
+                Ticket.builder().title("done").content("content").status(TicketStatus.done).build(),
+                Ticket.builder().title("second").content("content").status(TicketStatus.toTest).build()));
+
+        assertEquals(List.of("first", "done", "second"),
+                saved.stream().map(FullTicket::getTitle).collect(Collectors.toList()));
+
+        Map<TicketStatus, List<FullTicket>> board = ticketService.getAll(Board.DEFAULT_ID);
+        assertEquals(List.of("toTestRoot", "existing", "first", "second"),
+                board.get(TicketStatus.toTest).stream().map(FullTicket::getTitle).collect(Collectors.toList()));
+        assertEquals(List.of("doneRoot", "done"),
+                board.get(TicketStatus.done).stream().map(FullTicket::getTitle).collect(Collectors.toList()));
+        assertEquals(saved.get(2), ticketService.findLast(Board.DEFAULT_ID, TicketStatus.toTest));
+        assertEquals(saved.get(0).getId(), ticketService.findById(existing.getId()).getNextId());
+    }
+
     @Test(expected = TicketNotFoundException.class)
     @Sql(scripts = "/reset_db.sql") // to create DB tables and init sample DB data
     public void givenTicketRepository_whenDeletingAlreadyDeleted_thenException() throws Exception {
 
-        final FullTicket first = ticketService.save(
+        final FullTicket first = ticketService.save(Board.DEFAULT_ID,
                 Ticket.builder()
                         .title("first")
                         .content("content")
                         .status(TicketStatus.toDo)
                         .build());
-        final FullTicket second = ticketService.save(
+        final FullTicket second = ticketService.save(Board.DEFAULT_ID,
                 Ticket.builder()
                         .title("second")
                         .content("content")
                         .status(TicketStatus.toDo)
                         .build());
-        final FullTicket third = ticketService.save(
+        final FullTicket third = ticketService.save(Board.DEFAULT_ID,
                 Ticket.builder()
                         .title("third")
                         .content("content")
@@ -188,19 +232,19 @@ public class KanbanBoardBackendApplicationTests {
     @Sql(scripts = "/reset_db.sql") // to create DB tables and init sample DB data
     public void givenTicketRepository_whenDeleting_thenOK() throws Exception {
 
-        final FullTicket first = ticketService.save(
+        final FullTicket first = ticketService.save(Board.DEFAULT_ID,
                 Ticket.builder()
                         .title("first")
                         .content("content")
                         .status(TicketStatus.toDo)
                         .build());
-        final FullTicket second = ticketService.save(
+        final FullTicket second = ticketService.save(Board.DEFAULT_ID,
                 Ticket.builder()
                         .title("second")
                         .content("content")
                         .status(TicketStatus.toDo)
                         .build());
-        final FullTicket third = ticketService.save(
+        final FullTicket third = ticketService.save(Board.DEFAULT_ID,
                 Ticket.builder()
                         .title("third")
                         .content("content")
@@ -232,7 +276,7 @@ public class KanbanBoardBackendApplicationTests {
                         TicketStatus.toTest, listOfTickets(rootToTest),
                         TicketStatus.done, listOfTickets(rootDone)
                 ),
-                this.ticketService.getAll());
+                this.ticketService.getAll(Board.DEFAULT_ID));
     }
 
     @Test
@@ -246,7 +290,46 @@ public class KanbanBoardBackendApplicationTests {
                         TicketStatus.toTest, listOfTickets(rootToTest),
                         TicketStatus.done, listOfTickets(rootDone)
                 ),
-                this.ticketService.getAll());
+                this.ticketService.getAll(Board.DEFAULT_ID));
+    }
+
+    @Test
+    public void testMovingBehindOwnSuccessor() throws Exception {
+
+        ticketService.moveTicket(new MoveRequest(firstToDo.getId(), secondToDo.getId()));
+
+        assertEquals(
+                Map.of(
+                        TicketStatus.toDo, listOfTickets(rootToDo, secondToDo, firstToDo, thirdToDo),
+                        TicketStatus.toTest, listOfTickets(rootToTest),
+                        TicketStatus.done, listOfTickets(rootDone)
+                ),
+                this.ticketService.getAll(Board.DEFAULT_ID));
+    }
+
+    @Test
+    public void whenExporting_ticketsComeInBoardOrder() throws Exception {
+        ticketService.moveTicket(new MoveRequest(thirdToDo.getId(), firstToDo.getId()));
+        ticketService.moveTicket(new MoveRequest(secondToDo.getId(), rootToTest.getId()));
+
+        List<String> exported = new ArrayList<>();
+        ticketService.forEachInBoardOrder(Board.DEFAULT_ID, ticket -> exported.add(ticket.getId()));
+
+        assertEquals(Stream.of(rootToDo, firstToDo, thirdToDo, rootToTest, secondToDo, rootDone)
+                .map(FullTicket::getId).collect(Collectors.toList()), exported);
+    }
+
+    @Test
+    public void givenCursor_pagesWalkTheChainInTheDatabase() throws Exception {
+        ColumnPage firstPage = ticketService.findColumnPage(Board.DEFAULT_ID, TicketStatus.toDo, null, 2);
+        assertEquals(List.of(rootToDo, firstToDo), firstPage.getTickets());
+        assertEquals(firstToDo.getId(), firstPage.getNextCursor());
+
+        ColumnPage lastPage = ticketService.findColumnPage(Board.DEFAULT_ID, TicketStatus.toDo, firstPage.getNextCursor(), 2);
+        assertEquals(List.of(secondToDo, thirdToDo), lastPage.getTickets());
+        assertNull(lastPage.getNextCursor());
+
+        assertEquals(List.of(), ticketService.findColumnPage(Board.DEFAULT_ID, TicketStatus.toDo, thirdToDo.getId(), 2).getTickets());
     }
 
     @Test
@@ -262,7 +345,7 @@ public class KanbanBoardBackendApplicationTests {
                         TicketStatus.toTest, listOfTickets(rootToTest),
                         TicketStatus.done, listOfTickets(rootDone)
                 ),
-                this.ticketService.getAll());
+                this.ticketService.getAll(Board.DEFAULT_ID));
     }
 
     @Test
@@ -280,7 +363,86 @@ public class KanbanBoardBackendApplicationTests {
                         TicketStatus.toTest, listOfTickets(rootToTest, thirdToDo),
                         TicketStatus.done, listOfTickets(rootDone)
                 ),
-                this.ticketService.getAll());
+                this.ticketService.getAll(Board.DEFAULT_ID));
+    }
+
+    @Test(expected = TicketConflictException.class)
+    public void givenStaleVersion_whenMoving_thenConflict() throws Exception {
+        long version = ticketService.findById(thirdToDo.getId()).getVersion();
+
+        ticketService.moveTicket(new MoveRequest(thirdToDo.getId(), firstToDo.getId(), version + 1, null));
+    }
+
+    @Test
+    public void givenCurrentVersions_whenMoving_thenVersionsGoUp() throws Exception {
+        long movedVersion = ticketService.findById(thirdToDo.getId()).getVersion();
+        long afterThisOneVersion = ticketService.findById(firstToDo.getId()).getVersion();
+
+        ticketService.moveTicket(new MoveRequest(thirdToDo.getId(), firstToDo.getId(), movedVersion, afterThisOneVersion));
+
+        assertEquals(
+                Map.of(
+                        TicketStatus.toDo, listOfTickets(rootToDo, firstToDo, thirdToDo, secondToDo),
+                        TicketStatus.toTest, listOfTickets(rootToTest),
+                        TicketStatus.done, listOfTickets(rootDone)
+                ),
+                this.ticketService.getAll(Board.DEFAULT_ID));
+        assertEquals(movedVersion + 1, (long) ticketService.findById(thirdToDo.getId()).getVersion());
+        assertEquals(afterThisOneVersion + 1, (long) ticketService.findById(firstToDo.getId()).getVersion());
+    }
+
+    @Test
+    public void givenBatch_whenMoving_thenEveryMoveSeesTheOnesBeforeIt() throws Exception {
+        ticketService.moveTickets(List.of(
+                new MoveRequest(thirdToDo.getId(), rootToDo.getId()),
+                new MoveRequest(firstToDo.getId(), rootToTest.getId()),
+                new MoveRequest(secondToDo.getId(), firstToDo.getId())));
+
+        firstToDo.setStatus(TicketStatus.toTest);
+        secondToDo.setStatus(TicketStatus.toTest);
+        assertEquals(
+                Map.of(
+                        TicketStatus.toDo, listOfTickets(rootToDo, thirdToDo),
+                        TicketStatus.toTest, listOfTickets(rootToTest, firstToDo, secondToDo),
+                        TicketStatus.done, listOfTickets(rootDone)
+                ),
+                this.ticketService.getAll(Board.DEFAULT_ID));
+    }
+
+    @Test
+    public void givenBatchWithUnknownTicket_whenMoving_thenNothingMoves() throws Exception {
+        List<String> toDoBefore = ids(ticketService.getAll(Board.DEFAULT_ID).get(TicketStatus.toDo));
+        List<String> toTestBefore = ids(ticketService.getAll(Board.DEFAULT_ID).get(TicketStatus.toTest));
+
+        assertThrows(TicketNotFoundException.class, () -> ticketService.moveTickets(List.of(
+                new MoveRequest(thirdToDo.getId(), rootToDo.getId()),
+                new MoveRequest(UUID.randomUUID().toString(), rootToTest.getId()))));
+
+        Map<TicketStatus, List<FullTicket>> board = ticketService.getAll(Board.DEFAULT_ID);
+        assertEquals(toDoBefore, ids(board.get(TicketStatus.toDo)));
+        assertEquals(toTestBefore, ids(board.get(TicketStatus.toTest)));
+        // not even the first move of the batch was applied, thirdToDo is still last after secondToDo
+        assertEquals(List.of(rootToDo.getId(), firstToDo.getId(), secondToDo.getId(), thirdToDo.getId()), toDoBefore);
+        FullTicket third = ticketService.findById(thirdToDo.getId());
+        assertEquals(TicketStatus.toDo, third.getStatus());
+        assertNull(third.getNextId());
+        assertEquals(thirdToDo.getId(), ticketService.findById(secondToDo.getId()).getNextId());
+    }
+
+    @Test
+    public void givenNewTicket_itsIdIsATimeOrderedUuidStoredAsOne() throws Exception {
+        FullTicket saved = ticketService.save(Board.DEFAULT_ID, Ticket.builder().title("new").content("new").status(TicketStatus.done).build());
+
+        assertEquals(7, UUID.fromString(saved.getId()).version());
+        // the query flushes the insert, so the row is there for plain JDBC as well
+        assertEquals(TicketStatus.done, ticketService.findByNextId(saved.getId()).getStatus());
+        assertEquals(UUID.fromString(saved.getId()),
+                jdbcTemplate.queryForObject("SELECT id FROM tickets WHERE id = ?", Object.class, UUID.fromString(saved.getId())));
+        assertNull(ticketService.findByNextId("no-such-ticket"));
+    }
+
+    private static List<String> ids(List<FullTicket> column) {
+        return column.stream().map(FullTicket::getId).collect(Collectors.toList());
     }
 
     private List<FullTicket> listOfTickets(FullTicket... tickets) {
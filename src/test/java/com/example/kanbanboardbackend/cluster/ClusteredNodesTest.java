@@ -0,0 +1,213 @@
+package com.example.kanbanboardbackend.cluster;
+
+import com.example.kanbanboardbackend.KanbanBoardBackendApplication;
+import com.example.kanbanboardbackend.error.TicketConflictException;
+import com.example.kanbanboardbackend.error.TicketNotFoundException;
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.MoveRequest;
+import com.example.kanbanboardbackend.model.Ticket;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.services.BoardSnapshotCache;
+import com.example.kanbanboardbackend.services.TicketListVerifier;
+import com.example.kanbanboardbackend.services.TicketService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two nodes in one JVM on one in-memory database, as two replicas behind a load balancer would share theirs.
+ */
+public class ClusteredNodesTest {
+
+    @Test
+    void aWriteOnOneNode_reachesTheBoardAndTheCacheOfTheOther() throws Exception {
+        String database = "cluster" + UUID.randomUUID();
+        try (ConfigurableApplicationContext first = start(database, "jdbc");
+             ConfigurableApplicationContext second = start(database, "jdbc")) {
+            TicketService one = first.getBean(TicketService.class);
+            TicketService other = second.getBean(TicketService.class);
+
+            FullTicket saved = one.save(Board.DEFAULT_ID, Ticket.builder().title("shared").content("content").status(TicketStatus.toDo).build());
+            eventually(() -> ids(other).get(TicketStatus.toDo).contains(saved.getId()));
+            // now in the other node's second-level cache
+            assertEquals("shared", other.findById(saved.getId()).getTitle());
+
+            one.update(saved.getId(), Ticket.builder().title("edited").content("content").status(TicketStatus.toDo).build());
+            eventually(() -> title(other, saved.getId()).equals("edited"));
+
+            one.deleteById(saved.getId());
+            eventually(() -> !ids(other).get(TicketStatus.toDo).contains(saved.getId()));
+            assertThrows(TicketNotFoundException.class, () -> other.findById(saved.getId()));
+        }
+    }
+
+    @Test
+    void concurrentMovesOnBothNodes_keepEveryColumnIntact() throws Exception {
+        String database = "cluster" + UUID.randomUUID();
+        try (ConfigurableApplicationContext first = start(database, "jdbc");
+             ConfigurableApplicationContext second = start(database, "jdbc")) {
+            List<TicketService> nodes = List.of(first.getBean(TicketService.class), second.getBean(TicketService.class));
+            List<Ticket> tickets = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                tickets.add(Ticket.builder().title("ticket " + i).content("content").status(TicketStatus.values()[i % 3]).build());
+            }
+            List<String> ids = nodes.get(0).saveAll(Board.DEFAULT_ID, tickets).stream().map(FullTicket::getId).collect(Collectors.toList());
+            long onTheBoard = count(ids(nodes.get(0)));
+
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            List<Future<?>> writers = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                TicketService node = nodes.get(thread % 2);
+                Random random = new Random(thread);
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 30; i++) {
+                        try {
+                            node.moveTicket(new MoveRequest(ids.get(random.nextInt(ids.size())), ids.get(random.nextInt(ids.size()))));
+                        } catch (TicketConflictException e) {
+                            // lost the race for its tickets on every attempt, the next move is another one
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            executor.shutdown();
+
+            assertTrue(first.getBean(TicketListVerifier.class).verify(Board.DEFAULT_ID).isIntact());
+            eventually(() -> ids(nodes.get(0)).equals(ids(nodes.get(1))));
+            assertEquals(onTheBoard, count(ids(nodes.get(1))));
+        }
+    }
+
+    @Test
+    void writesOnEitherNode_endUpUnderTheSameETagOnBoth() throws Exception {
+        String database = "cluster" + UUID.randomUUID();
+        try (ConfigurableApplicationContext first = start(database, "jdbc");
+             ConfigurableApplicationContext second = start(database, "jdbc")) {
+            FullTicket saved = first.getBean(TicketService.class)
+                    .save(Board.DEFAULT_ID, Ticket.builder().title("from the first").content("content").status(TicketStatus.toDo).build());
+            FullTicket other = second.getBean(TicketService.class)
+                    .save(Board.DEFAULT_ID, Ticket.builder().title("from the second").content("content").status(TicketStatus.toDo).build());
+            first.getBean(TicketService.class).moveTicket(new MoveRequest(saved.getId(), other.getId()));
+
+            BoardSnapshotCache firstCache = first.getBean(BoardSnapshotCache.class);
+            BoardSnapshotCache secondCache = second.getBean(BoardSnapshotCache.class);
+            eventually(() -> firstCache.currentETag(Board.DEFAULT_ID).equals(secondCache.currentETag(Board.DEFAULT_ID)));
+            // three commits to the board, numbered the same on both nodes
+            assertTrue(firstCache.currentETag(Board.DEFAULT_ID).endsWith("-3\""));
+            assertArrayEquals(firstCache.get(Board.DEFAULT_ID).getBody(), secondCache.get(Board.DEFAULT_ID).getBody());
+        }
+    }
+
+    @Test
+    void aNodeThatMissedPurgedInvalidations_reloadsEveryTicket() throws Exception {
+        String database = "cluster" + UUID.randomUUID();
+        try (ConfigurableApplicationContext first = start(database, "jdbc");
+             ConfigurableApplicationContext second = start(database, "jdbc")) {
+            TicketService other = second.getBean(TicketService.class);
+            FullTicket saved = first.getBean(TicketService.class)
+                    .save(Board.DEFAULT_ID, Ticket.builder().title("before").content("content").status(TicketStatus.toDo).build());
+            eventually(() -> title(other, saved.getId()).equals("before"));
+
+            // a write whose invalidation was purged before the other node read it
+            JdbcTemplate jdbcTemplate = first.getBean(JdbcTemplate.class);
+            jdbcTemplate.update("UPDATE tickets SET title = 'after' WHERE id = ?", UUID.fromString(saved.getId()));
+            jdbcTemplate.update("UPDATE board_invalidation_seq SET seq = seq + 1 WHERE board_id = ?", Board.DEFAULT_ID);
+
+            eventually(() -> title(other, saved.getId()).equals("after"));
+            eventually(() -> titles(other).contains("after"));
+        }
+    }
+
+    @Test
+    void withTheInMemoryBus_aCommitHasReachedTheOtherNodeWhenTheWriteReturns() throws Exception {
+        String database = "cluster" + UUID.randomUUID();
+        try (ConfigurableApplicationContext first = start(database, "in-memory");
+             ConfigurableApplicationContext second = start(database, "in-memory")) {
+            TicketService other = second.getBean(TicketService.class);
+            FullTicket saved = first.getBean(TicketService.class)
+                    .save(Board.DEFAULT_ID, Ticket.builder().title("shared").content("content").status(TicketStatus.done).build());
+
+            assertTrue(ids(other).get(TicketStatus.done).contains(saved.getId()));
+        }
+    }
+
+    @Test
+    void aNodeWithTheEventLog_doesNotStart() {
+        assertThrows(Exception.class, () -> new SpringApplicationBuilder(KanbanBoardBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:cluster" + UUID.randomUUID(),
+                        "--kanban.cluster.enabled=true",
+                        "--kanban.event-log.enabled=true")
+                .close());
+    }
+
+    private static Map<TicketStatus, List<String>> ids(TicketService ticketService) {
+        try {
+            return ticketService.getAll(Board.DEFAULT_ID).entrySet().stream()
+                    .collect(Collectors.toMap(Map.Entry::getKey,
+                            column -> column.getValue().stream().map(FullTicket::getId).collect(Collectors.toList())));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Set<String> titles(TicketService ticketService) {
+        try {
+            return ticketService.getAll(Board.DEFAULT_ID).values().stream()
+                    .flatMap(List::stream)
+                    .map(FullTicket::getTitle)
+                    .collect(Collectors.toSet());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long count(Map<TicketStatus, List<String>> board) {
+        return board.values().stream().mapToLong(List::size).sum();
+    }
+
+    private static String title(TicketService ticketService, String id) {
+        try {
+            return ticketService.findById(id).getTitle();
+        } catch (TicketNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // the jdbc bus gets there on its next poll
+    private static void eventually(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "the other node did not catch up");
+            Thread.sleep(20);
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String database, String bus) {
+        return new SpringApplicationBuilder(KanbanBoardBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                        "--kanban.cluster.enabled=true",
+                        "--kanban.cluster.bus=" + bus,
+                        "--kanban.cluster.poll-interval-ms=50",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "--logging.level.org.springframework.web=WARN");
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.kanbanboardbackend.controller;
+
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.Ticket;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.services.TicketService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:etagtestdb")
+@AutoConfigureMockMvc
+public class BoardETagTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Test
+    void whenBoardIsUnchanged_ResponseIs304() throws Exception {
+        String eTag = mockMvc.perform(get("/api/tickets"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.toDo[0].title").value("toDoRoot"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+
+        mockMvc.perform(get("/api/tickets").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void whenBoardChanged_ResponseCarriesNewETag() throws Exception {
+        String eTag = mockMvc.perform(get("/api/tickets"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        ticketService.save(Board.DEFAULT_ID, Ticket.builder().title("new one").content("content").status(TicketStatus.done).build());
+
+        String newETag = mockMvc.perform(get("/api/tickets").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.done[1].title").value("new one"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(eTag, newETag);
+    }
+
+    @Test
+    void whenColumnViewsAreAccepted_BoardIsSentWithoutTheLinkage() throws Exception {
+        String jsonETag = mockMvc.perform(get("/api/tickets"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        MediaType columns = MediaType.valueOf("application/vnd.kanban.columns+json");
+        String columnsETag = mockMvc.perform(get("/api/tickets").accept(columns))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(columns))
+                .andExpect(jsonPath("$.toDo.rootId").value("1b1a957e-4335-470e-babe-60d32b17aa2d"))
+                .andExpect(jsonPath("$.toDo.tickets[0].title").value("first toDo"))
+                .andExpect(jsonPath("$.toDo.tickets[0].nextId").doesNotExist())
+                .andExpect(jsonPath("$.toDo.tickets[0].isRoot").doesNotExist())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(jsonETag, columnsETag);
+
+        mockMvc.perform(get("/api/tickets").accept(columns).header(HttpHeaders.IF_NONE_MATCH, columnsETag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void whenCborIsAccepted_BoardIsSentAsCborWithItsOwnETag() throws Exception {
+        String jsonETag = mockMvc.perform(get("/api/tickets"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        MvcResult result = mockMvc.perform(get("/api/tickets").accept(MediaType.APPLICATION_CBOR, MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+                .andReturn();
+        String cborETag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(jsonETag, cborETag);
+
+        JsonNode board = new CBORMapper().readTree(result.getResponse().getContentAsByteArray());
+        assertEquals("first toDo", board.path("toDo").path("tickets").path(0).path("title").asText());
+
+        mockMvc.perform(get("/api/tickets").accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, cborETag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/tickets").accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, jsonETag))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.kanbanboardbackend.controller;
+
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.MoveRequest;
+import com.example.kanbanboardbackend.model.Ticket;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.services.BoardService;
+import com.example.kanbanboardbackend.services.TicketService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:streamtestdb")
+@AutoConfigureMockMvc
+public class BoardEventStreamTest {
+
+    private static final String DONE_ROOT_ID = "43efb13a-b048-4533-b7b1-cbbd851365e6";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private BoardService boardService;
+
+    @Autowired
+    private BoardEventStream boardEventStream;
+
+    @Test
+    void everyChangeArrivesAsADeltaWithItsNeighbours() throws Exception {
+        MockHttpServletResponse stream = subscribe(null);
+        awaitContent(stream, "event:ready");
+
+        FullTicket first = ticketService.save(Board.DEFAULT_ID, Ticket.builder().title("first").content("content").status(TicketStatus.done).build());
+        FullTicket second = ticketService.save(Board.DEFAULT_ID, Ticket.builder().title("second").content("content").status(TicketStatus.done).build());
+        awaitContent(stream, "\"type\":\"created\",\"id\":\"" + second.getId() + "\",\"status\":\"done\"");
+
+        ticketService.moveTicket(new MoveRequest(second.getId(), DONE_ROOT_ID));
+        awaitContent(stream, "\"type\":\"moved\",\"id\":\"" + second.getId() + "\"");
+        awaitContent(stream, "\"previousId\":\"" + DONE_ROOT_ID + "\",\"nextId\":\"" + first.getId() + "\"");
+
+        ticketService.update(first.getId(), Ticket.builder().title("first, edited").content("content").status(TicketStatus.done).build());
+        awaitContent(stream, "\"type\":\"updated\",\"id\":\"" + first.getId() + "\"");
+
+        ticketService.deleteById(second.getId());
+        awaitContent(stream, "{\"type\":\"deleted\",\"id\":\"" + second.getId() + "\",\"status\":\"done\"}");
+
+        // the neighbours whose nextId was rewired by the move are not deltas of their own
+        assertFalse(stream.getContentAsString().contains("\"type\":\"moved\",\"id\":\"" + DONE_ROOT_ID + "\""));
+        // a ticket is sent as the board shows it, without its linkage
+        assertFalse(stream.getContentAsString().contains("\"isRoot\""));
+    }
+
+    @Test
+    void streamResumesAfterTheETagOfTheBoard() throws Exception {
+        String eTag = mockMvc.perform(get("/api/tickets")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        FullTicket missed = ticketService.save(Board.DEFAULT_ID, Ticket.builder().title("missed").content("content").status(TicketStatus.toTest).build());
+
+        MockHttpServletResponse stream = subscribe(eTag);
+        awaitContent(stream, "\"type\":\"created\",\"id\":\"" + missed.getId() + "\"");
+    }
+
+    @Test
+    void streamResumesAfterTheCborETagOfTheBoard() throws Exception {
+        String eTag = mockMvc.perform(get("/api/tickets").accept(MediaType.APPLICATION_CBOR)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        FullTicket missed = ticketService.save(Board.DEFAULT_ID, Ticket.builder().title("missed").content("content").status(TicketStatus.toTest).build());
+
+        MockHttpServletResponse stream = subscribe(eTag);
+        awaitContent(stream, "\"type\":\"created\",\"id\":\"" + missed.getId() + "\"");
+        assertFalse(stream.getContentAsString().contains("event:reset"));
+    }
+
+    @Test
+    void unknownVersionStartsWithAReset() throws Exception {
+        MockHttpServletResponse stream = subscribe("deadbeef-12");
+        awaitContent(stream, "event:reset");
+    }
+
+    @Test
+    void historyOfABoardWithoutClientsIsDroppedAndResumingFromItResets() throws Exception {
+        Board board = boardService.create(Board.builder().name("idle").build());
+        String eTag = mockMvc.perform(get("/api/boards/" + board.getId() + "/tickets")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        FullTicket created = ticketService.save(board.getId(), Ticket.builder().title("missed").content("content").status(TicketStatus.toDo).build());
+
+        boardEventStream.evictIdleChannels(Long.MAX_VALUE);
+
+        MockHttpServletResponse stream = subscribe("/api/boards/" + board.getId() + "/tickets/stream", eTag);
+        awaitContent(stream, "event:reset");
+        assertFalse(stream.getContentAsString().contains(created.getId()));
+    }
+
+    private MockHttpServletResponse subscribe(String since) throws Exception {
+        return subscribe("/api/tickets/stream", since);
+    }
+
+    private MockHttpServletResponse subscribe(String path, String since) throws Exception {
+        var streamRequest = get(path);
+        if (since != null) {
+            streamRequest.param("since", since);
+        }
+        return mockMvc.perform(streamRequest)
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+    }
+
+    private static void awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!response.getContentAsString().contains(expected)) {
+            assertTrue(System.currentTimeMillis() < deadline, () -> "no " + expected + " in " + contentOf(response));
+            Thread.sleep(10);
+        }
+    }
+
+    private static String contentOf(MockHttpServletResponse response) {
+        try {
+            return response.getContentAsString();
+        } catch (Exception e) {
+            return e.toString();
+        }
+    }
+}
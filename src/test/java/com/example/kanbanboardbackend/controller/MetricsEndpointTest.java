@@ -0,0 +1,64 @@
+package com.example.kanbanboardbackend.controller;
+
+import com.example.kanbanboardbackend.error.TicketConflictException;
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.MoveRequest;
+import com.example.kanbanboardbackend.model.Ticket;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.services.TicketService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:metricstestdb")
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+public class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Test
+    void prometheusEndpointExposesTicketMetrics() throws Exception {
+        mockMvc.perform(get("/api/tickets").param("status", "toDo")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("kanban_ticket_service_seconds_bucket{exception=\"none\",method=\"findColumnPage\"")))
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket")))
+                .andExpect(content().string(containsString("kanban_board_tickets{status=\"toDo\",}")))
+                .andExpect(content().string(containsString("kanban_board_column_length{status=\"done\",}")));
+    }
+
+    @Test
+    void refusedMoveIsCountedAsConflict() throws Exception {
+        FullTicket first = ticketService.save(Board.DEFAULT_ID, Ticket.builder().title("first").content("content").status(TicketStatus.done).build());
+        FullTicket second = ticketService.save(Board.DEFAULT_ID, Ticket.builder().title("second").content("content").status(TicketStatus.done).build());
+
+        long staleVersion = ticketService.findById(first.getId()).getVersion() + 1;
+        assertThrows(TicketConflictException.class, () -> ticketService.moveTicket(
+                new MoveRequest(first.getId(), second.getId(), staleVersion, null)));
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(content().string(containsString("kanban_ticket_conflicts_total{operation=\"move\",} 1.0")));
+    }
+
+    @Test
+    void integrityEndpointIsNotExposedByDefault() throws Exception {
+        mockMvc.perform(get("/actuator/integrity")).andExpect(status().isNotFound());
+    }
+}
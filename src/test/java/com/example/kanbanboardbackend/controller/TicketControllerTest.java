@@ -1,8 +1,17 @@
 package com.example.kanbanboardbackend.controller;
 
+import com.example.kanbanboardbackend.error.BoardNotFoundException;
+import com.example.kanbanboardbackend.error.TicketConflictException;
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.ColumnPage;
 import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.MoveRequest;
 import com.example.kanbanboardbackend.model.Ticket;
+import com.example.kanbanboardbackend.model.TicketSearchPage;
 import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.model.TicketView;
+import com.example.kanbanboardbackend.services.BoardService;
+import com.example.kanbanboardbackend.services.BoardSnapshotCache;
 import com.example.kanbanboardbackend.services.TicketService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,8 +22,14 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 
 @WebMvcTest(TicketController.class)
@@ -29,6 +44,15 @@ public class TicketControllerTest {
     @MockBean
     private TicketService ticketService;
 
+    @MockBean
+    private BoardSnapshotCache boardSnapshotCache;
+
+    @MockBean
+    private BoardEventStream boardEventStream;
+
+    @MockBean
+    private BoardService boardService;
+
     private FullTicket fullTicket;
 
     @BeforeEach
@@ -49,7 +73,7 @@ public class TicketControllerTest {
                 .status(TicketStatus.toDo)
                 .build();
 
-        Mockito.when(ticketService.save(inputTicket))
+        Mockito.when(ticketService.save(Board.DEFAULT_ID, inputTicket))
                 .thenReturn(fullTicket);
 
         mockMvc.perform(post("/api/tickets")
@@ -63,6 +87,37 @@ public class TicketControllerTest {
                 )).andExpect(MockMvcResultMatchers.status().is(201));
     }
 
+    @Test
+    void whenPOSTingToABoardsTickets_TicketIsSavedOnThatBoard() throws Exception {
+        Ticket inputTicket = Ticket.builder()
+                .content("First")
+                .title("First")
+                .status(TicketStatus.toDo)
+                .build();
+
+        Mockito.when(ticketService.save("other-board", inputTicket))
+                .thenReturn(fullTicket);
+
+        mockMvc.perform(post("/api/boards/other-board/tickets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(inputTicket)))
+                .andExpect(MockMvcResultMatchers.status().is(201));
+
+        Mockito.verify(ticketService).save("other-board", inputTicket);
+    }
+
+    @Test
+    void whenPOSTingToAnUnknownBoard_ResponseIs404() throws Exception {
+        Mockito.when(ticketService.save(Mockito.eq("no-such-board"), Mockito.any(Ticket.class)))
+                .thenThrow(new BoardNotFoundException("Board no-such-board not found"));
+
+        mockMvc.perform(post("/api/boards/no-such-board/tickets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                Ticket.builder().title("First").content("First").status(TicketStatus.toDo).build())))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
     @Test
     void whenPOSTingIncompleteTickets_ResponseIsError() throws Exception {
         Ticket inputTicket = Ticket.builder()
@@ -71,7 +126,7 @@ public class TicketControllerTest {
                 .status(TicketStatus.toDo)
                 .build();
 
-        Mockito.when(ticketService.save(inputTicket))
+        Mockito.when(ticketService.save(Board.DEFAULT_ID, inputTicket))
                 .thenReturn(fullTicket);
 
         mockMvc.perform(post("/api/tickets")
@@ -97,4 +152,171 @@ public class TicketControllerTest {
                         .content(body))
                 .andExpect(MockMvcResultMatchers.status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    void whenMoveConflicts_ResponseIs409() throws Exception {
+        Mockito.doThrow(new TicketConflictException("changed"))
+                .when(ticketService).moveTicket(Mockito.any(MoveRequest.class));
+
+        mockMvc.perform(post("/api/tickets/move")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new MoveRequest("85d86c3c-5707-4526-b1fe-f2fb9b4a8228", "1b1a957e-4335-470e-babe-60d32b17aa2d", 3L, 1L))))
+                .andExpect(MockMvcResultMatchers.status().isConflict());
+
+        Mockito.verify(ticketService).moveTicket(
+                new MoveRequest("85d86c3c-5707-4526-b1fe-f2fb9b4a8228", "1b1a957e-4335-470e-babe-60d32b17aa2d", 3L, 1L));
+    }
+
+    @Test
+    void whenMovingByIdsInAnotherForm_TheyArePassedOnAsStored() throws Exception {
+        mockMvc.perform(post("/api/tickets/move")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new MoveRequest("85D86C3C-5707-4526-B1FE-F2FB9B4A8228", "1b1a957e4335470ebabe60d32b17aa2d"))))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        Mockito.verify(ticketService).moveTicket(
+                new MoveRequest("85d86c3c-5707-4526-b1fe-f2fb9b4a8228", "1b1a957e-4335-470e-babe-60d32b17aa2d"));
+    }
+
+    @Test
+    void whenGettingTicketByNoUuid_ResponseIs404() throws Exception {
+        mockMvc.perform(get("/api/tickets/not-a-ticket"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+        Mockito.verify(ticketService, Mockito.never()).findById(Mockito.anyString());
+    }
+
+    @Test
+    void whenPOSTingMoveBatch_ResponseIs200() throws Exception {
+        List<MoveRequest> moves = List.of(
+                new MoveRequest("85d86c3c-5707-4526-b1fe-f2fb9b4a8228", "1b1a957e-4335-470e-babe-60d32b17aa2d"),
+                new MoveRequest("2e25ddd1-602e-4f94-ab54-fc0147989042", "85d86c3c-5707-4526-b1fe-f2fb9b4a8228"));
+
+        mockMvc.perform(post("/api/tickets/move/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(moves)))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        Mockito.verify(ticketService).moveTickets(moves);
+    }
+
+    @Test
+    void whenPOSTingEmptyMoveBatch_ResponseIs400() throws Exception {
+        mockMvc.perform(post("/api/tickets/move/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    void whenPOSTingBulkTickets_ResponseIs201() throws Exception {
+        List<Ticket> tickets = List.of(
+                Ticket.builder().title("first").content("first").status(TicketStatus.toDo).build(),
+                Ticket.builder().title("second").content("second").status(TicketStatus.done).build());
+
+        Mockito.when(ticketService.saveAll(Board.DEFAULT_ID, tickets))
+                .thenReturn(List.of(fullTicket, fullTicket));
+
+        mockMvc.perform(post("/api/tickets/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(tickets)))
+                .andExpect(MockMvcResultMatchers.status().is(201));
+
+        Mockito.verify(ticketService).saveAll(Board.DEFAULT_ID, tickets);
+    }
+
+    @Test
+    void whenPOSTingBulkTicketsAsLines_ResponseIs201() throws Exception {
+        List<Ticket> tickets = List.of(
+                Ticket.builder().title("first").content("first").status(TicketStatus.toDo).build(),
+                Ticket.builder().title("second").content("second").status(TicketStatus.done).build());
+
+        mockMvc.perform(post("/api/tickets/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(objectMapper.writeValueAsString(tickets.get(0)) + "\n"
+                                + objectMapper.writeValueAsString(tickets.get(1)) + "\n"))
+                .andExpect(MockMvcResultMatchers.status().is(201));
+
+        Mockito.verify(ticketService).saveAll(Board.DEFAULT_ID, tickets);
+    }
+
+    @Test
+    void whenPOSTingBulkWithAnInvalidTicket_ResponseIs400() throws Exception {
+        List<Ticket> tickets = List.of(
+                Ticket.builder().title("first").content("first").status(TicketStatus.toDo).build(),
+                Ticket.builder().title("").content("").status(TicketStatus.done).build());
+
+        mockMvc.perform(post("/api/tickets/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(tickets)))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        mockMvc.perform(post("/api/tickets/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(objectMapper.writeValueAsString(tickets.get(0)) + "\n"
+                                + objectMapper.writeValueAsString(tickets.get(1)) + "\n"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        Mockito.verify(ticketService, Mockito.never()).saveAll(Mockito.anyString(), Mockito.anyList());
+    }
+
+    @Test
+    void whenExporting_ResponseIsOneTicketPerLine() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            Consumer<FullTicket> action = invocation.getArgument(1);
+            action.accept(FullTicket.builder().id("1b1a957e-4335-470e-babe-60d32b17aa2d").title("toDoRoot").status(TicketStatus.toDo).isRoot(true).build());
+            action.accept(fullTicket);
+            action.accept(fullTicket);
+            return null;
+        }).when(ticketService).forEachInBoardOrder(Mockito.eq(Board.DEFAULT_ID), Mockito.any());
+
+        MvcResult started = mockMvc.perform(get("/api/tickets/export"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        String line = objectMapper.writeValueAsString(TicketView.of(fullTicket));
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.content().string(line + "\n" + line + "\n"));
+    }
+
+    @Test
+    void whenGETtingAColumnPage_ResponseHasTicketsAndCursor() throws Exception {
+        Mockito.when(ticketService.findColumnPage(Board.DEFAULT_ID, TicketStatus.toDo, "1b1a957e-4335-470e-babe-60d32b17aa2d", 1))
+                .thenReturn(new ColumnPage(TicketStatus.toDo, List.of(fullTicket), fullTicket.getId()));
+
+        mockMvc.perform(get("/api/tickets")
+                        .param("status", "toDo")
+                        .param("after", "1b1a957e-4335-470e-babe-60d32b17aa2d")
+                        .param("limit", "1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.tickets[0].id").value(fullTicket.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").value(fullTicket.getId()));
+    }
+
+    @Test
+    void whenGETtingAColumnPageWithATooLargeLimit_ResponseIs400() throws Exception {
+        mockMvc.perform(get("/api/tickets")
+                        .param("status", "toDo")
+                        .param("limit", "100000"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    void whenSearching_ResponseIsAPageOfHits() throws Exception {
+        Mockito.when(ticketService.search(Board.DEFAULT_ID, "login error", TicketStatus.toDo, 1, 10))
+                .thenReturn(new TicketSearchPage(List.of(fullTicket), 11, 1, 10));
+
+        mockMvc.perform(get("/api/tickets/search")
+                        .param("q", "login error")
+                        .param("status", "toDo")
+                        .param("page", "1")
+                        .param("size", "10"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.tickets[0].id").value(fullTicket.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.total").value(11));
+    }
+}
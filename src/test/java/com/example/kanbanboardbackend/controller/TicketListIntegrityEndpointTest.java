@@ -0,0 +1,94 @@
+package com.example.kanbanboardbackend.controller;
+
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.services.TicketService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:integritytestdb",
+        "management.endpoints.web.exposure.include=health,prometheus,integrity"
+})
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+public class TicketListIntegrityEndpointTest {
+
+    private static final String ROOT_TO_DO = "1b1a957e-4335-470e-babe-60d32b17aa2d";
+    private static final String FIRST_TO_DO = "2e25ddd1-602e-4f94-ab54-fc0147989042";
+    private static final String SECOND_TO_DO = "c0ed5dfa-8eb9-40f4-a425-2065b97631a5";
+    private static final String THIRD_TO_DO = "e3929b60-6910-4a54-b4f1-324af7180fa6";
+    private static final String ROOT_DONE = "43efb13a-b048-4533-b7b1-cbbd851365e6";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Test
+    void brokenListsAreReportedAndRepaired() throws Exception {
+        mockMvc.perform(get("/actuator/integrity"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.intact").value(true));
+
+        // second and third point at each other behind first, and done loses its root
+        jdbcTemplate.update("UPDATE tickets SET next_id = NULL WHERE id = ?", FIRST_TO_DO);
+        jdbcTemplate.update("UPDATE tickets SET next_id = ? WHERE id = ?", SECOND_TO_DO, THIRD_TO_DO);
+        jdbcTemplate.update("DELETE FROM tickets WHERE id = ?", ROOT_DONE);
+
+        mockMvc.perform(get("/actuator/integrity/" + Board.DEFAULT_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.intact").value(false))
+                .andExpect(jsonPath("$.columns[?(@.status == 'toDo')].cycles").value(1))
+                .andExpect(jsonPath("$.columns[?(@.status == 'toDo')].orphanIds[*]").value(
+                        containsInAnyOrder(SECOND_TO_DO, THIRD_TO_DO)))
+                .andExpect(jsonPath("$.columns[?(@.status == 'done')].roots").value(0));
+
+        mockMvc.perform(get("/actuator/integrity")).andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(content().string(containsString("kanban_board_integrity_problems{problem=\"cycles\",} 1.0")))
+                .andExpect(content().string(containsString("kanban_board_integrity_problems{problem=\"missingRoots\",} 1.0")));
+
+        mockMvc.perform(post("/actuator/integrity")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"boardId\": \"" + Board.DEFAULT_ID + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.relinked").value(greaterThan(0)));
+
+        mockMvc.perform(get("/actuator/integrity"))
+                .andExpect(jsonPath("$.intact").value(true));
+
+        Map<TicketStatus, List<FullTicket>> board = ticketService.getAll(Board.DEFAULT_ID);
+        List<String> toDo = board.get(TicketStatus.toDo).stream().map(FullTicket::getId).collect(Collectors.toList());
+        assertEquals(List.of(ROOT_TO_DO, FIRST_TO_DO), toDo.subList(0, 2));
+        assertTrue(toDo.containsAll(List.of(SECOND_TO_DO, THIRD_TO_DO)));
+        assertEquals(1, board.get(TicketStatus.done).size());
+        assertTrue(board.get(TicketStatus.done).get(0).getIsRoot());
+    }
+}
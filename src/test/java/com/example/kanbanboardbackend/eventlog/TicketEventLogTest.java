@@ -0,0 +1,161 @@
+package com.example.kanbanboardbackend.eventlog;
+
+import com.example.kanbanboardbackend.KanbanBoardBackendApplication;
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.MoveRequest;
+import com.example.kanbanboardbackend.model.Ticket;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.services.TicketService;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerInitializedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.JpaSystemException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Every start gets a fresh in-memory database, whatever survives a restart comes from the event log.
+ */
+public class TicketEventLogTest {
+
+    @TempDir
+    Path logDir;
+
+    @Test
+    void afterACrash_boardIsRecoveredFromTheLog() throws Exception {
+        Map<TicketStatus, List<String>> before;
+        Path crashed = Files.createDirectory(logDir.resolve("crashed"));
+        try (ConfigurableApplicationContext context = start(logDir)) {
+            before = changeBoard(context.getBean(TicketService.class));
+            // every commit has been synced, the files as they are now are what a crash would leave behind
+            for (String file : List.of(TicketEventLog.SNAPSHOT_FILE, TicketEventLog.LOG_FILE)) {
+                Files.copy(logDir.resolve(file), crashed.resolve(file));
+            }
+        }
+        assertTrue(Files.size(crashed.resolve(TicketEventLog.LOG_FILE)) > 0);
+
+        try (ConfigurableApplicationContext context = start(crashed)) {
+            assertEquals(before, ids(context.getBean(TicketService.class)));
+        }
+    }
+
+    @Test
+    void afterACleanShutdown_boardComesFromTheSnapshot_tornRecordIsCutOff() throws Exception {
+        Map<TicketStatus, List<String>> before;
+        try (ConfigurableApplicationContext context = start(logDir)) {
+            before = changeBoard(context.getBean(TicketService.class));
+        }
+        // a record header whose payload does not match its checksum
+        Files.write(logDir.resolve(TicketEventLog.LOG_FILE), new byte[]{0, 0, 0, 1, 0, 0, 0, 0, 42}, StandardOpenOption.APPEND);
+
+        try (ConfigurableApplicationContext context = start(logDir)) {
+            assertEquals(before, ids(context.getBean(TicketService.class)));
+            assertEquals(0, Files.size(logDir.resolve(TicketEventLog.LOG_FILE)));
+        }
+    }
+
+    @Test
+    void afterACrash_transactionThatFailedToCommitIsNotRecovered() throws Exception {
+        Path crashed = Files.createDirectory(logDir.resolve("crashed"));
+        FullTicket ticket;
+        try (ConfigurableApplicationContext context = start(logDir, 3600000)) {
+            ticket = context.getBean(TicketService.class).save(Board.DEFAULT_ID, Ticket.builder().title("committed").content("content").status(TicketStatus.toTest).build());
+            EntityManager entityManager = context.getBean(EntityManager.class);
+            // logged once flushed, then the commit fails
+            assertThrows(JpaSystemException.class, () -> context.getBean(TransactionTemplate.class).executeWithoutResult(status -> {
+                entityManager.find(FullTicket.class, ticket.getId()).setTitle("rolled back");
+                entityManager.flush();
+                entityManager.unwrap(SessionImplementor.class).getActionQueue().registerProcess(session -> {
+                    throw new IllegalStateException("commit failed");
+                });
+            }));
+            for (String file : List.of(TicketEventLog.SNAPSHOT_FILE, TicketEventLog.LOG_FILE)) {
+                Files.copy(logDir.resolve(file), crashed.resolve(file));
+            }
+        }
+
+        try (ConfigurableApplicationContext context = start(crashed, 3600000)) {
+            assertEquals("committed", context.getBean(TicketService.class).findById(ticket.getId()).getTitle());
+        }
+    }
+
+    @Test
+    void whileSnapshotsAreWrittenAllTheTime_boardIsRecovered() throws Exception {
+        Map<TicketStatus, List<String>> before;
+        try (ConfigurableApplicationContext context = start(logDir, 0)) {
+            before = changeBoard(context.getBean(TicketService.class));
+        }
+        assertTrue(Files.notExists(logDir.resolve(TicketEventLog.PREVIOUS_LOG_FILE)));
+
+        try (ConfigurableApplicationContext context = start(logDir, 0)) {
+            assertEquals(before, ids(context.getBean(TicketService.class)));
+        }
+    }
+
+    @Test
+    void boardIsRecoveredBeforeTheWebServerTakesRequests() throws Exception {
+        try (ConfigurableApplicationContext context = start(logDir)) {
+            changeBoard(context.getBean(TicketService.class));
+        }
+
+        AtomicBoolean recoveredFirst = new AtomicBoolean();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(KanbanBoardBackendApplication.class)
+                .listeners((ApplicationListener<ServletWebServerInitializedEvent>) event ->
+                        recoveredFirst.set(event.getApplicationContext().getBean(TicketEventLog.class).isRunning()))
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:eventlog" + UUID.randomUUID(),
+                        "--kanban.event-log.enabled=true",
+                        "--kanban.event-log.dir=" + logDir)) {
+            assertTrue(recoveredFirst.get());
+        }
+    }
+
+    private Map<TicketStatus, List<String>> changeBoard(TicketService ticketService) throws Exception {
+        FullTicket first = ticketService.save(Board.DEFAULT_ID, Ticket.builder().title("first").content("content").status(TicketStatus.toTest).build());
+        FullTicket second = ticketService.save(Board.DEFAULT_ID, Ticket.builder().title("second").content("content").status(TicketStatus.toTest).build());
+        FullTicket doomed = ticketService.save(Board.DEFAULT_ID, Ticket.builder().title("doomed").content("content").status(TicketStatus.done).build());
+        ticketService.update(first.getId(), Ticket.builder().title("first, edited").content("content").status(TicketStatus.toTest).build());
+        ticketService.moveTicket(new MoveRequest(second.getId(), ticketService.getAll(Board.DEFAULT_ID).get(TicketStatus.toDo).get(0).getId()));
+        ticketService.deleteById(doomed.getId());
+        return ids(ticketService);
+    }
+
+    private static Map<TicketStatus, List<String>> ids(TicketService ticketService) throws Exception {
+        return ticketService.getAll(Board.DEFAULT_ID).entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey,
+                        column -> column.getValue().stream().map(FullTicket::getId).collect(Collectors.toList())));
+    }
+
+    private ConfigurableApplicationContext start(Path dir) {
+        return start(dir, 3600000);
+    }
+
+    private ConfigurableApplicationContext start(Path dir, long snapshotIntervalMs) {
+        return new SpringApplicationBuilder(KanbanBoardBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:eventlog" + UUID.randomUUID(),
+                        "--kanban.event-log.enabled=true",
+                        "--kanban.event-log.dir=" + dir,
+                        "--kanban.event-log.snapshot-interval-ms=" + snapshotIntervalMs);
+    }
+}
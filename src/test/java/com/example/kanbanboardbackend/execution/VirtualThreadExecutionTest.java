@@ -0,0 +1,126 @@
+package com.example.kanbanboardbackend.execution;
+
+import com.example.kanbanboardbackend.KanbanBoardBackendApplication;
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.Ticket;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.services.TicketService;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The application in {@code kanban.execution.mode=virtual}, as a cluster node on a pool of two connections, under
+ * a few hundred concurrent reads and moves. Every request has to run on a virtual thread, and none may park while
+ * one of the application's own locks pins it to its carrier. Runs only on a JVM with virtual threads.
+ */
+@EnabledIf("com.example.kanbanboardbackend.execution.VirtualThreads#isAvailable")
+public class VirtualThreadExecutionTest {
+
+    private static final int CLIENTS = 200;
+
+    @Test
+    void requestsRunOnVirtualThreads_withoutPinningThemInTheApplication() throws Exception {
+        ConcurrentLinkedQueue<Thread> requestThreads = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<String> pinned = new ConcurrentLinkedQueue<>();
+
+        try (RecordingStream recording = new RecordingStream();
+             ConfigurableApplicationContext context = new SpringApplicationBuilder(KanbanBoardBackendApplication.class)
+                     .listeners((ApplicationListener<ServletRequestHandledEvent>) event -> requestThreads.add(Thread.currentThread()))
+                     .run("--server.port=0",
+                             "--kanban.execution.mode=virtual",
+                             "--spring.datasource.url=jdbc:h2:mem:virtual" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                             "--spring.datasource.hikari.maximum-pool-size=2",
+                             "--spring.datasource.hikari.connection-timeout=60000",
+                             "--kanban.cluster.enabled=true",
+                             "--kanban.cluster.poll-interval-ms=10",
+                             "--spring.jpa.show-sql=false",
+                             "--logging.level.org.hibernate.SQL=WARN",
+                             "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                             "--logging.level.org.springframework.web=WARN")) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", event -> {
+                if (pinnedByTheApplication(event)) {
+                    pinned.add(event.getStackTrace().getFrames().stream()
+                            .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName())
+                            .collect(Collectors.joining("\n  ")));
+                }
+            });
+            recording.startAsync();
+
+            List<Ticket> tickets = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                tickets.add(Ticket.builder().title("ticket " + i).content("content").status(TicketStatus.values()[i % 3]).build());
+            }
+            List<String> ids = context.getBean(TicketService.class).saveAll(Board.DEFAULT_ID, tickets).stream()
+                    .map(FullTicket::getId)
+                    .collect(Collectors.toList());
+
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/tickets";
+            HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            Random random = new Random(1);
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                HttpRequest request;
+                if (i % 3 == 0) {
+                    String body = "{\"movedTicketId\":\"" + ids.get(random.nextInt(ids.size()))
+                            + "\",\"afterThisOneId\":\"" + ids.get(random.nextInt(ids.size())) + "\"}";
+                    request = HttpRequest.newBuilder(URI.create(base + "/move"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body))
+                            .build();
+                } else {
+                    request = HttpRequest.newBuilder(URI.create(base + "/" + ids.get(random.nextInt(ids.size())))).GET().build();
+                }
+                responses.add(http.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            }
+            for (CompletableFuture<HttpResponse<String>> response : responses) {
+                int status = response.get(120, TimeUnit.SECONDS).statusCode();
+                // a move can lose the race for its tickets, or be refused for moving a ticket after itself
+                assertTrue(status < 500, "status " + status);
+            }
+
+            assertFalse(requestThreads.isEmpty());
+            assertTrue(requestThreads.stream().allMatch(VirtualThreads::isVirtual));
+            // pinned events are written out when their park ends
+            Thread.sleep(1000);
+            assertTrue(pinned.isEmpty(), () -> "pinned by the application at\n  " + String.join("\n\n  ", pinned));
+        }
+    }
+
+    // parks within H2 or Tomcat are left out, they hold monitors of their own; any other park under application code counts
+    private static boolean pinnedByTheApplication(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return false;
+        }
+        List<String> types = event.getStackTrace().getFrames().stream()
+                .map(RecordedFrame::getMethod)
+                .map(method -> method.getType().getName())
+                .filter(type -> !type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun."))
+                .collect(Collectors.toList());
+        return !types.isEmpty()
+                && !types.get(0).startsWith("org.h2.")
+                && !types.get(0).startsWith("org.apache.")
+                && types.stream().anyMatch(type -> type.startsWith("com.example.kanbanboardbackend."));
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.kanbanboardbackend.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VirtualThreadsTest {
+
+    @Test
+    void tasksRunOnVirtualThreadsWhereTheJvmHasThem() throws Exception {
+        if (!VirtualThreads.isAvailable()) {
+            IllegalStateException error = assertThrows(IllegalStateException.class, () -> VirtualThreads.newPerTaskExecutor("test-"));
+            assertTrue(error.getMessage().contains("Java 21"));
+            return;
+        }
+
+        ExecutorService executor = VirtualThreads.newPerTaskExecutor("test-");
+        try {
+            Thread thread = executor.submit(Thread::currentThread).get();
+            assertTrue(VirtualThreads.isVirtual(thread));
+            assertTrue(thread.getName().startsWith("test-"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void platformThreadsAreNotVirtual() {
+        assertFalse(VirtualThreads.isVirtual(Thread.currentThread()));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.kanbanboardbackend.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TicketIdGeneratorTest {
+
+    @Test
+    void newIdsAreVersion7AndIncreasing() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(TicketIdGenerator.newId());
+        }
+
+        for (int i = 0; i < ids.size(); i++) {
+            UUID uuid = UUID.fromString(ids.get(i));
+            assertEquals(7, uuid.version());
+            assertEquals(2, uuid.variant());
+            if (i > 0) {
+                // the lowercase hex form sorts like the 128-bit number, as databases compare UUIDs
+                assertTrue(ids.get(i - 1).compareTo(ids.get(i)) < 0, ids.get(i - 1) + " before " + ids.get(i));
+            }
+        }
+        long millis = UUID.fromString(ids.get(0)).getMostSignificantBits() >>> 16;
+        assertTrue(Math.abs(System.currentTimeMillis() - millis) < 60_000);
+    }
+
+    @Test
+    void idsAreNormalizedToLowercaseWithDashes() {
+        String stored = "1b1a957e-4335-470e-babe-60d32b17aa2d";
+        assertEquals(stored, TicketIdGenerator.normalize(stored));
+        assertEquals(stored, TicketIdGenerator.normalize("1B1A957E-4335-470E-BABE-60D32B17AA2D"));
+        assertEquals(stored, TicketIdGenerator.normalize("1b1a957e4335470ebabe60d32b17aa2d"));
+
+        assertNull(TicketIdGenerator.normalize(null));
+        assertNull(TicketIdGenerator.normalize("no-such-ticket"));
+        assertNull(TicketIdGenerator.normalize("1-1-1-1-1"));
+        assertNull(TicketIdGenerator.normalize("1b1a957e-4335-470e-babe-60d32b17aa2g"));
+        assertNull(TicketIdGenerator.normalize("1b1a957e+4335-470e-babe-60d32b17aa2d"));
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.kanbanboardbackend.repository;
+
+import com.example.kanbanboardbackend.KanbanBoardBackendApplication;
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.Ticket;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.services.TicketService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FileStorageTest {
+
+    @TempDir
+    Path storageDir;
+
+    @Test
+    void boardSurvivesARestart() throws Exception {
+        String savedId;
+        try (ConfigurableApplicationContext context = start()) {
+            savedId = context.getBean(TicketService.class)
+                    .save(Board.DEFAULT_ID, Ticket.builder().title("kept").content("content").status(TicketStatus.done).build())
+                    .getId();
+        }
+
+        try (ConfigurableApplicationContext context = start()) {
+            List<FullTicket> done = context.getBean(TicketService.class).getAll(Board.DEFAULT_ID).get(TicketStatus.done);
+            assertEquals(2, done.size());
+            assertEquals(savedId, done.get(1).getId());
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(KanbanBoardBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("h2file")
+                .properties("kanban.storage.dir=" + this.storageDir)
+                .run();
+    }
+}
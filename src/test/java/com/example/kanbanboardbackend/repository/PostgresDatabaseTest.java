@@ -0,0 +1,62 @@
+package com.example.kanbanboardbackend.repository;
+
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.MoveRequest;
+import com.example.kanbanboardbackend.model.Ticket;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.services.TicketService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The postgres profile against a real PostgreSQL, the one {@code KANBAN_DB_HOST} and the other {@code KANBAN_DB_*}
+ * variables point at, so the migrations in {@code db/vendor/postgresql} run as they would in production.
+ * Skipped when {@code KANBAN_DB_HOST} is not set.
+ */
+@ActiveProfiles("postgres")
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "KANBAN_DB_HOST", matches = ".+")
+public class PostgresDatabaseTest {
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void ticketIdsAreStoredAsUuids() {
+        List<String> types = jdbcTemplate.queryForList(
+                "SELECT data_type FROM information_schema.columns WHERE table_name = 'tickets' AND column_name IN ('id', 'next_id')",
+                String.class);
+        assertEquals(List.of("uuid", "uuid"), types);
+    }
+
+    @Test
+    void ticketsCanBeSavedMovedAndDeleted() throws Exception {
+        FullTicket first = ticketService.save(Board.DEFAULT_ID, Ticket.builder().title("first on postgres").content("content").status(TicketStatus.toTest).build());
+        FullTicket second = ticketService.save(Board.DEFAULT_ID, Ticket.builder().title("second on postgres").content("content").status(TicketStatus.toTest).build());
+        try {
+            ticketService.moveTicket(new MoveRequest(second.getId(), ticketService.findByNextId(first.getId()).getId()));
+
+            assertEquals(first.getId(), ticketService.findById(second.getId()).getNextId());
+            List<String> column = ticketService.getAll(Board.DEFAULT_ID).get(TicketStatus.toTest).stream()
+                    .map(FullTicket::getId)
+                    .collect(Collectors.toList());
+            assertEquals(column.indexOf(second.getId()) + 1, column.indexOf(first.getId()));
+        } finally {
+            ticketService.deleteById(second.getId());
+            ticketService.deleteById(first.getId());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.kanbanboardbackend.repository;
+
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.MoveRequest;
+import com.example.kanbanboardbackend.model.Ticket;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.services.TicketService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The postgres profile, with its dialect and the Flyway migrations, run against H2 in PostgreSQL mode.
+ */
+@ActiveProfiles("postgres")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:postgrestestdb;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+public class PostgresProfileTest {
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Test
+    void seededBoardIsMigratedAndCanBeChanged() throws Exception {
+        assertEquals(List.of("toDoRoot", "first toDo", "second toDo", "third toDo"), titles(ticketService.getAll(Board.DEFAULT_ID).get(TicketStatus.toDo)));
+
+        FullTicket saved = ticketService.save(Board.DEFAULT_ID, Ticket.builder().title("fourth toDo").content("content").status(TicketStatus.toDo).build());
+        FullTicket first = ticketService.getAll(Board.DEFAULT_ID).get(TicketStatus.toDo).get(1);
+        ticketService.moveTicket(new MoveRequest(saved.getId(), first.getId()));
+
+        List<FullTicket> inBoardOrder = new ArrayList<>();
+        ticketService.forEachInBoardOrder(Board.DEFAULT_ID, inBoardOrder::add);
+        assertEquals(List.of("toDoRoot", "first toDo", "fourth toDo", "second toDo", "third toDo", "toTestRoot", "doneRoot"),
+                titles(inBoardOrder));
+    }
+
+    private static List<String> titles(List<FullTicket> tickets) {
+        return tickets.stream().map(FullTicket::getTitle).collect(Collectors.toList());
+    }
+}
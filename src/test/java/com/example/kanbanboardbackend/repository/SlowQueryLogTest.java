@@ -0,0 +1,66 @@
+package com.example.kanbanboardbackend.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener.RepositoryMethodInvocation;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener.RepositoryMethodInvocationResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(OutputCaptureExtension.class)
+public class SlowQueryLogTest {
+
+    private final SlowQueryLog slowQueryLog = new SlowQueryLog();
+
+    @Test
+    void onlyQueriesOverTheThresholdAreLogged(CapturedOutput output) {
+        configure(100, 1.0);
+
+        slowQueryLog.afterInvocation(invocation("countByBoardIdAndStatus", 20));
+        slowQueryLog.afterInvocation(invocation("findByBoardIdAndStatusAndNextIdIsNull", 150));
+
+        assertFalse(output.getOut().contains("countByBoardIdAndStatus"));
+        assertTrue(output.getOut().contains("Slow query repository=TicketRepository method=findByBoardIdAndStatusAndNextIdIsNull durationMs=150 outcome=SUCCESS"));
+    }
+
+    @Test
+    void unsampledSlowQueriesAreSkipped(CapturedOutput output) {
+        configure(100, 0.0);
+
+        slowQueryLog.afterInvocation(invocation("findByBoardIdAndStatusAndNextIdIsNull", 150));
+
+        assertFalse(output.getOut().contains("Slow query"));
+    }
+
+    private void configure(long thresholdMs, double sampleRate) {
+        ReflectionTestUtils.setField(slowQueryLog, "thresholdMs", thresholdMs);
+        ReflectionTestUtils.setField(slowQueryLog, "sampleRate", sampleRate);
+    }
+
+    private RepositoryMethodInvocation invocation(String methodName, long durationMs) {
+        RepositoryMethodInvocationResult result = new RepositoryMethodInvocationResult() {
+            @Override
+            public State getState() {
+                return State.SUCCESS;
+            }
+
+            @Override
+            public Throwable getError() {
+                return null;
+            }
+        };
+        Method method = Arrays.stream(TicketRepository.class.getMethods())
+                .filter(candidate -> candidate.getName().equals(methodName))
+                .findFirst()
+                .orElseThrow();
+        return new RepositoryMethodInvocation(TicketRepository.class, method, result, TimeUnit.MILLISECONDS.toNanos(durationMs));
+    }
+}
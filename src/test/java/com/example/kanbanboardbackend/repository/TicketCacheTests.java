@@ -0,0 +1,134 @@
+package com.example.kanbanboardbackend.repository;
+
+import com.example.kanbanboardbackend.KanbanBoardBackendApplication;
+import com.example.kanbanboardbackend.error.TicketNotFoundException;
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.MoveRequest;
+import com.example.kanbanboardbackend.model.Ticket;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.services.TicketService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = KanbanBoardBackendApplication.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:ticketcachetestdb",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class TicketCacheTests {
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TicketCache ticketCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @Before
+    public void resetStatistics() {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.statistics.clear();
+    }
+
+    @Test
+    public void givenTicketReadOnce_laterReadsByIdComeFromTheCache() throws Exception {
+        FullTicket saved = ticketService.save(Board.DEFAULT_ID, ticket("cached", TicketStatus.toDo));
+
+        ticketService.findById(saved.getId());
+        ticketService.findById(saved.getId());
+
+        assertTrue(statistics.getSecondLevelCacheHitCount() >= 2);
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void givenNextIdLookupRepeated_itIsAnsweredFromTheQueryCache() throws Exception {
+        FullTicket saved = ticketService.save(Board.DEFAULT_ID, ticket("looked up", TicketStatus.toTest));
+
+        FullTicket first = ticketService.findByNextId(saved.getId());
+        FullTicket second = ticketService.findByNextId(saved.getId());
+
+        assertEquals(first, second);
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    public void givenTicketsWritten_cachedReadsFollowEveryWrite() throws Exception {
+        FullTicket first = ticketService.save(Board.DEFAULT_ID, ticket("first", TicketStatus.done));
+        FullTicket second = ticketService.save(Board.DEFAULT_ID, ticket("second", TicketStatus.done));
+        FullTicket root = ticketService.findByNextId(first.getId());
+        ticketService.findById(first.getId());
+        ticketService.findById(second.getId());
+
+        ticketService.moveTicket(new MoveRequest(second.getId(), root.getId()));
+        assertEquals(first.getId(), ticketService.findById(second.getId()).getNextId());
+        assertEquals(second.getId(), ticketService.findById(root.getId()).getNextId());
+        assertEquals(root.getId(), ticketService.findByNextId(second.getId()).getId());
+        assertNull(ticketService.findById(first.getId()).getNextId());
+
+        ticketService.update(first.getId(), ticket("first, edited", TicketStatus.toTest));
+        assertEquals("first, edited", ticketService.findById(first.getId()).getTitle());
+        assertNull(ticketService.findById(second.getId()).getNextId());
+
+        ticketService.deleteById(second.getId());
+        assertThrows(TicketNotFoundException.class, () -> ticketService.findById(second.getId()));
+        assertNull(ticketService.findById(root.getId()).getNextId());
+    }
+
+    @Test
+    public void givenWriteAroundHibernate_evictingTheCacheShowsIt() throws Exception {
+        FullTicket saved = ticketService.save(Board.DEFAULT_ID, ticket("before", TicketStatus.toDo));
+        ticketService.findById(saved.getId());
+
+        jdbcTemplate.update("UPDATE tickets SET title = 'after' WHERE id = ?", UUID.fromString(saved.getId()));
+        assertEquals("before", ticketRepository.findById(saved.getId()).orElseThrow().getTitle());
+
+        ticketCache.evictAll();
+        assertEquals("after", ticketRepository.findById(saved.getId()).orElseThrow().getTitle());
+    }
+
+    @Test
+    public void hitsAndMissesAreExposedAsMetrics() throws Exception {
+        FullTicket saved = ticketService.save(Board.DEFAULT_ID, ticket("measured", TicketStatus.toDo));
+        double hits = cacheRequests("hit");
+        ticketService.findById(saved.getId());
+
+        assertEquals(hits + 1, cacheRequests("hit"), 0);
+        assertNotNull(meterRegistry.find("hibernate.cache.query.requests").tag("result", "miss").functionCounter());
+    }
+
+    private double cacheRequests(String result) {
+        return meterRegistry.get("hibernate.second.level.cache.requests").tag("region", FullTicket.CACHE_REGION).tag("result", result).functionCounter().count();
+    }
+
+    private Ticket ticket(String title, TicketStatus ticketStatus) {
+        return Ticket.builder().title(title).content("content").status(ticketStatus).build();
+    }
+}
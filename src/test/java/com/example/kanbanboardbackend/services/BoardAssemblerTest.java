@@ -0,0 +1,104 @@
+package com.example.kanbanboardbackend.services;
+
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoardAssemblerTest {
+
+    @Test
+    void shuffledRowsComeBackInChainOrder() {
+        Map<TicketStatus, List<FullTicket>> board = board(10);
+        List<FullTicket> rows = shuffled(board);
+
+        assertEquals(board, BoardAssembler.assemble(rows));
+        assertEquals(board.get(TicketStatus.toTest), BoardAssembler.column(TicketStatus.toTest, board.get(TicketStatus.toTest)));
+    }
+
+    @Test
+    void largeBoardsAreWalkedInParallelToTheSameResult() {
+        Map<TicketStatus, List<FullTicket>> board = board(BoardAssembler.PARALLEL_THRESHOLD / 3 + 1);
+
+        assertEquals(board, BoardAssembler.assemble(shuffled(board)));
+    }
+
+    @Test
+    void cycleEndsTheWalkWithAnError() {
+        Map<TicketStatus, List<FullTicket>> board = board(1000);
+        List<FullTicket> toDo = board.get(TicketStatus.toDo);
+        toDo.get(toDo.size() - 1).setNextId(toDo.get(1).getId());
+
+        IllegalStateException error = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> assertThrows(IllegalStateException.class, () -> BoardAssembler.assemble(shuffled(board))));
+        assertTrue(error.getMessage().contains("Cycle"));
+    }
+
+    @Test
+    void missingRootIsAnError() {
+        Map<TicketStatus, List<FullTicket>> board = board(5);
+        board.get(TicketStatus.done).get(0).setIsRoot(false);
+
+        assertThrows(IllegalStateException.class, () -> BoardAssembler.assemble(shuffled(board)));
+    }
+
+    @Test
+    void walkStopsAtATicketOfAnotherColumn() {
+        Map<TicketStatus, List<FullTicket>> board = board(5);
+        List<FullTicket> toDo = board.get(TicketStatus.toDo);
+        toDo.get(2).setNextId(board.get(TicketStatus.done).get(1).getId());
+
+        assertEquals(toDo.subList(0, 3), BoardAssembler.assemble(shuffled(board)).get(TicketStatus.toDo));
+    }
+
+    @Test
+    void movedTicketIsSplicedInNextToItsNeighbours() {
+        List<FullTicket> toDo = board(6).get(TicketStatus.toDo);
+        // toDo-4 moved after toDo-1, relinking toDo-1 and toDo-3 as well
+        toDo.get(3).setNextId(toDo.get(5).getId());
+        toDo.get(4).setNextId(toDo.get(2).getId());
+        toDo.get(1).setNextId(toDo.get(4).getId());
+        List<FullTicket> column = new ArrayList<>(List.of(toDo.get(0), toDo.get(2), toDo.get(5)));
+
+        assertTrue(BoardAssembler.splice(column, List.of(toDo.get(3), toDo.get(4), toDo.get(1))));
+        assertEquals(List.of("toDo-0", "toDo-1", "toDo-4", "toDo-2", "toDo-3", "toDo-5"),
+                column.stream().map(FullTicket::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void ticketWhoseNeighboursDoNotLinkToItIsNotSpliced() {
+        List<FullTicket> toDo = board(6).get(TicketStatus.toDo);
+        // the commit that relinked toDo-1 and toDo-3 has not arrived yet
+        toDo.get(4).setNextId(toDo.get(2).getId());
+        List<FullTicket> column = new ArrayList<>(List.of(toDo.get(0), toDo.get(1), toDo.get(2), toDo.get(3), toDo.get(5)));
+
+        assertFalse(BoardAssembler.splice(column, List.of(toDo.get(4))));
+    }
+
+    private static Map<TicketStatus, List<FullTicket>> board(int columnSize) {
+        Map<TicketStatus, List<FullTicket>> board = new EnumMap<>(TicketStatus.class);
+        for (TicketStatus ticketStatus : TicketStatus.values()) {
+            List<FullTicket> column = new ArrayList<>();
+            for (int i = 0; i < columnSize; i++) {
+                column.add(FullTicket.builder().id(ticketStatus + "-" + i).title("t").content("c")
+                        .status(ticketStatus).isRoot(i == 0).build());
+            }
+            for (int i = 0; i + 1 < columnSize; i++) {
+                column.get(i).setNextId(column.get(i + 1).getId());
+            }
+            board.put(ticketStatus, column);
+        }
+        return board;
+    }
+
+    private static List<FullTicket> shuffled(Map<TicketStatus, List<FullTicket>> board) {
+        List<FullTicket> rows = board.values().stream().flatMap(List::stream).collect(Collectors.toList());
+        Collections.shuffle(rows, new Random(42));
+        return rows;
+    }
+}
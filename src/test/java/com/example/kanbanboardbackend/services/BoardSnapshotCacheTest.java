@@ -0,0 +1,30 @@
+package com.example.kanbanboardbackend.services;
+
+import org.junit.jupiter.api.Test;
+
+import static com.example.kanbanboardbackend.services.BoardSnapshotCache.Format.CBOR;
+import static com.example.kanbanboardbackend.services.BoardSnapshotCache.Format.COLUMNS_JSON;
+import static com.example.kanbanboardbackend.services.BoardSnapshotCache.Format.JSON;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoardSnapshotCacheTest {
+
+    @Test
+    void formatFollowsTheAcceptHeader() {
+        assertEquals(JSON, BoardSnapshotCache.Format.accepted(null));
+        assertEquals(JSON, BoardSnapshotCache.Format.accepted("*/*"));
+        assertEquals(JSON, BoardSnapshotCache.Format.accepted("text/html"));
+        assertEquals(JSON, BoardSnapshotCache.Format.accepted("not a media type"));
+        assertEquals(CBOR, BoardSnapshotCache.Format.accepted("application/cbor"));
+        assertEquals(CBOR, BoardSnapshotCache.Format.accepted("application/json;q=0.5, application/cbor"));
+        assertEquals(JSON, BoardSnapshotCache.Format.accepted("application/cbor;q=0, */*"));
+        assertEquals(COLUMNS_JSON, BoardSnapshotCache.Format.accepted("application/vnd.kanban.columns+json"));
+        assertEquals(JSON, BoardSnapshotCache.Format.accepted("application/*"));
+    }
+
+    @Test
+    void etagsOfAVersionAreMatchedWeakly() {
+        assertTrue(BoardSnapshotCache.matches("W/\"a-1\", \"a-2\"", "\"a-1\""));
+        assertFalse(BoardSnapshotCache.matches("\"a-1-cbor\"", "\"a-1\""));
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.kanbanboardbackend.services;
+
+import com.example.kanbanboardbackend.model.TicketStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ColumnLocksTest {
+
+    private final ColumnLocks columnLocks = new ColumnLocks();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void writeToAnotherColumnProceedsWhileOneIsHeld() throws Exception {
+        try (ColumnLocks.Held held = columnLocks.lock("board", TicketStatus.toDo)) {
+            lockOnAnotherThread("board", TicketStatus.done).get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void writeToTheSameColumnOfAnotherBoardProceedsWhileOneIsHeld() throws Exception {
+        try (ColumnLocks.Held held = columnLocks.lock("board", TicketStatus.toDo)) {
+            lockOnAnotherThread("other-board", TicketStatus.toDo).get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void writeToTheSameColumnWaitsUntilItIsReleased() throws Exception {
+        Future<?> waiting;
+        try (ColumnLocks.Held held = columnLocks.lock("board", TicketStatus.toDo)) {
+            waiting = lockOnAnotherThread("board", TicketStatus.done, TicketStatus.toDo);
+            assertThrows(TimeoutException.class, () -> waiting.get(100, TimeUnit.MILLISECONDS));
+        }
+        waiting.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void crossColumnWritesInOppositeOrderDoNotDeadlock() throws Exception {
+        List<Future<?>> writes = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            writes.add(lockOnAnotherThread("board", i % 2 == 0
+                    ? new TicketStatus[]{TicketStatus.toDo, TicketStatus.done}
+                    : new TicketStatus[]{TicketStatus.done, TicketStatus.toDo}));
+        }
+        for (Future<?> write : writes) {
+            write.get(30, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void locksOfReleasedColumnsAreDropped() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            lockOnAnotherThread("board-" + i, TicketStatus.toDo, TicketStatus.done).get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(0, columnLocks.size());
+
+        Future<?> waiting;
+        try (ColumnLocks.Held held = columnLocks.lock("board", TicketStatus.toDo)) {
+            waiting = lockOnAnotherThread("board", TicketStatus.toDo);
+            assertThrows(TimeoutException.class, () -> waiting.get(100, TimeUnit.MILLISECONDS));
+            // kept while a write waits for it
+            assertEquals(1, columnLocks.size());
+        }
+        waiting.get(5, TimeUnit.SECONDS);
+        assertEquals(0, columnLocks.size());
+    }
+
+    private Future<?> lockOnAnotherThread(String boardId, TicketStatus... columns) {
+        return this.executor.submit(() -> {
+            try (ColumnLocks.Held held = columnLocks.lock(boardId, columns)) {
+                Thread.yield();
+            }
+        });
+    }
+}
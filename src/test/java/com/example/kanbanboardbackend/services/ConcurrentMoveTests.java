@@ -0,0 +1,157 @@
+package com.example.kanbanboardbackend.services;
+
+import com.example.kanbanboardbackend.KanbanBoardBackendApplication;
+import com.example.kanbanboardbackend.error.TicketConflictException;
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.MoveRequest;
+import com.example.kanbanboardbackend.model.Ticket;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.repository.TicketRepository;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = KanbanBoardBackendApplication.class, properties = "spring.datasource.url=jdbc:h2:mem:concurrentmovetestdb")
+public class ConcurrentMoveTests {
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private TicketOrdering ticketOrdering;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TicketListVerifier ticketListVerifier;
+
+    @Test
+    public void givenConcurrentMoves_everyTicketStaysOnTheBoardExactlyOnce() throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            ids.add(ticketService.save(Board.DEFAULT_ID, Ticket.builder()
+                    .title("ticket " + i).content("content").status(TicketStatus.values()[i % 3]).build()).getId());
+        }
+        ticketRepository.findAll().stream().filter(FullTicket::getIsRoot).forEach(root -> ids.add(root.getId()));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> conflicts = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            Random random = new Random(thread);
+            conflicts.add(executor.submit(() -> {
+                int conflicted = 0;
+                for (int i = 0; i < 40; i++) {
+                    String moved = ids.get(random.nextInt(12));
+                    String afterThisOne = ids.get(random.nextInt(ids.size()));
+                    try {
+                        ticketService.moveTicket(new MoveRequest(moved, afterThisOne));
+                    } catch (TicketConflictException e) {
+                        conflicted++;
+                    }
+                }
+                return conflicted;
+            }));
+        }
+        for (Future<Integer> future : conflicts) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        List<String> onBoard = ticketOrdering.readBoard(Board.DEFAULT_ID).values().stream()
+                .flatMap(Collection::stream)
+                .map(FullTicket::getId)
+                .collect(Collectors.toList());
+        assertEquals(ticketRepository.count(), onBoard.size());
+        assertEquals(onBoard.size(), new HashSet<>(onBoard).size());
+        assertEquals(ticketOrdering.readBoard(Board.DEFAULT_ID), ticketService.getAll(Board.DEFAULT_ID));
+    }
+
+    @Test
+    public void givenConcurrentMovesWithinEachColumn_everyListStaysIntact() throws Exception {
+        for (int i = 0; i < 18; i++) {
+            ticketService.save(Board.DEFAULT_ID, Ticket.builder()
+                    .title("ticket " + i).content("content").status(TicketStatus.values()[i % 3]).build());
+        }
+        Map<TicketStatus, Set<String>> before = new EnumMap<>(TicketStatus.class);
+        ticketOrdering.readBoard(Board.DEFAULT_ID).forEach((ticketStatus, column) ->
+                before.put(ticketStatus, column.stream().map(FullTicket::getId).collect(Collectors.toSet())));
+
+        // two writers per column, each column behind its own lock
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int thread = 0; thread < 6; thread++) {
+            List<FullTicket> column = ticketOrdering.readBoard(Board.DEFAULT_ID).get(TicketStatus.values()[thread % 3]);
+            // the root stays where it is, everything else moves behind any ticket of the column
+            List<String> movable = column.stream().filter(ticket -> !ticket.getIsRoot()).map(FullTicket::getId).collect(Collectors.toList());
+            List<String> targets = column.stream().map(FullTicket::getId).collect(Collectors.toList());
+            Random random = new Random(thread);
+            writers.add(executor.submit(() -> {
+                for (int i = 0; i < 40; i++) {
+                    String moved = movable.get(random.nextInt(movable.size()));
+                    String afterThisOne = targets.get(random.nextInt(targets.size()));
+                    try {
+                        ticketService.moveTicket(new MoveRequest(moved, afterThisOne));
+                    } catch (TicketConflictException e) {
+                        // lost the race for one of its tickets, the next move goes on
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        var report = ticketListVerifier.verify(Board.DEFAULT_ID);
+        assertTrue(report.toString(), report.isIntact());
+        var board = ticketOrdering.readBoard(Board.DEFAULT_ID);
+        for (TicketStatus ticketStatus : TicketStatus.values()) {
+            List<String> column = board.get(ticketStatus).stream().map(FullTicket::getId).collect(Collectors.toList());
+            assertEquals(before.get(ticketStatus), new HashSet<>(column));
+            assertEquals(column.size(), before.get(ticketStatus).size());
+        }
+        assertEquals(board, ticketService.getAll(Board.DEFAULT_ID));
+    }
+
+    @Test
+    public void givenConcurrentSavesToAllColumns_noneIsLostAndEachColumnHasOneTail() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(9);
+        List<Future<FullTicket>> saves = new ArrayList<>();
+        for (int i = 0; i < 90; i++) {
+            TicketStatus ticketStatus = TicketStatus.values()[i % 3];
+            String title = "saved " + i;
+            saves.add(executor.submit(() -> ticketService.save(Board.DEFAULT_ID, Ticket.builder()
+                    .title(title).content("content").status(ticketStatus).build())));
+        }
+        Set<String> saved = new HashSet<>();
+        for (Future<FullTicket> save : saves) {
+            saved.add(save.get(1, TimeUnit.MINUTES).getId());
+        }
+        executor.shutdown();
+
+        var board = ticketOrdering.readBoard(Board.DEFAULT_ID);
+        Set<String> onBoard = board.values().stream()
+                .flatMap(Collection::stream)
+                .map(FullTicket::getId)
+                .collect(Collectors.toSet());
+        assertTrue(onBoard.containsAll(saved));
+        assertEquals(ticketRepository.count(), onBoard.size());
+        for (TicketStatus ticketStatus : TicketStatus.values()) {
+            List<FullTicket> column = board.get(ticketStatus);
+            assertEquals(column.get(column.size() - 1), ticketService.findLast(Board.DEFAULT_ID, ticketStatus));
+        }
+        assertEquals(board, ticketService.getAll(Board.DEFAULT_ID));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.example.kanbanboardbackend.services;
+
+import com.example.kanbanboardbackend.KanbanBoardBackendApplication;
+import com.example.kanbanboardbackend.error.BoardNotFoundException;
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.MoveRequest;
+import com.example.kanbanboardbackend.model.Ticket;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = KanbanBoardBackendApplication.class, properties = "spring.datasource.url=jdbc:h2:mem:multiboardtestdb")
+public class MultiBoardTests {
+
+    @Autowired
+    private BoardService boardService;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private TicketOrdering ticketOrdering;
+
+    @Autowired
+    private TicketBoardProjection boardProjection;
+
+    @Test
+    public void givenNewBoard_everyColumnStartsWithItsRoot() throws Exception {
+        Board board = boardService.create(Board.builder().name("new").build());
+
+        var columns = ticketService.getAll(board.getId());
+        for (TicketStatus ticketStatus : TicketStatus.values()) {
+            assertEquals(1, columns.get(ticketStatus).size());
+            assertTrue(columns.get(ticketStatus).get(0).getIsRoot());
+        }
+    }
+
+    @Test
+    public void givenTwoBoards_ticketsStayOnTheirBoard() throws Exception {
+        Board board = boardService.create(Board.builder().name("other").build());
+        FullTicket saved = ticketService.save(board.getId(), ticket("on other board", TicketStatus.toDo));
+
+        assertEquals(board.getId(), saved.getBoardId());
+        assertTrue(ids(board.getId()).contains(saved.getId()));
+        assertFalse(ids(Board.DEFAULT_ID).contains(saved.getId()));
+        assertEquals(saved, ticketService.findLast(board.getId(), TicketStatus.toDo));
+        assertEquals(List.of(saved), ticketService.search(board.getId(), "other board", null, 0, 10).getTickets());
+        assertEquals(List.of(), ticketService.search(Board.DEFAULT_ID, "other board", null, 0, 10).getTickets());
+    }
+
+    @Test
+    public void givenCommittedChanges_eachBoardsProjectionMatchesTheRepository() throws Exception {
+        Board board = boardService.create(Board.builder().name("projected").build());
+        FullTicket first = ticketService.save(board.getId(), ticket("first", TicketStatus.toDo));
+        FullTicket second = ticketService.save(board.getId(), ticket("second", TicketStatus.toDo));
+        ticketService.save(Board.DEFAULT_ID, ticket("default", TicketStatus.toDo));
+
+        ticketService.moveTicket(new MoveRequest(second.getId(), ticketService.getAll(board.getId()).get(TicketStatus.toDo).get(0).getId()));
+        ticketService.update(first.getId(), ticket("first, done", TicketStatus.done));
+
+        assertTrue(boardProjection.isReady(board.getId()));
+        assertEquals(ticketOrdering.readBoard(board.getId()), ticketService.getAll(board.getId()));
+        assertEquals(ticketOrdering.readBoard(Board.DEFAULT_ID), ticketService.getAll(Board.DEFAULT_ID));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void givenTicketsOnDifferentBoards_whenMoving_thenRejected() throws Exception {
+        Board board = boardService.create(Board.builder().name("separate").build());
+        FullTicket saved = ticketService.save(board.getId(), ticket("separate", TicketStatus.toDo));
+        String defaultRoot = ticketService.getAll(Board.DEFAULT_ID).get(TicketStatus.toDo).get(0).getId();
+
+        ticketService.moveTicket(new MoveRequest(saved.getId(), defaultRoot));
+    }
+
+    @Test(expected = BoardNotFoundException.class)
+    public void givenUnknownBoard_whenSaving_thenNotFound() throws Exception {
+        ticketService.save("no-such-board", ticket("lost", TicketStatus.toDo));
+    }
+
+    @Test(expected = BoardNotFoundException.class)
+    public void givenUnknownBoard_whenReading_thenNotFound() throws Exception {
+        ticketService.getAll("no-such-board");
+    }
+
+    private List<String> ids(String boardId) throws Exception {
+        return ticketService.findAllAsList(boardId).stream().map(FullTicket::getId).collect(Collectors.toList());
+    }
+
+    private Ticket ticket(String title, TicketStatus ticketStatus) {
+        return Ticket.builder().title(title).content("content").status(ticketStatus).build();
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.kanbanboardbackend.services;
+
+import com.example.kanbanboardbackend.KanbanBoardBackendApplication;
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.ColumnPage;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.MoveRequest;
+import com.example.kanbanboardbackend.model.Ticket;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import com.example.kanbanboardbackend.repository.TicketRepository;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = KanbanBoardBackendApplication.class, properties = {
+        "kanban.ordering.mode=rank",
+        "kanban.ordering.migrate-to-rank=true",
+        "spring.datasource.url=jdbc:h2:mem:ranktestdb"
+})
+@Transactional
+public class RankTicketOrderingTests {
+
+    private static final String ROOT_TO_DO = "1b1a957e-4335-470e-babe-60d32b17aa2d";
+    private static final String ROOT_TO_TEST = "103fe588-fefa-4814-9bf3-6055f0149adb";
+    private static final String FIRST_TO_DO = "2e25ddd1-602e-4f94-ab54-fc0147989042";
+    private static final String SECOND_TO_DO = "c0ed5dfa-8eb9-40f4-a425-2065b97631a5";
+    private static final String THIRD_TO_DO = "e3929b60-6910-4a54-b4f1-324af7180fa6";
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private RankTicketOrdering rankTicketOrdering;
+
+    @Test
+    public void givenLinkedSeedData_ranksAreBackfilledInChainOrder() throws Exception {
+        assertEquals(List.of(ROOT_TO_DO, FIRST_TO_DO, SECOND_TO_DO, THIRD_TO_DO), ids(TicketStatus.toDo));
+        assertEquals(List.of(ROOT_TO_TEST), ids(TicketStatus.toTest));
+        assertTrue(ticketRepository.findAll().stream().allMatch(ticket -> ticket.getNextId() == null));
+    }
+
+    @Test
+    public void whenSaving_ticketIsAppendedAfterTheLastOne() throws Exception {
+        FullTicket saved = ticketService.save(Board.DEFAULT_ID, Ticket.builder()
+                .title("fourth").content("content").status(TicketStatus.toDo).build());
+
+        assertEquals(saved, ticketService.findLast(Board.DEFAULT_ID, TicketStatus.toDo));
+        assertEquals(List.of(ROOT_TO_DO, FIRST_TO_DO, SECOND_TO_DO, THIRD_TO_DO, saved.getId()), ids(TicketStatus.toDo));
+    }
+
+    @Test
+    public void whenExporting_ticketsComeInRankOrder() throws Exception {
+        ticketService.moveTicket(new MoveRequest(THIRD_TO_DO, ROOT_TO_DO));
+
+        List<String> exported = new ArrayList<>();
+        ticketService.forEachInBoardOrder(Board.DEFAULT_ID, ticket -> exported.add(ticket.getId()));
+
+        assertEquals(ticketService.findAllAsList(Board.DEFAULT_ID).stream().map(FullTicket::getId).collect(Collectors.toList()), exported);
+    }
+
+    @Test
+    public void givenCursor_pagesFollowTheRanks() throws Exception {
+        ColumnPage firstPage = ticketService.findColumnPage(Board.DEFAULT_ID, TicketStatus.toDo, null, 3);
+        assertEquals(List.of(ROOT_TO_DO, FIRST_TO_DO, SECOND_TO_DO),
+                firstPage.getTickets().stream().map(FullTicket::getId).collect(Collectors.toList()));
+        assertEquals(SECOND_TO_DO, firstPage.getNextCursor());
+
+        ColumnPage lastPage = ticketService.findColumnPage(Board.DEFAULT_ID, TicketStatus.toDo, SECOND_TO_DO, 3);
+        assertEquals(List.of(THIRD_TO_DO), lastPage.getTickets().stream().map(FullTicket::getId).collect(Collectors.toList()));
+        assertNull(lastPage.getNextCursor());
+    }
+
+    @Test
+    public void whenMovingLastToBeFirst_onlyTheMovedTicketChangesRank() throws Exception {
+        long firstRank = ticketService.findById(FIRST_TO_DO).getRank();
+        long secondRank = ticketService.findById(SECOND_TO_DO).getRank();
+
+        ticketService.moveTicket(new MoveRequest(THIRD_TO_DO, FIRST_TO_DO));
+
+        assertEquals(List.of(ROOT_TO_DO, FIRST_TO_DO, THIRD_TO_DO, SECOND_TO_DO), ids(TicketStatus.toDo));
+        assertEquals(firstRank, (long) ticketService.findById(FIRST_TO_DO).getRank());
+        assertEquals(secondRank, (long) ticketService.findById(SECOND_TO_DO).getRank());
+    }
+
+    @Test
+    public void whenMovingToEmptyList_ticketFollowsTheRoot() throws Exception {
+        ticketService.moveTicket(new MoveRequest(THIRD_TO_DO, ROOT_TO_TEST));
+
+        assertEquals(List.of(ROOT_TO_DO, FIRST_TO_DO, SECOND_TO_DO), ids(TicketStatus.toDo));
+        assertEquals(List.of(ROOT_TO_TEST, THIRD_TO_DO), ids(TicketStatus.toTest));
+        assertEquals(TicketStatus.toTest, ticketService.findById(THIRD_TO_DO).getStatus());
+    }
+
+    @Test
+    public void whenGapIsExhausted_columnIsRebalancedAndOrderKept() throws Exception {
+        // every move halves the gap after the root, 40 of them use up a 2^32 gap
+        String moved = THIRD_TO_DO;
+        String other = SECOND_TO_DO;
+        for (int i = 0; i < 40; i++) {
+            ticketService.moveTicket(new MoveRequest(moved, ROOT_TO_DO));
+            String swap = moved;
+            moved = other;
+            other = swap;
+        }
+
+        assertEquals(List.of(ROOT_TO_DO, SECOND_TO_DO, THIRD_TO_DO, FIRST_TO_DO), ids(TicketStatus.toDo));
+    }
+
+    @Test
+    public void givenTicketWithTheRankOfAnother_whenFlushing_thenTheIndexRejectsIt() throws Exception {
+        FullTicket third = ticketRepository.getById(THIRD_TO_DO);
+        third.setRank(ticketRepository.getById(SECOND_TO_DO).getRank());
+
+        assertThrows(DataIntegrityViolationException.class, () -> ticketRepository.saveAndFlush(third));
+    }
+
+    @Test
+    public void givenNarrowGap_whenLookingForPendingRebalances_thenItsColumnIsFound() throws Exception {
+        FullTicket first = ticketRepository.getById(FIRST_TO_DO);
+        first.setRank(ticketRepository.getById(ROOT_TO_DO).getRank() + 1);
+        ticketRepository.saveAndFlush(first);
+
+        rankTicketOrdering.findPendingRebalances();
+
+        assertTrue(rankTicketOrdering.getPendingRebalances().contains(new BoardColumn(Board.DEFAULT_ID, TicketStatus.toDo)));
+        assertFalse(rankTicketOrdering.getPendingRebalances().contains(new BoardColumn(Board.DEFAULT_ID, TicketStatus.toTest)));
+    }
+
+    @Test
+    public void givenLinkedTickets_withoutMigratingToRank_thenStartupFails() throws Exception {
+        SpringApplicationBuilder application = new SpringApplicationBuilder(KanbanBoardBackendApplication.class)
+                .web(WebApplicationType.NONE);
+
+        assertThrows(IllegalStateException.class, () -> application.run("--kanban.ordering.mode=rank",
+                "--spring.datasource.url=jdbc:h2:mem:ranknotmigrated"));
+    }
+
+    private List<String> ids(TicketStatus ticketStatus) throws Exception {
+        return ticketService.getAll(Board.DEFAULT_ID).get(ticketStatus)
+                .stream()
+                .map(FullTicket::getId)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.kanbanboardbackend.services;
+
+import com.example.kanbanboardbackend.KanbanBoardBackendApplication;
+import com.example.kanbanboardbackend.error.TicketNotFoundException;
+import com.example.kanbanboardbackend.model.Board;
+import com.example.kanbanboardbackend.model.ColumnPage;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.MoveRequest;
+import com.example.kanbanboardbackend.model.Ticket;
+import com.example.kanbanboardbackend.model.TicketSearchPage;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = KanbanBoardBackendApplication.class, properties = "spring.datasource.url=jdbc:h2:mem:projectiontestdb")
+public class TicketBoardProjectionTests {
+
+    private static final String ROOT_TO_TEST = "103fe588-fefa-4814-9bf3-6055f0149adb";
+    private static final String FIRST_TO_DO = "2e25ddd1-602e-4f94-ab54-fc0147989042";
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private TicketOrdering ticketOrdering;
+
+    @Autowired
+    private TicketBoardProjection boardProjection;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void givenStartup_boardIsServedFromTheProjection() throws Exception {
+        assertTrue(boardProjection.isReady(Board.DEFAULT_ID));
+        assertSame(boardProjection.getColumns(Board.DEFAULT_ID), ticketService.getAll(Board.DEFAULT_ID));
+        assertEquals(ticketOrdering.readBoard(Board.DEFAULT_ID), ticketService.getAll(Board.DEFAULT_ID));
+    }
+
+    @Test
+    public void givenCommittedChanges_projectionMatchesTheRepository() throws Exception {
+        double resorts = meterRegistry.counter(TicketBoardProjection.RESORTS).count();
+        FullTicket first = ticketService.save(Board.DEFAULT_ID, ticket("first", TicketStatus.toDo));
+        FullTicket second = ticketService.save(Board.DEFAULT_ID, ticket("second", TicketStatus.toTest));
+        assertEquals(ticketOrdering.readBoard(Board.DEFAULT_ID), ticketService.getAll(Board.DEFAULT_ID));
+
+        ticketService.moveTicket(new MoveRequest(first.getId(), ROOT_TO_TEST));
+        assertEquals(ticketOrdering.readBoard(Board.DEFAULT_ID), ticketService.getAll(Board.DEFAULT_ID));
+
+        ticketService.moveTicket(new MoveRequest(second.getId(), FIRST_TO_DO));
+        assertEquals(ticketOrdering.readBoard(Board.DEFAULT_ID), ticketService.getAll(Board.DEFAULT_ID));
+
+        ticketService.update(first.getId(), ticket("renamed", TicketStatus.toTest));
+        assertEquals(ticketOrdering.readBoard(Board.DEFAULT_ID), ticketService.getAll(Board.DEFAULT_ID));
+
+        ticketService.update(second.getId(), ticket("to done", TicketStatus.done));
+        assertEquals(ticketOrdering.readBoard(Board.DEFAULT_ID), ticketService.getAll(Board.DEFAULT_ID));
+
+        ticketService.deleteById(first.getId());
+        ticketService.deleteById(second.getId());
+        assertEquals(ticketOrdering.readBoard(Board.DEFAULT_ID), ticketService.getAll(Board.DEFAULT_ID));
+        // every commit fit where its neighbours are
+        assertEquals(resorts, meterRegistry.counter(TicketBoardProjection.RESORTS).count(), 0);
+    }
+
+    @Test
+    public void givenBatch_whenMoving_thenProjectionMatchesTheRepository() throws Exception {
+        FullTicket a = ticketService.save(Board.DEFAULT_ID, ticket("a", TicketStatus.done));
+        FullTicket b = ticketService.save(Board.DEFAULT_ID, ticket("b", TicketStatus.done));
+        FullTicket c = ticketService.save(Board.DEFAULT_ID, ticket("c", TicketStatus.done));
+        String root = ticketService.getAll(Board.DEFAULT_ID).get(TicketStatus.done).get(0).getId();
+
+        ticketService.moveTickets(List.of(
+                new MoveRequest(c.getId(), root),
+                new MoveRequest(b.getId(), c.getId()),
+                new MoveRequest(a.getId(), b.getId())));
+
+        assertEquals(ticketOrdering.readBoard(Board.DEFAULT_ID), ticketService.getAll(Board.DEFAULT_ID));
+        List<String> done = ticketService.getAll(Board.DEFAULT_ID).get(TicketStatus.done).stream().map(FullTicket::getId).collect(Collectors.toList());
+        assertEquals(List.of(root, c.getId(), b.getId(), a.getId()), done.subList(0, 4));
+
+        for (FullTicket ticket : List.of(a, b, c)) {
+            ticketService.deleteById(ticket.getId());
+        }
+        assertEquals(ticketOrdering.readBoard(Board.DEFAULT_ID), ticketService.getAll(Board.DEFAULT_ID));
+    }
+
+    @Test
+    public void givenCursor_pagesWalkTheColumnFromTheProjection() throws Exception {
+        List<FullTicket> column = ticketService.getAll(Board.DEFAULT_ID).get(TicketStatus.toDo);
+
+        ColumnPage firstPage = ticketService.findColumnPage(Board.DEFAULT_ID, TicketStatus.toDo, null, 3);
+        assertEquals(column.subList(0, 3), firstPage.getTickets());
+        assertEquals(column.get(2).getId(), firstPage.getNextCursor());
+
+        ColumnPage lastPage = ticketService.findColumnPage(Board.DEFAULT_ID, TicketStatus.toDo, firstPage.getNextCursor(), 3);
+        assertEquals(column.subList(3, column.size()), lastPage.getTickets());
+        assertNull(lastPage.getNextCursor());
+    }
+
+    @Test(expected = TicketNotFoundException.class)
+    public void givenCursorFromAnotherColumn_thenNotFound() throws Exception {
+        ticketService.findColumnPage(Board.DEFAULT_ID, TicketStatus.done, FIRST_TO_DO, 3);
+    }
+
+    @Test
+    public void givenCommittedChanges_searchFollowsThem() throws Exception {
+        assertEquals(List.of(FIRST_TO_DO), ids(ticketService.search(Board.DEFAULT_ID, "first todo", null, 0, 10)));
+
+        FullTicket saved = ticketService.save(Board.DEFAULT_ID, Ticket.builder().title("quarterly").content("report draft").status(TicketStatus.toDo).build());
+        assertEquals(List.of(saved.getId()), ids(ticketService.search(Board.DEFAULT_ID, "report quart", null, 0, 10)));
+
+        ticketService.update(saved.getId(), Ticket.builder().title("yearly").content("report draft").status(TicketStatus.done).build());
+        assertEquals(List.of(), ids(ticketService.search(Board.DEFAULT_ID, "quarterly", null, 0, 10)));
+        assertEquals(List.of(saved.getId()), ids(ticketService.search(Board.DEFAULT_ID, "yearly report", TicketStatus.done, 0, 10)));
+
+        ticketService.deleteById(saved.getId());
+        assertEquals(List.of(), ids(ticketService.search(Board.DEFAULT_ID, "yearly", null, 0, 10)));
+    }
+
+    @Test
+    public void givenTheNamesOfTheColumns_searchFindsNoRoots() throws Exception {
+        for (String query : List.of("todo", "totest", "done", "root")) {
+            List<FullTicket> hits = ticketService.search(Board.DEFAULT_ID, query, null, 0, 100).getTickets();
+            assertTrue(query, hits.stream().noneMatch(ticket -> Boolean.TRUE.equals(ticket.getIsRoot())));
+        }
+        assertEquals(List.of(), ids(ticketService.search(Board.DEFAULT_ID, "todoroot", null, 0, 10)));
+    }
+
+    @Test
+    public void givenAPageFarPastTheLastHit_searchIsEmpty() throws Exception {
+        TicketSearchPage page = ticketService.search(Board.DEFAULT_ID, "first todo", null, Integer.MAX_VALUE, 100);
+
+        assertEquals(List.of(), ids(page));
+        assertEquals(1, page.getTotal());
+    }
+
+    private List<String> ids(TicketSearchPage page) {
+        return page.getTickets().stream().map(FullTicket::getId).collect(Collectors.toList());
+    }
+
+    private Ticket ticket(String title, TicketStatus ticketStatus) {
+        return Ticket.builder().title(title).content("content").status(ticketStatus).build();
+    }
+}
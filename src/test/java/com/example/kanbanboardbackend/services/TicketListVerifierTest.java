@@ -0,0 +1,92 @@
+package com.example.kanbanboardbackend.services;
+
+import com.example.kanbanboardbackend.model.ColumnIntegrity;
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TicketListVerifierTest {
+
+    private static final String BOARD = "board";
+
+    @Test
+    void intactColumnHasNoProblems() {
+        ColumnIntegrity integrity = inspect(root("r", "a"), ticket("a", "b"), ticket("b", null));
+
+        assertTrue(integrity.isIntact());
+        assertEquals(3, integrity.getReachable());
+        assertEquals(1, integrity.getTails());
+    }
+
+    @Test
+    void cycleFromTheRootIsFoundAndEnds() {
+        ColumnIntegrity integrity = inspect(root("r", "a"), ticket("a", "b"), ticket("b", "a"));
+
+        assertFalse(integrity.isIntact());
+        assertEquals(1, integrity.getCycles());
+        assertEquals(0, integrity.getTails());
+        assertEquals(1, integrity.getDuplicatePredecessors());
+    }
+
+    @Test
+    void orphansAndTheirCyclesAreFound() {
+        ColumnIntegrity integrity = inspect(root("r", "a"), ticket("a", null),
+                ticket("b", "c"), ticket("c", "b"), ticket("d", null));
+
+        assertEquals(2, integrity.getReachable());
+        assertEquals(List.of("b", "c", "d"), integrity.getOrphanIds());
+        assertEquals(1, integrity.getCycles());
+        assertEquals(2, integrity.getTails());
+    }
+
+    @Test
+    void missingRootAndDanglingPointerAreFound() {
+        ColumnIntegrity integrity = inspect(ticket("a", "elsewhere"), ticket("b", "a"));
+
+        assertEquals(0, integrity.getRoots());
+        assertEquals(1, integrity.getDanglingPointers());
+        assertEquals(List.of("a", "b"), integrity.getOrphanIds());
+    }
+
+    @Test
+    void repairKeepsTheChainAndAppendsOrphanRuns() {
+        List<FullTicket> column = List.of(root("r", "a"), ticket("a", null),
+                ticket("c", "b"), ticket("b", "c"), ticket("d", "e"), ticket("e", null), root("s", null));
+
+        List<String> order = TicketListVerifier.repairedOrder(BOARD, TicketStatus.toDo, column).stream()
+                .map(FullTicket::getId)
+                .collect(Collectors.toList());
+
+        assertEquals(List.of("r", "a", "d", "e", "s", "c", "b"), order);
+    }
+
+    @Test
+    void repairGivesAColumnWithoutRootANewOne() {
+        List<FullTicket> order = TicketListVerifier.repairedOrder(BOARD, TicketStatus.done, List.of(ticket("a", null)));
+
+        assertEquals(2, order.size());
+        assertTrue(order.get(0).getIsRoot());
+        assertEquals(BOARD, order.get(0).getBoardId());
+        assertEquals("a", order.get(1).getId());
+    }
+
+    private ColumnIntegrity inspect(FullTicket... column) {
+        return TicketListVerifier.inspect(BOARD, TicketStatus.toDo, List.of(column));
+    }
+
+    private FullTicket root(String id, String nextId) {
+        FullTicket root = ticket(id, nextId);
+        root.setIsRoot(true);
+        return root;
+    }
+
+    private FullTicket ticket(String id, String nextId) {
+        return FullTicket.builder().id(id).boardId(BOARD).title(id).content(id)
+                .status(TicketStatus.toDo).nextId(nextId).isRoot(false).build();
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.kanbanboardbackend.services;
+
+import com.example.kanbanboardbackend.model.FullTicket;
+import com.example.kanbanboardbackend.model.TicketChangeSet;
+import com.example.kanbanboardbackend.model.TicketStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TicketSearchIndexTest {
+
+    private static final String BOARD = "board";
+
+    private final TicketSearchIndex searchIndex = new TicketSearchIndex();
+
+    @Test
+    void everyWordHasToMatchAndTitleHitsRankFirst() {
+        changed(ticket("a", "Login page", "fix the error message", TicketStatus.toDo, 0L),
+                ticket("b", "Error message", "shown on the login page", TicketStatus.toDo, 0L),
+                ticket("c", "Signup page", "error message is cut off", TicketStatus.done, 0L));
+
+        assertEquals(List.of("b", "a", "c"), searchIndex.search(BOARD, "error message", null, 0, 10).getIds());
+        assertEquals(List.of("a", "b"), searchIndex.search(BOARD, "login error", null, 0, 10).getIds());
+        assertEquals(List.of(), searchIndex.search(BOARD, "login signup", null, 0, 10).getIds());
+    }
+
+    @Test
+    void lastWordMatchesAsPrefix() {
+        changed(ticket("a", "Database migration", "content", TicketStatus.toDo, 0L),
+                ticket("b", "Data export", "content", TicketStatus.toDo, 0L));
+
+        assertEquals(List.of("a", "b"), searchIndex.search(BOARD, "dat", null, 0, 10).getIds());
+        assertEquals(List.of("a"), searchIndex.search(BOARD, "datab", null, 0, 10).getIds());
+        // too short to expand
+        assertEquals(List.of(), searchIndex.search(BOARD, "da", null, 0, 10).getIds());
+    }
+
+    @Test
+    void hitsAreFilteredByStatusAndPaged() {
+        changed(ticket("a", "release one", "notes", TicketStatus.toDo, 0L),
+                ticket("b", "release two", "notes", TicketStatus.done, 0L),
+                ticket("c", "release three", "notes", TicketStatus.done, 0L));
+
+        assertEquals(List.of("b", "c"), searchIndex.search(BOARD, "release", TicketStatus.done, 0, 10).getIds());
+
+        TicketSearchIndex.Hits secondPage = searchIndex.search(BOARD, "release", null, 2, 2);
+        assertEquals(List.of("c"), secondPage.getIds());
+        assertEquals(3, secondPage.getTotal());
+
+        TicketSearchIndex.Hits farPastTheEnd = searchIndex.search(BOARD, "release", null, (long) Integer.MAX_VALUE * 100, 100);
+        assertEquals(List.of(), farPastTheEnd.getIds());
+        assertEquals(3, farPastTheEnd.getTotal());
+    }
+
+    @Test
+    void commitsUpdateTheIndex() {
+        changed(ticket("a", "old title", "content", TicketStatus.toDo, 0L));
+        changed(ticket("a", "new title", "content", TicketStatus.toDo, 1L));
+        assertEquals(List.of(), searchIndex.search(BOARD, "old", null, 0, 10).getIds());
+        assertEquals(List.of("a"), searchIndex.search(BOARD, "new", null, 0, 10).getIds());
+
+        // a move keeps the words and changes the column
+        changed(ticket("a", "new title", "content", TicketStatus.done, 2L));
+        assertEquals(List.of("a"), searchIndex.search(BOARD, "new", TicketStatus.done, 0, 10).getIds());
+
+        // a late commit of an older version is ignored
+        changed(ticket("a", "old title", "content", TicketStatus.toDo, 1L));
+        assertEquals(List.of("a"), searchIndex.search(BOARD, "new", TicketStatus.done, 0, 10).getIds());
+
+        searchIndex.apply(new TicketChangeSet(List.of(), Set.of("a")));
+        assertEquals(List.of(), searchIndex.search(BOARD, "new", null, 0, 10).getIds());
+    }
+
+    @Test
+    void boardsAreSearchedSeparately() {
+        changed(ticket("a", "release notes", "content", TicketStatus.toDo, 0L),
+                FullTicket.builder().id("b").boardId("other").title("release plan").content("content").status(TicketStatus.toDo).version(0L).build());
+
+        assertEquals(List.of("a"), searchIndex.search(BOARD, "release", null, 0, 10).getIds());
+        assertEquals(List.of("b"), searchIndex.search("other", "release", null, 0, 10).getIds());
+        assertEquals(List.of(), searchIndex.search("unknown", "release", null, 0, 10).getIds());
+
+        searchIndex.apply(new TicketChangeSet(List.of(), Set.of("b")));
+        assertEquals(List.of(), searchIndex.search("other", "release", null, 0, 10).getIds());
+        assertEquals(List.of("a"), searchIndex.search(BOARD, "release", null, 0, 10).getIds());
+    }
+
+    @Test
+    void rootsOfTheColumnsAreNotFound() {
+        changed(ticket("a", "todo list", "content", TicketStatus.toDo, 0L),
+                FullTicket.builder().id("root").boardId(BOARD).title("toDoRoot").content("toDoRoot").status(TicketStatus.toDo).isRoot(true).version(0L).build());
+
+        assertEquals(List.of("a"), searchIndex.search(BOARD, "todo", null, 0, 10).getIds());
+        assertEquals(List.of(), searchIndex.search(BOARD, "todoroot", null, 0, 10).getIds());
+    }
+
+    @Test
+    void manyEditsCompactTheIndex() {
+        changed(ticket("b", "steady", "content", TicketStatus.toDo, 0L));
+        for (long version = 0; version <= 20_001; version++) {
+            changed(ticket("a", "edit " + version, "content", TicketStatus.toDo, version));
+        }
+
+        assertEquals(List.of("a"), searchIndex.search(BOARD, "20001", null, 0, 10).getIds());
+        assertEquals(List.of("a"), searchIndex.search(BOARD, "edit", null, 0, 10).getIds());
+        assertEquals(List.of("b"), searchIndex.search(BOARD, "steady", null, 0, 10).getIds());
+        assertEquals(2, searchIndex.search(BOARD, "content", null, 0, 10).getTotal());
+    }
+
+    private void changed(FullTicket... tickets) {
+        searchIndex.apply(new TicketChangeSet(List.of(tickets), Set.of()));
+    }
+
+    private FullTicket ticket(String id, String title, String content, TicketStatus ticketStatus, Long version) {
+        return FullTicket.builder().id(id).boardId(BOARD).title(title).content(content).status(ticketStatus).version(version).build();
+    }
+}